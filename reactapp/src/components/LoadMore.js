@@ -0,0 +1,21 @@
+import React from "react";
+
+// Under a list from usePagedList: says the list is partial and fetches the next page
+export default function LoadMore({ list, noun = "rows" }) {
+  const [error, setError] = React.useState("");
+  if (!list.hasNext) return null;
+  return (
+    <div className="pagination">
+      <span className="page-indicator">{error || `Showing the first ${list.items.length} ${noun}`}</span>
+      <button
+        disabled={list.loadingMore}
+        onClick={() => {
+          setError("");
+          list.loadMore().catch(() => setError("Failed to load more"));
+        }}
+      >
+        {list.loadingMore ? "Loading..." : "Load more"}
+      </button>
+    </div>
+  );
+}
@@ -1,6 +1,6 @@
 import React, { useEffect, useMemo, useState } from "react";
-import axios from "axios";
 import { useNavigate } from "react-router-dom";
+import { fetchAllPages } from "../hooks/usePagedList";
 
 export default function WarehouseDetails() {
   const API_BASE = process.env.REACT_APP_API_BASE_URL || "http://localhost:8080";
@@ -17,14 +17,15 @@ export default function WarehouseDetails() {
       setLoading(true);
       setError("");
       try {
-        const [wRes, pRes, iRes] = await Promise.all([
-          axios.get(`${API_BASE}/api/warehouses`),
-          axios.get(`${API_BASE}/api/products`),
-          axios.get(`${API_BASE}/api/inventory`)
+        // Per-warehouse and consolidated totals need every row, not just the first page
+        const [w, p, inv] = await Promise.all([
+          fetchAllPages(`${API_BASE}/api/warehouses`),
+          fetchAllPages(`${API_BASE}/api/products`),
+          fetchAllPages(`${API_BASE}/api/inventory`)
         ]);
-        setWarehouses(wRes.data || []);
-        setProducts(pRes.data || []);
-        setInventory(iRes.data || []);
+        setWarehouses(w);
+        setProducts(p);
+        setInventory(inv);
       } catch (e) {
         setError("Failed to load warehouse details");
       } finally {
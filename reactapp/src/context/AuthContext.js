@@ -1,14 +1,60 @@
-import React, { createContext, useContext, useState, useEffect } from "react";
+import React, { createContext, useContext, useState, useEffect, useCallback } from "react";
+import axios from "axios";
 
 const AuthContext = createContext();
 
 export const AuthProvider = ({ children }) => {
   const [user, setUser] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [token, setToken] = useState(() => localStorage.getItem("authToken"));
+  const [tokenExpiresAt, setTokenExpiresAt] = useState(() => Number(localStorage.getItem("authTokenExpiresAt")) || 0);
   const API_BASE =
     process.env.REACT_APP_API_BASE_URL ||
     "http://localhost:8080";
 
+  // Stock movements are attributed to the user in the token, so every request carries it
+  const applyToken = useCallback((newToken, expiresIn) => {
+    if (newToken) {
+      const expiresAt = Date.now() + expiresIn * 1000;
+      localStorage.setItem("authToken", newToken);
+      localStorage.setItem("authTokenExpiresAt", String(expiresAt));
+      setToken(newToken);
+      setTokenExpiresAt(expiresAt);
+    } else {
+      localStorage.removeItem("authToken");
+      localStorage.removeItem("authTokenExpiresAt");
+      setToken(null);
+      setTokenExpiresAt(0);
+    }
+  }, []);
+
+  if (token) {
+    axios.defaults.headers.common.Authorization = `Bearer ${token}`;
+  } else {
+    delete axios.defaults.headers.common.Authorization;
+  }
+
+  // Renew the token shortly before it expires
+  useEffect(() => {
+    if (!token || !tokenExpiresAt) return undefined;
+    const delay = Math.max(tokenExpiresAt - Date.now() - 60000, 0);
+    const timer = setTimeout(async () => {
+      try {
+        const res = await fetch(`${API_BASE}/api/users/token/refresh`, {
+          method: "POST",
+          headers: { Authorization: `Bearer ${token}` },
+        });
+        if (!res.ok) throw new Error("Token refresh failed");
+        const data = await res.json();
+        applyToken(data.token, data.expiresIn);
+      } catch (err) {
+        console.error("Token refresh error:", err);
+        applyToken(null);
+      }
+    }, delay);
+    return () => clearTimeout(timer);
+  }, [API_BASE, token, tokenExpiresAt, applyToken]);
+
   useEffect(() => {
     const checkAuthStatus = async () => {
       try {
@@ -97,6 +143,7 @@ export const AuthProvider = ({ children }) => {
         return null;
       }
 
+      applyToken(data.token, data.expiresIn);
       // Fetch complete user details after successful login
       return await fetchUserDetails(data.email);
     } catch (err) {
@@ -133,6 +180,7 @@ export const AuthProvider = ({ children }) => {
   const logout = () => {
     setUser(null);
     localStorage.removeItem("loggedInUser");
+    applyToken(null);
     
   };
 
@@ -0,0 +1,46 @@
+import { useCallback, useRef, useState } from "react";
+import axios from "axios";
+
+// The server caps a page at 500 rows (spring.data.web.pageable.max-page-size)
+const PAGE_SIZE = 500;
+
+// State for a paged collection endpoint (PageResponse): reload() fetches the first page,
+// loadMore() appends the next one while the server reports hasNext.
+export default function usePagedList(url, pageSize = PAGE_SIZE) {
+  const [items, setItems] = useState([]);
+  const [hasNext, setHasNext] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const nextPage = useRef(0);
+
+  const reload = useCallback(async () => {
+    const res = await axios.get(url, { params: { page: 0, size: pageSize } });
+    setItems(res.data?.content || []);
+    setHasNext(Boolean(res.data?.hasNext));
+    nextPage.current = 1;
+    return res.data;
+  }, [url, pageSize]);
+
+  const loadMore = useCallback(async () => {
+    setLoadingMore(true);
+    try {
+      const res = await axios.get(url, { params: { page: nextPage.current, size: pageSize } });
+      setItems(prev => [...prev, ...(res.data?.content || [])]);
+      setHasNext(Boolean(res.data?.hasNext));
+      nextPage.current += 1;
+    } finally {
+      setLoadingMore(false);
+    }
+  }, [url, pageSize]);
+
+  return { items, hasNext, loadingMore, reload, loadMore };
+}
+
+// Every page of a paged collection endpoint, for views that total across the whole list
+export async function fetchAllPages(url, pageSize = PAGE_SIZE) {
+  const all = [];
+  for (let page = 0; ; page++) {
+    const res = await axios.get(url, { params: { page, size: pageSize } });
+    all.push(...(res.data?.content || []));
+    if (!res.data?.hasNext) return all;
+  }
+}
@@ -5,17 +5,24 @@ import axios from "axios";
 import AddUserModal from "../components/admin/AddUserModal";
 import WarehouseModal from "../components/admin/WarehouseModal";
 import AddProductModal from "../components/manager/AddProductModal";
+import LoadMore from "../components/LoadMore";
+import usePagedList from "../hooks/usePagedList";
 
 export default function AdminDashboard() {
   const { user, logout } = useAuth();
   const navigate = useNavigate();
   const API_BASE = process.env.REACT_APP_API_BASE_URL || "http://localhost:8080";
 
-  const [users, setUsers] = useState([]);
-  const [warehouses, setWarehouses] = useState([]);
-  const [products, setProducts] = useState([]);
-  const [alerts, setAlerts] = useState([]);
-  const [inventory, setInventory] = useState([]);
+  const userList = usePagedList(`${API_BASE}/api/users`);
+  const warehouseList = usePagedList(`${API_BASE}/api/warehouses`);
+  const productList = usePagedList(`${API_BASE}/api/products`);
+  const alertList = usePagedList(`${API_BASE}/api/alerts/active`);
+  const inventoryList = usePagedList(`${API_BASE}/api/inventory`);
+  const users = userList.items;
+  const warehouses = warehouseList.items;
+  const products = productList.items;
+  const alerts = alertList.items;
+  const inventory = inventoryList.items;
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   // Low stock threshold for dashboard display
@@ -42,24 +49,24 @@ export default function AdminDashboard() {
   const [editingProduct, setEditingProduct] = useState(null);
   const [submittingProduct, setSubmittingProduct] = useState(false);
 
+  const { reload: reloadUsers } = userList;
+  const { reload: reloadWarehouses } = warehouseList;
+  const { reload: reloadProducts } = productList;
+  const { reload: reloadInventory } = inventoryList;
+  const { reload: reloadAlerts } = alertList;
+
   useEffect(() => {
     const load = async () => {
       setLoading(true);
       setError("");
       try {
-        const [u, w, p, h, inv, a] = await Promise.all([
-          axios.get(`${API_BASE}/api/users`),
-          axios.get(`${API_BASE}/api/warehouses`),
-          axios.get(`${API_BASE}/api/products`),
-          axios.get(`${API_BASE}/api/inventory/history`),
-          axios.get(`${API_BASE}/api/inventory`),
-          axios.get(`${API_BASE}/api/alerts/active`)
+        await Promise.all([
+          reloadUsers(),
+          reloadWarehouses(),
+          reloadProducts(),
+          reloadInventory(),
+          reloadAlerts()
         ]);
-        setUsers(u.data || []);
-        setWarehouses(w.data || []);
-        setProducts(p.data || []);
-        setInventory(inv.data || []);
-        setAlerts(a.data || []);
       } catch (e) {
         setError("Failed to load admin data");
       } finally {
@@ -67,21 +74,20 @@ export default function AdminDashboard() {
       }
     };
     load();
-  }, [API_BASE]);
+  }, [reloadUsers, reloadWarehouses, reloadProducts, reloadInventory, reloadAlerts]);
 
-  // Poll alerts periodically
+  // Poll alerts periodically (first page)
   useEffect(() => {
     let id;
     const poll = async () => {
       try {
-        const res = await axios.get(`${API_BASE}/api/alerts/active`);
-        setAlerts(res.data || []);
+        await reloadAlerts();
       } catch (_) {}
     };
     poll();
     id = setInterval(poll, 30000);
     return () => clearInterval(id);
-  }, [API_BASE]);
+  }, [reloadAlerts]);
 
   const totalUsers = users.length;
   const totalAdmins = users.filter(u => (u.role || "").toString().toUpperCase() === "ADMIN").length;
@@ -229,7 +235,7 @@ export default function AdminDashboard() {
         <div className="metric-card" style={{ borderLeft: "4px solid #00c6ff" }}>
           <div className="metric-icon">👥</div>
           <div className="metric-content">
-            <div className="metric-value">{totalUsers}</div>
+            <div className="metric-value">{totalUsers}{userList.hasNext ? "+" : ""}</div>
             <div className="metric-title">Total Users</div>
             <div className="metric-subtitle">Admin {totalAdmins} · Manager {totalManagers} · Emp {totalEmployees}</div>
           </div>
@@ -237,21 +243,21 @@ export default function AdminDashboard() {
         <div className="metric-card" style={{ borderLeft: "4px solid #6a11cb" }}>
           <div className="metric-icon">🏢</div>
           <div className="metric-content">
-            <div className="metric-value">{warehouses.length}</div>
+            <div className="metric-value">{warehouses.length}{warehouseList.hasNext ? "+" : ""}</div>
             <div className="metric-title">Warehouses</div>
           </div>
         </div>
         <div className="metric-card" style={{ borderLeft: "4px solid #ff9800" }}>
           <div className="metric-icon">🏷️</div>
           <div className="metric-content">
-            <div className="metric-value">{products.length}</div>
+            <div className="metric-value">{products.length}{productList.hasNext ? "+" : ""}</div>
             <div className="metric-title">Products</div>
           </div>
         </div>
         <div className="metric-card" style={{ borderLeft: "4px solid #f44336" }}>
           <div className="metric-icon">⚠️</div>
           <div className="metric-content">
-            <div className="metric-value">{alerts.length}</div>
+            <div className="metric-value">{alerts.length}{alertList.hasNext ? "+" : ""}</div>
             <div className="metric-title">Active Alerts</div>
           </div>
         </div>
@@ -312,6 +318,7 @@ export default function AdminDashboard() {
               <span className="page-indicator">{userPage} / {totalUserPages}</span>
               <button disabled={userPage === totalUserPages} onClick={() => setUserPage(p => Math.min(totalUserPages, p + 1))}>Next</button>
             </div>
+            <LoadMore list={userList} noun="users" />
           </div>
 
           <div className="overview-card card-products">
@@ -342,8 +349,7 @@ export default function AdminDashboard() {
                           if (!window.confirm("Delete this product?")) return;
                           try {
                             await axios.delete(`${API_BASE}/api/products/${p.id}`);
-                            const res = await axios.get(`${API_BASE}/api/products`);
-                            setProducts(res.data || []);
+                            await reloadProducts();
                           } catch (e) {
                             setError(e.response?.data?.error || "Failed to delete product");
                           }
@@ -359,6 +365,7 @@ export default function AdminDashboard() {
               <span className="page-indicator">{productPage} / {totalProductPages}</span>
               <button disabled={productPage === totalProductPages} onClick={() => setProductPage(p => Math.min(totalProductPages, p + 1))}>Next</button>
             </div>
+            <LoadMore list={productList} noun="products" />
       </div>
 
           <div className="overview-card card-warehouses">
@@ -390,6 +397,7 @@ export default function AdminDashboard() {
               <span className="page-indicator">{warehousePage} / {totalWarehousePages}</span>
               <button disabled={warehousePage === totalWarehousePages} onClick={() => setWarehousePage(p => Math.min(totalWarehousePages, p + 1))}>Next</button>
             </div>
+            <LoadMore list={warehouseList} noun="warehouses" />
       </div>
 
           <div className="overview-card card-alerts">
@@ -415,6 +423,7 @@ export default function AdminDashboard() {
               <p>Low Stock Items: {lowStockCount}</p>
             </div>
             <button className="export-btn" onClick={exportInventoryCSV}>⬇️ Export Inventory CSV</button>
+            <LoadMore list={inventoryList} noun="inventory rows" />
           </div>
           <div className="overview-card" style={{ gridColumn: '1 / -1' }}>
             <h4>Consolidated Stock by Product (All Warehouses)</h4>
@@ -455,8 +464,7 @@ export default function AdminDashboard() {
           try {
             await axios.post(`${API_BASE}/api/users`, values);
             setShowAddUser(false);
-            const res = await axios.get(`${API_BASE}/api/users`);
-            setUsers(res.data || []);
+            await reloadUsers();
           } catch (e) {
             setError(e.response?.data?.error || "Failed to add user");
           }
@@ -479,8 +487,7 @@ export default function AdminDashboard() {
             }
             setShowWarehouseModal(false);
             setEditingWarehouse(null);
-            const res = await axios.get(`${API_BASE}/api/warehouses`);
-            setWarehouses(res.data || []);
+            await reloadWarehouses();
           } catch (e) {
             setError(e.response?.data?.error || "Failed to save warehouse");
           }
@@ -504,8 +511,7 @@ export default function AdminDashboard() {
             }
             setShowProductModal(false);
             setEditingProduct(null);
-            const res = await axios.get(`${API_BASE}/api/products`);
-            setProducts(res.data || []);
+            await reloadProducts();
           } catch (e) {
             setError(e.response?.data?.error || "Failed to save product");
           } finally {
@@ -1,6 +1,6 @@
 import React, { useEffect, useMemo, useState } from "react";
-import axios from "axios";
 import { useAuth } from "../context/AuthContext";
+import { fetchAllPages } from "../hooks/usePagedList";
 //
 
 export default function AdminReports() {
@@ -22,20 +22,21 @@ export default function AdminReports() {
       setLoading(true);
       setError("");
       try {
+        // Reports total across everything, so walk every page rather than stop at the first
         const [p, w, s, u, inv, h] = await Promise.all([
-          axios.get(`${API_BASE}/api/products`),
-          axios.get(`${API_BASE}/api/warehouses`),
-          axios.get(`${API_BASE}/api/suppliers`),
-          axios.get(`${API_BASE}/api/users`),
-          axios.get(`${API_BASE}/api/inventory`),
-          axios.get(`${API_BASE}/api/inventory/history`),
+          fetchAllPages(`${API_BASE}/api/products`),
+          fetchAllPages(`${API_BASE}/api/warehouses`),
+          fetchAllPages(`${API_BASE}/api/suppliers`),
+          fetchAllPages(`${API_BASE}/api/users`),
+          fetchAllPages(`${API_BASE}/api/inventory`),
+          fetchAllPages(`${API_BASE}/api/inventory/history`),
         ]);
-        setProducts(p.data || []);
-        setWarehouses(w.data || []);
-        setSuppliers(s.data || []);
-        setUsers(u.data || []);
-        setInventory(inv.data || []);
-        setHistory((h.data || []).sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp)));
+        setProducts(p);
+        setWarehouses(w);
+        setSuppliers(s);
+        setUsers(u);
+        setInventory(inv);
+        setHistory(h.sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp)));
       } catch (e) {
         setError("Failed to load report data");
       } finally {
@@ -3,6 +3,8 @@ import { useAuth } from "../context/AuthContext";
 import { useNavigate } from "react-router-dom";
 import axios from "axios";
 import { format } from "date-fns";
+import LoadMore from "../components/LoadMore";
+import usePagedList, { fetchAllPages } from "../hooks/usePagedList";
 
 export default function EmployeeDashboard() {
   const { user, logout } = useAuth();
@@ -10,10 +12,13 @@ export default function EmployeeDashboard() {
 
   const API_BASE = process.env.REACT_APP_API_BASE_URL || "http://localhost:8080";
 
-  const [inventory, setInventory] = useState([]);
+  const inventoryList = usePagedList(`${API_BASE}/api/inventory`);
+  const historyList = usePagedList(`${API_BASE}/api/inventory/history`);
+  const inventory = inventoryList.items;
   const [products, setProducts] = useState([]);
+  const [productQuery, setProductQuery] = useState("");
   const [warehouses, setWarehouses] = useState([]);
-  const [history, setHistory] = useState([]);
+  const history = historyList.items;
 
   const [loading, setLoading] = useState(true);
   const [submitting, setSubmitting] = useState(false);
@@ -38,22 +43,33 @@ export default function EmployeeDashboard() {
     loadAll();
   }, []);
 
+  // The product picker searches the catalog rather than loading all of it
+  useEffect(() => {
+    const q = productQuery.trim();
+    if (!q) {
+      setProducts([]);
+      return;
+    }
+    const id = setTimeout(async () => {
+      try {
+        const res = await axios.get(`${API_BASE}/api/products/search`, { params: { q, limit: 20 } });
+        setProducts(res.data || []);
+      } catch (_) {}
+    }, 250);
+    return () => clearTimeout(id);
+  }, [productQuery, API_BASE]);
+
   const loadAll = async () => {
     setLoading(true);
     setError("");
     try {
-      const [invRes, prodRes, whRes, histRes] = await Promise.all([
-        axios.get(`${API_BASE}/api/inventory`),
-        axios.get(`${API_BASE}/api/products/dropdown`),
-        axios.get(`${API_BASE}/api/warehouses/dropdown`),
-        axios.get(`${API_BASE}/api/inventory/history`)
+      // history comes newest first from the server
+      const [wh] = await Promise.all([
+        fetchAllPages(`${API_BASE}/api/warehouses/dropdown`),
+        inventoryList.reload(),
+        historyList.reload()
       ]);
-      setInventory(invRes.data || []);
-      setProducts(prodRes.data || []);
-      setWarehouses(whRes.data || []);
-      // sort history by timestamp desc
-      const hist = (histRes.data || []).sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
-      setHistory(hist);
+      setWarehouses(wh);
     } catch (err) {
       console.error("Error loading data:", err);
       setError("Failed to load data. Please refresh.");
@@ -149,8 +165,7 @@ export default function EmployeeDashboard() {
     const payload = {
       productId: Number(form.productId),
       warehouseId: Number(form.warehouseId),
-      quantity: Number(form.quantity),
-      performedByEmail: user?.email || ""
+      quantity: Number(form.quantity)
     };
 
     try {
@@ -202,8 +217,7 @@ export default function EmployeeDashboard() {
     const payload = {
       productId: Number(adjustForm.productId),
       warehouseId: Number(adjustForm.warehouseId),
-      quantity: Number(adjustForm.quantity),
-      performedByEmail: user?.email || ""
+      quantity: Number(adjustForm.quantity)
     };
     const type = adjustForm.type === "out" ? "out" : "in";
     try {
@@ -230,8 +244,7 @@ export default function EmployeeDashboard() {
 
   const loadInventoryOnly = async () => {
     try {
-      const res = await axios.get(`${API_BASE}/api/inventory`);
-      setInventory(res.data || []);
+      await inventoryList.reload();
     } catch (e) {
       // keep silent on partial refresh errors
     }
@@ -239,9 +252,7 @@ export default function EmployeeDashboard() {
 
   const loadHistoryOnly = async () => {
     try {
-      const res = await axios.get(`${API_BASE}/api/inventory/history`);
-      const hist = (res.data || []).sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
-      setHistory(hist);
+      await historyList.reload();
     } catch (e) {}
   };
 
@@ -320,6 +331,7 @@ export default function EmployeeDashboard() {
           <span className="page-indicator">{inventoryPage} / {totalInventoryPages}</span>
           <button disabled={inventoryPage === totalInventoryPages} onClick={() => setInventoryPage(p => Math.min(totalInventoryPages, p + 1))}>Next</button>
         </div>
+        <LoadMore list={inventoryList} noun="inventory rows" />
       </Card>
 
       <Card title="🧾 Inventory Adjustment">
@@ -327,6 +339,19 @@ export default function EmployeeDashboard() {
           <div style={{ display: 'grid', gridTemplateColumns: '1fr 1fr', gap: 16, marginBottom: 16 }}>
             <div>
               <label style={{ display: 'block', marginBottom: 6, color: 'rgba(255,255,255,0.85)' }}>Product</label>
+              <input
+                type="text"
+                placeholder="Search SKU or name"
+                value={productQuery}
+                onChange={e => {
+                  // A new search replaces the options, so a pick from the old ones no longer stands
+                  setProductQuery(e.target.value);
+                  setAdjustForm(prev => ({ ...prev, productId: "" }));
+                }}
+                disabled={submitting}
+                className="input-modern"
+                style={{ marginBottom: 8 }}
+              />
               <select
                 name="productId"
                 value={adjustForm.productId}
@@ -334,9 +359,9 @@ export default function EmployeeDashboard() {
                 disabled={submitting}
                 className="input-modern"
               >
-                <option value="">Select product</option>
+                <option value="">{productQuery.trim() ? "Select product" : "Type to search products"}</option>
                 {products.map(p => (
-                  <option key={p.id} value={p.id}>{p.name}</option>
+                  <option key={p.id} value={p.id}>{p.sku} - {p.name}</option>
                 ))}
               </select>
             </div>
@@ -425,6 +450,7 @@ export default function EmployeeDashboard() {
           <span className="page-indicator">{historyPage} / {totalHistoryPages}</span>
           <button disabled={historyPage === totalHistoryPages} onClick={() => setHistoryPage(p => Math.min(totalHistoryPages, p + 1))}>Next</button>
         </div>
+        <LoadMore list={historyList} noun="movements" />
       </Card>
 
       <button className="logout-btn" onClick={logout}>
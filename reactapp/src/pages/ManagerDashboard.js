@@ -6,6 +6,8 @@ import { format } from "date-fns";
 import AddProductModal from "../components/manager/AddProductModal";
 import AddSupplierModal from "../components/manager/AddSupplierModal";
 import { useToast } from "../context/ToastContext";
+import LoadMore from "../components/LoadMore";
+import usePagedList from "../hooks/usePagedList";
 
 export default function ManagerDashboard() {
   const { user, logout } = useAuth();
@@ -14,10 +16,14 @@ export default function ManagerDashboard() {
   const API_BASE = process.env.REACT_APP_API_BASE_URL || "http://localhost:8080";
 
   // State for different data
-  const [products, setProducts] = useState([]);
-  const [suppliers, setSuppliers] = useState([]);
-  const [inventory, setInventory] = useState([]);
-  const [stockHistory, setStockHistory] = useState([]);
+  const productList = usePagedList(`${API_BASE}/api/products`);
+  const supplierList = usePagedList(`${API_BASE}/api/suppliers`);
+  const inventoryList = usePagedList(`${API_BASE}/api/inventory`);
+  const historyList = usePagedList(`${API_BASE}/api/inventory/history`);
+  const products = productList.items;
+  const suppliers = supplierList.items;
+  const inventory = inventoryList.items;
+  const stockHistory = historyList.items;
   const [loading, setLoading] = useState(true);
   const [activeTab, setActiveTab] = useState("overview");
 
@@ -51,17 +57,12 @@ export default function ManagerDashboard() {
   const loadAllData = async () => {
     setLoading(true);
     try {
-      const [productsRes, suppliersRes, inventoryRes, historyRes] = await Promise.all([
-        axios.get(`${API_BASE}/api/products`),
-        axios.get(`${API_BASE}/api/suppliers`),
-        axios.get(`${API_BASE}/api/inventory`),
-        axios.get(`${API_BASE}/api/inventory/history`)
+      await Promise.all([
+        productList.reload(),
+        supplierList.reload(),
+        inventoryList.reload(),
+        historyList.reload()
       ]);
-      
-      setProducts(productsRes.data || []);
-      setSuppliers(suppliersRes.data || []);
-      setInventory(inventoryRes.data || []);
-      setStockHistory(historyRes.data || []);
     } catch (err) {
       console.error("Error loading data:", err);
       setError("Failed to load dashboard data. Please check your connection.");
@@ -676,6 +677,7 @@ export default function ManagerDashboard() {
                   )}
                 </tbody>
               </table>
+              <LoadMore list={productList} noun="products" />
             </div>
           </div>
         )}
@@ -746,6 +748,7 @@ export default function ManagerDashboard() {
                   )}
                 </tbody>
               </table>
+              <LoadMore list={supplierList} noun="suppliers" />
             </div>
           </div>
         )}
@@ -791,6 +794,7 @@ export default function ManagerDashboard() {
                   )}
                 </tbody>
               </table>
+              <LoadMore list={inventoryList} noun="inventory rows" />
             </div>
           </div>
         )}
@@ -819,6 +823,7 @@ export default function ManagerDashboard() {
                   <p>Stock-Out: {stockOutCount}</p>
                   <p>Recent ({selectedTimeRange}): {recentMovements.length}</p>
                 </div>
+                <LoadMore list={historyList} noun="movements" />
                 <button className="export-btn" onClick={() => exportReport("Stock Movement")}>
                   📊 Export Report
                 </button>
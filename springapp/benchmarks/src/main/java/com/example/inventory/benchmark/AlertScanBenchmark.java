@@ -0,0 +1,58 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.service.LowStockAlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full alert scans over 5 warehouses. inventoryRows is the total number of inventory rows scanned.
+ *
+ * The first warm-up scan opens the alerts; the measured scans then see the steady state the
+ * scheduler sees every minute, where open alerts are refreshed and healthy rows find nothing to resolve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AlertScanBenchmark {
+
+    private static final int WAREHOUSES = 5;
+
+    @Param({"1000", "5000", "20000"})
+    public int inventoryRows;
+
+    private BenchmarkDatabase database;
+    private LowStockAlertService lowStockAlertService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        database.seed(inventoryRows / WAREHOUSES, WAREHOUSES);
+        lowStockAlertService = database.bean(LowStockAlertService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void scanAndGenerateAlerts() {
+        lowStockAlertService.scanAndGenerateAlerts();
+    }
+}
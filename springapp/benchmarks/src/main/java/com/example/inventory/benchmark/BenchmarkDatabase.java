@@ -0,0 +1,88 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.InventoryManagementSystemApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.config.ScheduledTask;
+
+import java.io.IOException;
+
+/**
+ * An embedded PostgreSQL plus the full application context (without the web server) wired against it.
+ *
+ * Each benchmark fork starts its own instance, so data sizes never leak between parameter sets.
+ * Seeding is done with generate_series rather than through the services, which keeps setup at a
+ * few seconds even for the larger sizes.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final String ACTOR = "bench@example.com";
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static BenchmarkDatabase start() {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start embedded PostgreSQL: " + e.getMessage(), e);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryManagementSystemApplication.class)
+                .run("--spring.main.web-application-type=none",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--admission.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.inventory.slow-query=ERROR");
+        // The alert scheduler would otherwise scan in the middle of a measurement
+        context.getBean(ScheduledAnnotationBeanPostProcessor.class).getScheduledTasks().forEach(ScheduledTask::cancel);
+        return new BenchmarkDatabase(postgres, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Seeds suppliers, warehouses and products, and one inventory row per product and warehouse.
+     * Every product has a minimum of 10; stock levels spread over 0..39, so roughly a quarter of the
+     * rows are below their minimum.
+     */
+    void seed(int products, int warehouses) {
+        JdbcTemplate jdbc = jdbc();
+        jdbc.update("INSERT INTO suppliers (name) SELECT 'Supplier ' || g FROM generate_series(1, 50) g");
+        jdbc.update("INSERT INTO warehouses (name, location) "
+                + "SELECT 'Warehouse ' || g, 'Zone ' || g FROM generate_series(1, ?) g", warehouses);
+        jdbc.update("INSERT INTO products (sku, name, category, unit, price, supplier_id, min_stock_level) "
+                + "SELECT 'SKU-' || lpad(g::text, 8, '0'), 'Product ' || g, 'Category ' || (g % 40), 'pcs', "
+                + "1 + (g % 100), (SELECT min(id) FROM suppliers) + (g % 50), 10 FROM generate_series(1, ?) g", products);
+        jdbc.update("INSERT INTO inventory (product_id, warehouse_id, stock_level) "
+                + "SELECT p.id, w.id, (p.id * 7 + w.id * 13) % 40 FROM products p CROSS JOIN warehouses w");
+        jdbc.execute("ANALYZE");
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to stop embedded PostgreSQL: " + e.getMessage(), e);
+        }
+    }
+}
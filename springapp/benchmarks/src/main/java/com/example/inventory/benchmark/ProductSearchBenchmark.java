@@ -0,0 +1,86 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.ProductSearchHit;
+import com.example.inventory.entity.Product;
+import com.example.inventory.entity.Supplier;
+import com.example.inventory.service.impl.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups against the in-memory product index. The index is filled directly with
+ * putAll, so no database is needed; the data source it is given is never used.
+ *
+ * The queries cycle through each scoring tier: exact SKU, SKU prefix, name prefix, name word
+ * prefix, substring (trigram path), category-filtered, supplier name and no match.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final String[][] QUERIES = {
+            {"SKU-00004711", null},
+            {"SKU-0000", null},
+            {"Blue", null},
+            {"bolt", null},
+            {"ank 4", null},
+            {"steel", "Category 7"},
+            {"Supplier 12", null},
+            {"zzzz", null},
+    };
+    private static final String[] ADJECTIVES = {"Blue", "Steel", "Heavy", "Compact", "Premium", "Basic", "Red", "Large"};
+    private static final String[] NOUNS = {"Bolt", "Tank", "Valve", "Bracket", "Hinge", "Panel", "Cable", "Washer"};
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource unused = new DriverManagerDataSource();
+        index = new ProductSearchIndex(unused, new DataSourceTransactionManager(unused));
+        List<Supplier> suppliers = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            suppliers.add(Supplier.builder().id(i).name("Supplier " + i).build());
+        }
+        List<Product> batch = new ArrayList<>(10000);
+        for (long i = 1; i <= products; i++) {
+            batch.add(Product.builder().id(i).sku(String.format("SKU-%08d", i))
+                    .name(ADJECTIVES[(int) (i % ADJECTIVES.length)] + " " + NOUNS[(int) (i / ADJECTIVES.length % NOUNS.length)] + " " + i)
+                    .category("Category " + (i % 40)).supplier(suppliers.get((int) (i % suppliers.size()))).build());
+            if (batch.size() == 10000) {
+                index.putAll(batch);
+                batch.clear();
+            }
+        }
+        index.putAll(batch);
+    }
+
+    @Benchmark
+    public List<ProductSearchHit> search() {
+        String[] query = QUERIES[next++ % QUERIES.length];
+        return index.search(query[0], query[1], 20);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.entity.Product;
+import com.example.inventory.entity.StockHistory;
+import com.example.inventory.entity.Supplier;
+import com.example.inventory.entity.Warehouse;
+import com.example.inventory.util.StockAdjustmentType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-JSON cost of the stock history endpoints, which return StockHistory entities with
+ * their product, supplier and warehouse inlined. No database is involved: the lists are built in
+ * memory and share product and warehouse instances the way a persistence context would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockHistorySerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<StockHistory> history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Random random = new Random(42);
+        List<Supplier> suppliers = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            suppliers.add(Supplier.builder().id(i).name("Supplier " + i).contactPerson("Contact " + i)
+                    .email("supplier" + i + "@example.com").phone("+1-555-01" + i).address(i + " Market Street")
+                    .paymentTerms("NET30").build());
+        }
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            warehouses.add(Warehouse.builder().id(i).name("Warehouse " + i).location("Zone " + i).build());
+        }
+        List<Product> products = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            products.add(Product.builder().id(i).sku(String.format("SKU-%08d", i)).name("Product " + i)
+                    .category("Category " + (i % 40)).unit("pcs").price(1.0 + i % 100)
+                    .description("Description of product " + i).supplier(suppliers.get((int) (i % suppliers.size())))
+                    .minStockLevel(10).build());
+        }
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        history = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            history.add(StockHistory.builder().id(i)
+                    .product(products.get(random.nextInt(products.size())))
+                    .warehouse(warehouses.get(random.nextInt(warehouses.size())))
+                    .adjustmentQuantity(1 + random.nextInt(50))
+                    .adjustmentType(random.nextBoolean() ? StockAdjustmentType.ADD : StockAdjustmentType.REMOVE)
+                    .timestamp(start.plusMinutes(i * 7))
+                    .performedByEmail("employee" + random.nextInt(10) + "@example.com")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeStockHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.entity.Inventory;
+import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.service.LowStockAlertService;
+import com.example.inventory.service.StockHistoryService;
+import com.example.inventory.util.Bulkhead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single stock movements and the per-row alert check that follows them.
+ *
+ * Stock movements go through the MUTATION bulkhead pool, as they do behind the controllers.
+ * Every row starts with a million units and movements are one unit either way, so stock-out never
+ * runs dry and stock-in never overflows during a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StockMovementBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    private BenchmarkDatabase database;
+    private StockHistoryService stockHistoryService;
+    private LowStockAlertService lowStockAlertService;
+    private BulkheadExecutor bulkheadExecutor;
+    private long[] productIds;
+    private long warehouseId;
+    // Disjoint sets: a row that flips between below and above its minimum would open and resolve
+    // alerts on every call, which measures the unique-index churn rather than the check itself
+    private final List<Inventory> belowMinimum = new ArrayList<>();
+    private final List<Inventory> aboveMinimum = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        database.seed(PRODUCTS, 1);
+        database.jdbc().update("UPDATE inventory SET stock_level = 1000000");
+        stockHistoryService = database.bean(StockHistoryService.class);
+        lowStockAlertService = database.bean(LowStockAlertService.class);
+        bulkheadExecutor = database.bean(BulkheadExecutor.class);
+        productIds = database.jdbc().queryForList("SELECT id FROM products ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        warehouseId = database.jdbc().queryForObject("SELECT min(id) FROM warehouses", Long.class);
+
+        for (Inventory inventory : database.bean(InventoryRepository.class).findAll()) {
+            if (inventory.getProduct().getId() % 2 == 0) {
+                inventory.setStockLevel(inventory.getProduct().getMinStockLevel() - 1);
+                belowMinimum.add(inventory);
+            } else {
+                inventory.setStockLevel(inventory.getProduct().getMinStockLevel() + 100);
+                aboveMinimum.add(inventory);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Inventory recordStockIn() {
+        return bulkheadExecutor.callIn(Bulkhead.MUTATION, () ->
+                stockHistoryService.recordStockIn(randomProduct(), warehouseId, 1, BenchmarkDatabase.ACTOR));
+    }
+
+    @Benchmark
+    public Inventory recordStockOut() {
+        return bulkheadExecutor.callIn(Bulkhead.MUTATION, () ->
+                stockHistoryService.recordStockOut(randomProduct(), warehouseId, 1, BenchmarkDatabase.ACTOR));
+    }
+
+    // Four writers on one row: measures how long movements queue behind its row lock
+    @Benchmark
+    @Threads(4)
+    public Inventory recordStockInSameRow() {
+        return bulkheadExecutor.callIn(Bulkhead.MUTATION, () ->
+                stockHistoryService.recordStockIn(productIds[0], warehouseId, 1, BenchmarkDatabase.ACTOR));
+    }
+
+    // Below the minimum: refreshes the already open alert after the first call
+    @Benchmark
+    public Inventory checkInventoryAndAlertBelowMinimum() {
+        Inventory inventory = belowMinimum.get(ThreadLocalRandom.current().nextInt(belowMinimum.size()));
+        lowStockAlertService.checkInventoryAndAlert(inventory);
+        return inventory;
+    }
+
+    // At or above the minimum: looks for an open alert to resolve and finds none
+    @Benchmark
+    public Inventory checkInventoryAndAlertAboveMinimum() {
+        Inventory inventory = aboveMinimum.get(ThreadLocalRandom.current().nextInt(aboveMinimum.size()));
+        lowStockAlertService.checkInventoryAndAlert(inventory);
+        return inventory;
+    }
+
+    private long randomProduct() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+}
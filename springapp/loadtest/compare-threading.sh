@@ -0,0 +1,20 @@
+#!/bin/bash
+# Runs the same scenario against platform threads and then the 'virtual' profile, one fresh app
+# process each, and prints both summaries. Extra arguments are passed to both runs.
+#
+#   ./compare-threading.sh --db-url=jdbc:postgresql://localhost:5432/inventory --concurrency=2000
+set -euo pipefail
+cd "$(dirname "$0")"
+
+JAR=${APP_JAR:-../target/springapp-0.0.1-SNAPSHOT.jar}
+if [ ! -f "$JAR" ]; then
+    (cd .. && mvn -B -q package -DskipTests)
+fi
+mvn -B -q compile
+
+status=0
+for profile in default virtual; do
+    echo "=== ${profile} threads ==="
+    mvn -B -q exec:exec -Dloadtest.args="--app-jar=$JAR --app-profile=$profile --report=target/loadtest-$profile.json $*" || status=$?
+done
+exit $status
@@ -0,0 +1,66 @@
+package com.example.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+// HTTP side of the scenarios: one shared client, signed in as the load-test user
+final class ApiClient {
+
+    static final String ACTOR_EMAIL = "loadtest@example.com";
+    private static final String ACTOR_PASSWORD = "loadtest";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private String token;
+
+    ApiClient(LoadTestOptions options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    // Creates the load-test user on first use and fetches a token
+    void login() throws IOException, InterruptedException {
+        Map<String, String> user = Map.of("name", "Load Test", "email", ACTOR_EMAIL,
+                "passwordHash", ACTOR_PASSWORD, "role", "EMPLOYEE");
+        HttpResponse<String> created = send("/api/users", JSON.writeValueAsString(user), false);
+        if (created.statusCode() != 201 && created.statusCode() != 409) {
+            throw new IllegalStateException("Could not create load-test user: " + created.statusCode() + " " + created.body());
+        }
+        HttpResponse<String> login = send("/api/users/login",
+                JSON.writeValueAsString(Map.of("email", ACTOR_EMAIL, "password", ACTOR_PASSWORD)), false);
+        JsonNode body = JSON.readTree(login.body());
+        if (login.statusCode() != 200 || !body.hasNonNull("token")) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+        token = body.get("token").asText();
+    }
+
+    HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return send(path, body, true);
+    }
+
+    private HttpResponse<String> send(String path, String body, boolean authenticated) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(Duration.ofMillis(options.timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (authenticated) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
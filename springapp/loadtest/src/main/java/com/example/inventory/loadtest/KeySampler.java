@@ -0,0 +1,60 @@
+package com.example.inventory.loadtest;
+
+import java.util.SplittableRandom;
+
+// Picks which of the fixture's products an operation touches. Indexes run 0..keys-1; index 0 is
+// the hottest key under Zipf and the only key under SINGLE.
+final class KeySampler {
+
+    private final LoadTestOptions.Skew skew;
+    private final int keys;
+    private final double[] cumulative;
+
+    KeySampler(LoadTestOptions.Skew skew, int keys, double zipfExponent) {
+        this.skew = skew;
+        this.keys = keys;
+        if (skew == LoadTestOptions.Skew.ZIPF) {
+            cumulative = new double[keys];
+            double sum = 0;
+            for (int k = 0; k < keys; k++) {
+                sum += 1.0 / Math.pow(k + 1, zipfExponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < keys; k++) {
+                cumulative[k] /= sum;
+            }
+        } else {
+            cumulative = null;
+        }
+    }
+
+    int next(SplittableRandom random) {
+        return switch (skew) {
+            case SINGLE -> 0;
+            case UNIFORM -> random.nextInt(keys);
+            case ZIPF -> {
+                double u = random.nextDouble();
+                int lo = 0;
+                int hi = keys - 1;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (cumulative[mid] < u) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                yield lo;
+            }
+        };
+    }
+
+    // Share of operations that land on the hottest key
+    double hottestShare() {
+        return switch (skew) {
+            case SINGLE -> 1.0;
+            case UNIFORM -> 1.0 / keys;
+            case ZIPF -> cumulative[0];
+        };
+    }
+}
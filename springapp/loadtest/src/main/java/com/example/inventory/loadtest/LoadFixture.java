@@ -0,0 +1,179 @@
+package com.example.inventory.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows a run works on, written and checked directly through JDBC.
+ *
+ * Every run gets its own warehouse and products (suffixed with the run id), so repeated runs
+ * against the same database never share rows. Opening stock is written together with a matching
+ * ADD history row, which is what makes the ledger invariant hold before the first request.
+ */
+final class LoadFixture {
+
+    private final LoadTestOptions options;
+    private final String runId;
+    private long warehouseId;
+    private long[] productIds;
+
+    LoadFixture(LoadTestOptions options, String runId) {
+        this.options = options;
+        this.runId = runId;
+    }
+
+    long warehouseId() {
+        return warehouseId;
+    }
+
+    long[] productIds() {
+        return productIds;
+    }
+
+    void create(String actorEmail) throws SQLException {
+        try (Connection con = connect()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO warehouses (name, location) VALUES (?, 'load test') RETURNING id")) {
+                ps.setString(1, "Load test " + runId);
+                warehouseId = single(ps);
+            }
+            List<Long> ids = new ArrayList<>(options.products);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO products (sku, name, category, unit, price, min_stock_level) "
+                            + "SELECT 'LT-' || ? || '-' || g, 'Load test product ' || g, 'Load test', 'pcs', 1, ? "
+                            + "FROM generate_series(1, ?) g ORDER BY g RETURNING id")) {
+                ps.setString(1, runId);
+                ps.setInt(2, options.minStock);
+                ps.setInt(3, options.products);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                    }
+                }
+            }
+            productIds = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO inventory (product_id, warehouse_id, stock_level) "
+                            + "SELECT id, ?, ? FROM products WHERE sku LIKE 'LT-' || ? || '-%'")) {
+                ps.setLong(1, warehouseId);
+                ps.setInt(2, options.initialStock);
+                ps.setString(3, runId);
+                ps.executeUpdate();
+            }
+            if (options.initialStock > 0) {
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO stock_history (product_id, warehouse_id, adjustment_quantity, adjustment_type, timestamp, performed_by_email) "
+                                + "SELECT product_id, warehouse_id, stock_level, 'ADD', now(), ? FROM inventory WHERE warehouse_id = ?")) {
+                    ps.setString(1, actorEmail);
+                    ps.setLong(2, warehouseId);
+                    ps.executeUpdate();
+                }
+            }
+            con.commit();
+        }
+    }
+
+    Map<Long, Integer> stockLevels() throws SQLException {
+        Map<Long, Integer> levels = new LinkedHashMap<>();
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("SELECT product_id, stock_level FROM inventory WHERE warehouse_id = ?")) {
+            ps.setLong(1, warehouseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    levels.put(rs.getLong(1), rs.getInt(2));
+                }
+            }
+        }
+        return levels;
+    }
+
+    // Stock movements of the run: history rows other than the opening ones
+    long movementCount() throws SQLException {
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("SELECT count(*) FROM stock_history WHERE warehouse_id = ?")) {
+            ps.setLong(1, warehouseId);
+            return single(ps) - (options.initialStock > 0 ? productIds.length : 0);
+        }
+    }
+
+    // Alerts opened on the run's warehouse
+    List<Long> alertIds() throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("SELECT id FROM low_stock_alerts WHERE warehouse_id = ?")) {
+            ps.setLong(1, warehouseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Outbox events of the run's warehouse not yet delivered
+    long pendingOutboxEvents() throws SQLException {
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("SELECT count(*) FROM outbox_events WHERE event_key LIKE ?")) {
+            ps.setString(1, "inventory:%:" + warehouseId);
+            return single(ps);
+        }
+    }
+
+    // Inventory.stockLevel must equal the net of its StockHistory rows, and never go negative
+    Map<String, Object> checkLedger() throws SQLException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> samples = new ArrayList<>();
+        long mismatched = 0;
+        long negative = 0;
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT i.product_id, i.stock_level, coalesce(h.net, 0) AS net FROM inventory i "
+                             + "LEFT JOIN (SELECT product_id, sum(CASE WHEN adjustment_type = 'ADD' THEN adjustment_quantity "
+                             + "ELSE -adjustment_quantity END) AS net FROM stock_history WHERE warehouse_id = ? GROUP BY product_id) h "
+                             + "ON h.product_id = i.product_id WHERE i.warehouse_id = ? ORDER BY i.product_id")) {
+            ps.setLong(1, warehouseId);
+            ps.setLong(2, warehouseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long stock = rs.getLong(2);
+                    long net = rs.getLong(3);
+                    if (stock < 0) {
+                        negative++;
+                    }
+                    if (stock != net) {
+                        mismatched++;
+                        if (samples.size() < 10) {
+                            samples.add("product " + rs.getLong(1) + ": stockLevel=" + stock + " history=" + net);
+                        }
+                    }
+                }
+            }
+        }
+        result.put("rowsChecked", productIds.length);
+        result.put("mismatched", mismatched);
+        result.put("negative", negative);
+        result.put("samples", samples);
+        result.put("passed", mismatched == 0 && negative == 0);
+        return result;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(options.dbUrl, options.dbUser, options.dbPassword);
+    }
+
+    private static long single(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for POST /api/inventory/stock-in and /stock-out.
+ *
+ * A run creates its own warehouse and products, logs in as a load-test user and drives the two
+ * endpoints from --concurrency workers for --duration seconds after a --warmup. Workers are
+ * closed-loop by default; with --rate they follow a fixed schedule and latency is measured from
+ * the scheduled start, so a stalled server shows up in the percentiles instead of lowering the
+ * offered load. Afterwards the ledger is checked: every stock level must equal its history net,
+ * and must match what the client saw acknowledged. With --outbox-file, the stock events the app's
+ * outbox relay delivered are checked as well (see OutboxCheck), and with --notify-stub-port, that
+ * every alert opened during the run reached the notification stub (see NotificationStub).
+ *
+ * Exits with 1 when a check fails.
+ */
+public final class LoadTest {
+
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    enum Operation { STOCK_IN, STOCK_OUT }
+
+    // TIMEOUT covers every request whose effect is unknown (client timeout, I/O error or a bulkhead
+    // timeout): the server may or may not have applied it
+    enum Outcome { OK, INSUFFICIENT_STOCK, THROTTLED, REJECTED, CLIENT_ERROR, SERVER_ERROR, TIMEOUT }
+
+    private final LoadTestOptions options;
+    private final ApiClient api;
+    private final LoadFixture fixture;
+    private final KeySampler sampler;
+    // Distinct error responses and how often each came back, capped so a message with ids in it cannot grow without bound
+    private final Map<String, LongAdder> errorSamples = new ConcurrentHashMap<>();
+
+    private LoadTest(LoadTestOptions options, String runId) {
+        this.options = options;
+        this.api = new ApiClient(options);
+        this.fixture = new LoadFixture(options, runId);
+        this.sampler = new KeySampler(options.skew, options.products, options.zipfExponent);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        LoadTest test = new LoadTest(options, runId);
+
+        AppProcess app = null;
+        if (options.appJar != null) {
+            System.out.println("Starting " + options.appJar + (options.appProfile != null ? " (profile " + options.appProfile + ")" : ""));
+            app = AppProcess.start(options, new File("target/app-" + runId + ".log"));
+        }
+        boolean passed;
+        try {
+            passed = test.run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        api.login();
+        fixture.create(ApiClient.ACTOR_EMAIL);
+        System.out.printf("Fixture: warehouse %d, %d products at %d units, skew %s (hottest key gets %.1f%% of requests)%n",
+                fixture.warehouseId(), options.products, options.initialStock, options.skew.name().toLowerCase(),
+                sampler.hottestShare() * 100);
+
+        NotificationStub stub = options.notifyStubPort > 0 ? new NotificationStub(options.notifyStubPort,
+                options.notifyFailRate, options.notifyLatencyMs, options.seed, false) : null;
+        AtomicLongArray acknowledgedNet = new AtomicLongArray(options.products);
+        long loadStarted = System.nanoTime();
+        List<WorkerStats> workers = drive(acknowledgedNet);
+        Map<String, Object> results = summarize(workers);
+
+        Map<String, Object> ledger = fixture.checkLedger();
+        Map<String, Object> client = checkAgainstClient(acknowledgedNet, workers);
+        Map<String, Object> outbox = options.outboxFile != null ? new OutboxCheck(options, fixture).check(loadStarted) : null;
+        Map<String, Object> notifications = null;
+        if (stub != null) {
+            try (stub) {
+                notifications = stub.check(fixture.alertIds(), options.notifyWaitSeconds);
+            }
+        }
+        boolean passed = Boolean.TRUE.equals(ledger.get("passed")) && !Boolean.FALSE.equals(client.get("passed"))
+                && (outbox == null || Boolean.TRUE.equals(outbox.get("passed")))
+                && (notifications == null || Boolean.TRUE.equals(notifications.get("passed")));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options.describe());
+        report.put("results", results);
+        report.put("ledgerCheck", ledger);
+        report.put("clientCheck", client);
+        if (outbox != null) {
+            report.put("outboxCheck", outbox);
+        }
+        if (notifications != null) {
+            report.put("notificationCheck", notifications);
+        }
+        report.put("passed", passed);
+        print(results, ledger, client, outbox, notifications);
+        File file = new File(options.report);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JSON.writeValue(file, report);
+        System.out.println("Report written to " + file);
+        return passed;
+    }
+
+    private List<WorkerStats> drive(AtomicLongArray acknowledgedNet) throws Exception {
+        long start = System.nanoTime() + Duration.ofMillis(200).toNanos();
+        long measureFrom = start + Duration.ofSeconds(options.warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(options.durationSeconds).toNanos();
+        // Per worker: one request every interval, workers staggered across the first interval
+        long interval = options.rate > 0 ? (long) (1e9 * options.concurrency / options.rate) : 0;
+
+        List<WorkerStats> workers = new ArrayList<>();
+        List<Future<?>> running = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(options.seed);
+        System.out.printf("Running %d workers: %ds warm-up, %ds measured%s%n", options.concurrency,
+                options.warmupSeconds, options.durationSeconds,
+                options.rate > 0 ? String.format(", %.0f req/s offered", options.rate) : ", closed loop");
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < options.concurrency; w++) {
+                WorkerStats stats = new WorkerStats();
+                workers.add(stats);
+                SplittableRandom random = seeds.split();
+                long first = start + (interval > 0 ? interval * w / options.concurrency : 0);
+                running.add(executor.submit(() -> work(random, stats, acknowledgedNet, first, interval, measureFrom, end)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        }
+        return workers;
+    }
+
+    private Void work(SplittableRandom random, WorkerStats stats, AtomicLongArray acknowledgedNet,
+                      long first, long interval, long measureFrom, long end) {
+        long scheduled = first;
+        while (true) {
+            long now = System.nanoTime();
+            long startedAt;
+            if (interval > 0) {
+                if (scheduled >= end) {
+                    break;
+                }
+                if (scheduled > now) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+                startedAt = scheduled;
+                scheduled += interval;
+            } else {
+                if (now >= end) {
+                    break;
+                }
+                startedAt = Math.max(now, first);
+                if (first > now) {
+                    LockSupport.parkNanos(first - now);
+                }
+            }
+
+            int key = sampler.next(random);
+            Operation operation = random.nextDouble() < options.stockOutRatio ? Operation.STOCK_OUT : Operation.STOCK_IN;
+            int quantity = 1 + random.nextInt(options.maxQuantity);
+            Outcome outcome = send(operation, fixture.productIds()[key], quantity);
+            long latency = System.nanoTime() - startedAt;
+
+            if (outcome == Outcome.OK) {
+                acknowledgedNet.addAndGet(key, operation == Operation.STOCK_IN ? quantity : -quantity);
+            }
+            if (outcome == Outcome.TIMEOUT) {
+                stats.ambiguous++;
+            }
+            if (startedAt >= measureFrom) {
+                stats.record(operation, outcome, latency);
+            }
+        }
+        return null;
+    }
+
+    private Outcome send(Operation operation, long productId, int quantity) {
+        String path = operation == Operation.STOCK_IN ? "/api/inventory/stock-in" : "/api/inventory/stock-out";
+        String body = "{\"productId\":" + productId + ",\"warehouseId\":" + fixture.warehouseId() + ",\"quantity\":" + quantity + "}";
+        try {
+            HttpResponse<String> response = api.post(path, body);
+            int status = response.statusCode();
+            if (status == 200) {
+                return Outcome.OK;
+            } else if (status == 409 || (status == 400 && response.body().contains("Insufficient stock"))) {
+                return Outcome.INSUFFICIENT_STOCK;
+            } else if (status == 429) {
+                return Outcome.THROTTLED;
+            } else if (status == 503) {
+                // A bulkhead timeout answers while the movement may still be running; only "at capacity" was never started
+                return response.body().contains("timed out") ? Outcome.TIMEOUT : Outcome.REJECTED;
+            }
+            sampleError(status, response.body());
+            return status < 500 ? Outcome.CLIENT_ERROR : Outcome.SERVER_ERROR;
+        } catch (IOException e) {
+            return Outcome.TIMEOUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.TIMEOUT;
+        }
+    }
+
+    private void sampleError(int status, String body) {
+        String flat = body.replaceAll("\\s+", " ");
+        String key = status + " " + (flat.length() > 300 ? flat.substring(0, 300) : flat);
+        LongAdder count = errorSamples.get(key);
+        if (count == null && errorSamples.size() < MAX_ERROR_SAMPLES) {
+            count = errorSamples.computeIfAbsent(key, k -> new LongAdder());
+        }
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    private Map<String, Object> summarize(List<WorkerStats> workers) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        long[] all = new long[0];
+        long[] totals = new long[Outcome.values().length];
+        for (Operation operation : Operation.values()) {
+            long[] latencies = WorkerStats.merge(workers, operation);
+            long[] counts = new long[Outcome.values().length];
+            for (WorkerStats stats : workers) {
+                for (int o = 0; o < counts.length; o++) {
+                    counts[o] += stats.counts[operation.ordinal()][o];
+                }
+            }
+            for (int o = 0; o < counts.length; o++) {
+                totals[o] += counts[o];
+            }
+            all = concat(all, latencies);
+            results.put(operation.name().toLowerCase().replace('_', '-'), section(latencies, counts));
+        }
+        Arrays.sort(all);
+        results.put("total", section(all, totals));
+        Map<String, Long> errors = new LinkedHashMap<>();
+        errorSamples.forEach((message, count) -> errors.put(message, count.sum()));
+        results.put("errorSamples", errors);
+        return results;
+    }
+
+    private Map<String, Object> section(long[] sortedLatencies, long[] counts) {
+        long requests = sortedLatencies.length;
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("requests", requests);
+        section.put("throughputPerSecond", round((double) requests / options.durationSeconds));
+        Map<String, Object> outcomes = new LinkedHashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome.name().toLowerCase(), counts[outcome.ordinal()]);
+        }
+        section.put("outcomes", outcomes);
+        long failed = requests - counts[Outcome.OK.ordinal()] - counts[Outcome.INSUFFICIENT_STOCK.ordinal()];
+        section.put("insufficientStockRate", rate(counts[Outcome.INSUFFICIENT_STOCK.ordinal()], requests));
+        section.put("errorRate", rate(failed, requests));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentile(sortedLatencies, 0.50));
+        latency.put("p90", percentile(sortedLatencies, 0.90));
+        latency.put("p99", percentile(sortedLatencies, 0.99));
+        latency.put("p999", percentile(sortedLatencies, 0.999));
+        latency.put("max", percentile(sortedLatencies, 1.0));
+        section.put("latencyMs", latency);
+        return section;
+    }
+
+    // Each row must end at its opening stock plus every acknowledged movement. Skipped when some
+    // requests timed out, since those may or may not have been applied.
+    private Map<String, Object> checkAgainstClient(AtomicLongArray acknowledgedNet, List<WorkerStats> workers) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long ambiguous = workers.stream().mapToLong(w -> w.ambiguous).sum();
+        result.put("ambiguousRequests", ambiguous);
+        if (ambiguous > 0) {
+            result.put("passed", null);
+            return result;
+        }
+        Map<Long, Integer> levels = fixture.stockLevels();
+        long[] productIds = fixture.productIds();
+        long mismatched = 0;
+        for (int k = 0; k < productIds.length; k++) {
+            long expected = options.initialStock + acknowledgedNet.get(k);
+            if (levels.getOrDefault(productIds[k], 0) != expected) {
+                mismatched++;
+            }
+        }
+        result.put("mismatched", mismatched);
+        result.put("passed", mismatched == 0);
+        return result;
+    }
+
+    private static void print(Map<String, Object> results, Map<String, Object> ledger, Map<String, Object> client,
+                              Map<String, Object> outbox, Map<String, Object> notifications) {
+        System.out.println();
+        System.out.printf("%-10s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "err%", "insuf%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((name, value) -> {
+            if (name.equals("errorSamples")) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> section = (Map<String, Object>) value;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> latency = (Map<String, Object>) section.get("latencyMs");
+            System.out.printf("%-10s %9d %9.1f %8.2f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    section.get("requests"), section.get("throughputPerSecond"),
+                    (double) section.get("errorRate") * 100, (double) section.get("insufficientStockRate") * 100,
+                    latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("p999"), latency.get("max"));
+        });
+        @SuppressWarnings("unchecked")
+        Map<String, Object> outcomes = (Map<String, Object>) ((Map<String, Object>) results.get("total")).get("outcomes");
+        System.out.println("Outcomes: " + outcomes);
+        @SuppressWarnings("unchecked")
+        Map<String, Long> errors = (Map<String, Long>) results.get("errorSamples");
+        errors.forEach((message, count) -> System.out.println("  " + count + " x " + message));
+        System.out.println("Ledger check (stockLevel == history net): " + (Boolean.TRUE.equals(ledger.get("passed")) ? "PASSED" : "FAILED " + ledger));
+        Object clientPassed = client.get("passed");
+        System.out.println("Client check (stockLevel == acknowledged movements): "
+                + (clientPassed == null ? "SKIPPED, " + client.get("ambiguousRequests") + " requests timed out"
+                : Boolean.TRUE.equals(clientPassed) ? "PASSED" : "FAILED " + client));
+        if (outbox != null) {
+            System.out.println("Outbox check (per-product event order and levels): "
+                    + (Boolean.TRUE.equals(outbox.get("passed")) ? "PASSED" : "FAILED") + ", " + outbox.get("events")
+                    + " events, drained " + outbox.get("drainSeconds") + "s after load, "
+                    + outbox.get("deliveredPerSecond") + " events/s overall");
+            if (!Boolean.TRUE.equals(outbox.get("passed"))) {
+                System.out.println("  " + outbox);
+            }
+        }
+        if (notifications != null) {
+            System.out.println("Notification check (every opened alert delivered): "
+                    + (Boolean.TRUE.equals(notifications.get("passed")) ? "PASSED" : "FAILED") + " " + notifications);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6);
+    }
+
+    private static double rate(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 1e6 / whole) / 1e6;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    // Owned by a single worker; merged once the run is over
+    private static final class WorkerStats {
+        final long[][] counts = new long[Operation.values().length][Outcome.values().length];
+        final long[][] latencies = new long[Operation.values().length][1024];
+        final int[] sizes = new int[Operation.values().length];
+        long ambiguous;
+
+        void record(Operation operation, Outcome outcome, long latencyNanos) {
+            int op = operation.ordinal();
+            counts[op][outcome.ordinal()]++;
+            if (sizes[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], sizes[op] * 2);
+            }
+            latencies[op][sizes[op]++] = latencyNanos;
+        }
+
+        static long[] merge(List<WorkerStats> workers, Operation operation) {
+            int op = operation.ordinal();
+            long[] merged = new long[workers.stream().mapToInt(w -> w.sizes[op]).sum()];
+            int offset = 0;
+            for (WorkerStats stats : workers) {
+                System.arraycopy(stats.latencies[op], 0, merged, offset, stats.sizes[op]);
+                offset += stats.sizes[op];
+            }
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+}
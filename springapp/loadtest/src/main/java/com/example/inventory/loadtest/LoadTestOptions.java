@@ -0,0 +1,131 @@
+package com.example.inventory.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Command-line options, all in --name=value form. Unknown names are rejected so typos do not
+// silently fall back to defaults.
+final class LoadTestOptions {
+
+    enum Skew { UNIFORM, ZIPF, SINGLE }
+
+    String baseUrl = "http://localhost:8080";
+    String managementUrl = "http://localhost:9091";
+    String appJar;
+    String appProfile;
+    List<String> appArgs = new ArrayList<>(List.of("--admission.enabled=false"));
+
+    String dbUrl = "jdbc:postgresql://localhost:5432/inventory";
+    String dbUser = "postgres";
+    String dbPassword = "postgres";
+
+    int concurrency = 64;
+    int durationSeconds = 60;
+    int warmupSeconds = 10;
+    double rate;
+    int timeoutMs = 30000;
+
+    int products = 1000;
+    Skew skew = Skew.UNIFORM;
+    double zipfExponent = 1.1;
+    double stockOutRatio = 0.5;
+    int maxQuantity = 5;
+    int initialStock = 100;
+    int minStock = 10;
+    long seed = 42;
+    // TransferStress only: warehouses holding the same products, and how many transfers to run between them
+    int warehouses = 4;
+    int transfers = 5000;
+
+    String report = "target/loadtest-result.json";
+    // File sink of the app's outbox relay (outbox.file.path); checked after the run when set
+    String outboxFile;
+    int outboxDrainTimeoutSeconds = 60;
+    // Receives the app's low-stock notifications (notifications.subscribers[n].url) when set
+    int notifyStubPort;
+    double notifyFailRate;
+    int notifyLatencyMs;
+    int notifyWaitSeconds = 60;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions();
+        values.forEach(options::set);
+        if (options.concurrency <= 0 || options.durationSeconds <= 0 || options.products <= 0 || options.maxQuantity <= 0) {
+            throw new IllegalArgumentException("concurrency, duration, products and max-quantity must be positive");
+        }
+        if (options.warehouses < 2 || options.transfers <= 0) {
+            throw new IllegalArgumentException("warehouses must be at least 2 and transfers positive");
+        }
+        if (options.stockOutRatio < 0 || options.stockOutRatio > 1) {
+            throw new IllegalArgumentException("stock-out-ratio must be between 0 and 1");
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "base-url" -> baseUrl = value;
+            case "management-url" -> managementUrl = value;
+            case "app-jar" -> appJar = value;
+            case "app-profile" -> appProfile = value;
+            // Space separated; replaces the defaults
+            case "app-args" -> appArgs = value.isBlank() ? new ArrayList<>() : new ArrayList<>(List.of(value.trim().split("\\s+")));
+            case "db-url" -> dbUrl = value;
+            case "db-user" -> dbUser = value;
+            case "db-password" -> dbPassword = value;
+            case "concurrency" -> concurrency = Integer.parseInt(value);
+            case "duration" -> durationSeconds = Integer.parseInt(value);
+            case "warmup" -> warmupSeconds = Integer.parseInt(value);
+            case "rate" -> rate = Double.parseDouble(value);
+            case "timeout-ms" -> timeoutMs = Integer.parseInt(value);
+            case "products" -> products = Integer.parseInt(value);
+            case "skew" -> skew = Skew.valueOf(value.toUpperCase());
+            case "zipf-exponent" -> zipfExponent = Double.parseDouble(value);
+            case "stock-out-ratio" -> stockOutRatio = Double.parseDouble(value);
+            case "max-quantity" -> maxQuantity = Integer.parseInt(value);
+            case "initial-stock" -> initialStock = Integer.parseInt(value);
+            case "min-stock" -> minStock = Integer.parseInt(value);
+            case "seed" -> seed = Long.parseLong(value);
+            case "warehouses" -> warehouses = Integer.parseInt(value);
+            case "transfers" -> transfers = Integer.parseInt(value);
+            case "report" -> report = value;
+            case "outbox-file" -> outboxFile = value;
+            case "outbox-drain-timeout" -> outboxDrainTimeoutSeconds = Integer.parseInt(value);
+            case "notify-stub-port" -> notifyStubPort = Integer.parseInt(value);
+            case "notify-fail-rate" -> notifyFailRate = Double.parseDouble(value);
+            case "notify-latency-ms" -> notifyLatencyMs = Integer.parseInt(value);
+            case "notify-wait" -> notifyWaitSeconds = Integer.parseInt(value);
+            default -> throw new IllegalArgumentException("Unknown option: --" + name);
+        }
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("baseUrl", baseUrl);
+        out.put("appProfile", appProfile);
+        out.put("concurrency", concurrency);
+        out.put("durationSeconds", durationSeconds);
+        out.put("warmupSeconds", warmupSeconds);
+        out.put("rate", rate);
+        out.put("products", products);
+        out.put("skew", skew.name().toLowerCase());
+        if (skew == Skew.ZIPF) {
+            out.put("zipfExponent", zipfExponent);
+        }
+        out.put("stockOutRatio", stockOutRatio);
+        out.put("maxQuantity", maxQuantity);
+        out.put("initialStock", initialStock);
+        out.put("seed", seed);
+        return out;
+    }
+}
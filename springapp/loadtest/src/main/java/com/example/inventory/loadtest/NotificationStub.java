@@ -0,0 +1,146 @@
+package com.example.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for low-stock notification receivers: accepts the app's alert digests, fails a share of
+ * them with 503 (--notify-fail-rate) and answers after --notify-latency-ms, and records which alerts
+ * arrived and how long after they were opened.
+ *
+ * Runs inside the load test with --notify-stub-port, where the run then checks that every alert opened
+ * on its warehouse was delivered. Also runs on its own, printing each digest:
+ * {@code java -cp target/classes:<jackson> com.example.inventory.loadtest.NotificationStub --port=18090 --fail-rate=0.2}
+ */
+final class NotificationStub implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpServer server;
+    private final double failRate;
+    private final int latencyMs;
+    private final SplittableRandom random;
+    private final boolean verbose;
+    private final Set<String> digestIds = ConcurrentHashMap.newKeySet();
+    // Alert id -> milliseconds from its createdAt to the first delivery
+    private final Map<Long, Long> delays = new ConcurrentHashMap<>();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder redeliveredDigests = new LongAdder();
+    private final LongAdder failedOnPurpose = new LongAdder();
+    private final LongAdder alerts = new LongAdder();
+
+    NotificationStub(int port, double failRate, int latencyMs, long seed, boolean verbose) throws IOException {
+        this.failRate = failRate;
+        this.latencyMs = latencyMs;
+        this.random = new SplittableRandom(seed);
+        this.verbose = verbose;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of("port", "18090", "fail-rate", "0", "latency-ms", "0"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !options.containsKey(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("Expected --port, --fail-rate or --latency-ms, got: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        new NotificationStub(Integer.parseInt(options.get("port")), Double.parseDouble(options.get("fail-rate")),
+                Integer.parseInt(options.get("latency-ms")), System.nanoTime(), true);
+        System.out.println("Notification stub listening on port " + options.get("port"));
+        Thread.currentThread().join();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            JsonNode digest = JSON.readTree(body);
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            boolean fail;
+            synchronized (random) {
+                fail = random.nextDouble() < failRate;
+            }
+            if (fail) {
+                failedOnPurpose.increment();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            digests.increment();
+            if (!digestIds.add(digest.path("digestId").asText())) {
+                redeliveredDigests.increment();
+            }
+            for (JsonNode alert : digest.path("alerts")) {
+                alerts.increment();
+                LocalDateTime createdAt = LocalDateTime.parse(alert.path("createdAt").asText());
+                delays.putIfAbsent(alert.path("alertId").asLong(), Duration.between(createdAt, now).toMillis());
+            }
+            if (verbose) {
+                System.out.printf("%s digest %s attempt %d: %d alerts%n", now, digest.path("digestId").asText(),
+                        digest.path("attempt").asInt(), digest.path("alerts").size());
+            }
+            exchange.sendResponseHeaders(204, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits up to waitSeconds for every expected alert, then reports what arrived
+    Map<String, Object> check(Collection<Long> expectedAlertIds, int waitSeconds) throws InterruptedException {
+        long deadline = System.nanoTime() + waitSeconds * 1_000_000_000L;
+        while (!delays.keySet().containsAll(expectedAlertIds) && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+        List<Long> missing = new ArrayList<>();
+        List<Long> delivered = new ArrayList<>();
+        for (Long id : expectedAlertIds) {
+            Long delay = delays.get(id);
+            if (delay == null) {
+                missing.add(id);
+            } else {
+                delivered.add(delay);
+            }
+        }
+        delivered.sort(null);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("alertsOpened", expectedAlertIds.size());
+        result.put("alertsDelivered", delivered.size());
+        result.put("missing", missing.size() > 10 ? missing.subList(0, 10) : missing);
+        result.put("digests", digests.sum());
+        result.put("redeliveredDigests", redeliveredDigests.sum());
+        result.put("failedOnPurpose", failedOnPurpose.sum());
+        result.put("alertsPerDigest", digests.sum() == 0 ? 0 : Math.round(alerts.sum() * 100.0 / digests.sum()) / 100.0);
+        result.put("delayMsP50", delivered.isEmpty() ? 0 : delivered.get(delivered.size() / 2));
+        result.put("delayMsMax", delivered.isEmpty() ? 0 : delivered.get(delivered.size() - 1));
+        result.put("passed", missing.isEmpty());
+        return result;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
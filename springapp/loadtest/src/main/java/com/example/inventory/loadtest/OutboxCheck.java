@@ -0,0 +1,128 @@
+package com.example.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the stock events the outbox relay wrote to its file sink (--outbox-file) for the run's warehouse.
+ *
+ * Waits for the outbox to drain, then replays each product's STOCK_IN / STOCK_OUT events in file order
+ * from the opening stock: every event must carry a higher id than the ones before it, and its stock level
+ * must be the previous level plus or minus its quantity, so a missing or reordered event breaks the chain.
+ * Redelivered events (an id seen before) are skipped, since delivery is at least once. Finally the replayed
+ * levels must equal the database, and the number of events the number of history rows.
+ */
+final class OutboxCheck {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final LoadTestOptions options;
+    private final LoadFixture fixture;
+
+    OutboxCheck(LoadTestOptions options, LoadFixture fixture) {
+        this.options = options;
+        this.fixture = fixture;
+    }
+
+    Map<String, Object> check(long loadStartedNanos) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long drainStart = System.nanoTime();
+        long deadline = drainStart + options.outboxDrainTimeoutSeconds * 1_000_000_000L;
+        long pending;
+        while ((pending = fixture.pendingOutboxEvents()) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+        long drained = System.nanoTime();
+        result.put("pendingAfterDrain", pending);
+        result.put("drainSeconds", round((drained - drainStart) / 1e9));
+
+        String suffix = ":" + fixture.warehouseId();
+        Map<Long, Integer> levels = new HashMap<>();
+        Map<Long, Long> lastIds = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        List<String> samples = new ArrayList<>();
+        long events = 0;
+        long redelivered = 0;
+        long outOfOrder = 0;
+        long brokenChain = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(options.outboxFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode event = JSON.readTree(line);
+                String type = event.path("type").asText();
+                if (!event.path("key").asText().endsWith(suffix) || !(type.equals("STOCK_IN") || type.equals("STOCK_OUT"))) {
+                    continue;
+                }
+                long id = event.path("id").asLong();
+                if (!seen.add(id)) {
+                    redelivered++;
+                    continue;
+                }
+                events++;
+                JsonNode payload = event.path("payload");
+                long productId = payload.path("productId").asLong();
+                Long lastId = lastIds.put(productId, id);
+                if (lastId != null && lastId > id) {
+                    outOfOrder++;
+                    sample(samples, "product " + productId + ": event " + id + " after " + lastId);
+                }
+                int previous = levels.getOrDefault(productId, options.initialStock);
+                int quantity = payload.path("quantity").asInt();
+                int expected = type.equals("STOCK_IN") ? previous + quantity : previous - quantity;
+                int level = payload.path("stockLevel").asInt();
+                if (level != expected) {
+                    brokenChain++;
+                    sample(samples, "product " + productId + ": event " + id + " " + type + " " + quantity
+                            + " from " + previous + " reports " + level);
+                }
+                levels.put(productId, level);
+            }
+        } catch (IOException e) {
+            result.put("error", "Cannot read " + options.outboxFile + ": " + e.getMessage());
+            result.put("passed", false);
+            return result;
+        }
+
+        Map<Long, Integer> actual = fixture.stockLevels();
+        long mismatched = 0;
+        for (long productId : fixture.productIds()) {
+            if (!actual.getOrDefault(productId, 0).equals(levels.getOrDefault(productId, options.initialStock))) {
+                mismatched++;
+            }
+        }
+        long movements = fixture.movementCount();
+        double seconds = (drained - loadStartedNanos) / 1e9;
+        result.put("events", events);
+        result.put("historyRows", movements);
+        result.put("redelivered", redelivered);
+        result.put("outOfOrder", outOfOrder);
+        result.put("brokenChain", brokenChain);
+        result.put("levelMismatches", mismatched);
+        result.put("deliveredPerSecond", round(events / seconds));
+        result.put("samples", samples);
+        result.put("passed", pending == 0 && events == movements && outOfOrder == 0 && brokenChain == 0 && mismatched == 0);
+        return result;
+    }
+
+    private static void sample(List<String> samples, String message) {
+        if (samples.size() < 10) {
+            samples.add(message);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stress test for POST /api/inventory/transfer.
+ *
+ * A run creates --warehouses warehouses that each hold the same --products products at --initial-stock,
+ * then --concurrency workers run --transfers transfers between random pairs of them in random directions,
+ * so the same product is moving both ways between the same two rows at once. Keep --products small
+ * for contention. Afterwards:
+ *
+ * - conservation: every product's total over the run's warehouses is still warehouses x initial-stock
+ * - ledger: every row equals the net of its history rows and is not negative
+ * - pairing: every transfer id has exactly one REMOVE and one ADD row, same product and quantity, in two
+ *   different warehouses, and there is one transfer id per acknowledged transfer
+ * - deadlocks: the database counted none during the run and no transfer failed with a server error
+ *
+ * Run with -Dloadtest.main=com.example.inventory.loadtest.TransferStress; exits with 1 when a check fails.
+ */
+public final class TransferStress {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final int MAX_ERROR_SAMPLES = 20;
+
+    private final LoadTestOptions options;
+    private final String runId;
+    private final ApiClient api;
+    private final Map<String, LongAdder> errorSamples = new ConcurrentHashMap<>();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder insufficient = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder ambiguous = new LongAdder();
+    private long[] warehouseIds;
+    private long[] productIds;
+
+    private TransferStress(LoadTestOptions options, String runId) {
+        this.options = options;
+        this.runId = runId;
+        this.api = new ApiClient(options);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        System.exit(new TransferStress(options, runId).run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        api.login();
+        createFixture();
+        System.out.printf("Fixture: warehouses %s, %d products at %d units each%n",
+                Arrays.toString(warehouseIds), productIds.length, options.initialStock);
+
+        long deadlocksBefore = deadlocks();
+        long started = System.nanoTime();
+        long[] latencies = drive();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        // Statistics reach pg_stat_database shortly after the transactions that cause them
+        Thread.sleep(1500);
+        long deadlocks = deadlocks() - deadlocksBefore;
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("transfers", latencies.length);
+        results.put("seconds", round(seconds));
+        results.put("throughputPerSecond", round(latencies.length / seconds));
+        results.put("ok", acknowledged.sum());
+        results.put("insufficientStock", insufficient.sum());
+        results.put("rejected", rejected.sum());
+        results.put("clientErrors", clientErrors.sum());
+        results.put("serverErrors", serverErrors.sum());
+        results.put("timeouts", ambiguous.sum());
+        results.put("latencyMsP50", percentile(latencies, 0.50));
+        results.put("latencyMsP99", percentile(latencies, 0.99));
+        results.put("latencyMsMax", percentile(latencies, 1.0));
+        results.put("deadlocksReported", deadlocks);
+        Map<String, Long> errors = new LinkedHashMap<>();
+        errorSamples.forEach((message, count) -> errors.put(message, count.sum()));
+        results.put("errorSamples", errors);
+
+        Map<String, Object> conservation = checkConservation();
+        Map<String, Object> ledger = checkLedger();
+        Map<String, Object> pairing = checkPairing();
+        boolean passed = deadlocks == 0 && serverErrors.sum() == 0 && clientErrors.sum() == 0
+                && Boolean.TRUE.equals(conservation.get("passed")) && Boolean.TRUE.equals(ledger.get("passed"))
+                && Boolean.TRUE.equals(pairing.get("passed"));
+
+        System.out.println();
+        System.out.println("Transfers: " + results);
+        System.out.println("Deadlocks: " + (deadlocks == 0 ? "NONE" : deadlocks + " reported by the database"));
+        System.out.println("Conservation check (product totals unchanged): " + verdict(conservation));
+        System.out.println("Ledger check (stockLevel == history net): " + verdict(ledger));
+        System.out.println("Pairing check (one REMOVE and one ADD per transfer id): " + verdict(pairing));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options.describe());
+        report.put("warehouses", options.warehouses);
+        report.put("results", results);
+        report.put("conservationCheck", conservation);
+        report.put("ledgerCheck", ledger);
+        report.put("pairingCheck", pairing);
+        report.put("passed", passed);
+        File file = new File(options.report);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JSON.writeValue(file, report);
+        System.out.println("Report written to " + file);
+        return passed;
+    }
+
+    private long[] drive() throws Exception {
+        AtomicInteger remaining = new AtomicInteger(options.transfers);
+        SplittableRandom seeds = new SplittableRandom(options.seed);
+        List<Future<long[]>> workers = new ArrayList<>();
+        System.out.printf("Running %d transfers from %d workers%n", options.transfers, options.concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < options.concurrency; w++) {
+                SplittableRandom random = seeds.split();
+                workers.add(executor.submit(() -> work(random, remaining)));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> worker : workers) {
+                long[] latencies = worker.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return all;
+        }
+    }
+
+    private long[] work(SplittableRandom random, AtomicInteger remaining) {
+        long[] latencies = new long[256];
+        int count = 0;
+        while (remaining.getAndDecrement() > 0) {
+            int from = random.nextInt(warehouseIds.length);
+            int to = (from + 1 + random.nextInt(warehouseIds.length - 1)) % warehouseIds.length;
+            long productId = productIds[random.nextInt(productIds.length)];
+            int quantity = 1 + random.nextInt(options.maxQuantity);
+            long started = System.nanoTime();
+            send(productId, warehouseIds[from], warehouseIds[to], quantity);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - started;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private void send(long productId, long fromWarehouseId, long toWarehouseId, int quantity) {
+        String body = "{\"productId\":" + productId + ",\"fromWarehouseId\":" + fromWarehouseId
+                + ",\"toWarehouseId\":" + toWarehouseId + ",\"quantity\":" + quantity + "}";
+        try {
+            HttpResponse<String> response = api.post("/api/inventory/transfer", body);
+            int status = response.statusCode();
+            if (status == 200) {
+                acknowledged.increment();
+            } else if (status == 409) {
+                insufficient.increment();
+            } else if (status == 503 && response.body().contains("timed out")) {
+                ambiguous.increment();
+            } else if (status == 429 || status == 503) {
+                // Turned away before it started, by admission control or a full bulkhead
+                rejected.increment();
+            } else {
+                (status < 500 ? clientErrors : serverErrors).increment();
+                sampleError(status, response.body());
+            }
+        } catch (IOException e) {
+            ambiguous.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ambiguous.increment();
+        }
+    }
+
+    private void sampleError(int status, String body) {
+        String flat = body.replaceAll("\\s+", " ");
+        String key = status + " " + (flat.length() > 300 ? flat.substring(0, 300) : flat);
+        LongAdder count = errorSamples.get(key);
+        if (count == null && errorSamples.size() < MAX_ERROR_SAMPLES) {
+            count = errorSamples.computeIfAbsent(key, k -> new LongAdder());
+        }
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    // Same shape as LoadFixture, with the opening stock in every warehouse
+    private void createFixture() throws SQLException {
+        try (Connection con = connect()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO warehouses (name, location) SELECT 'Transfer test ' || ? || '-' || g, 'load test' "
+                            + "FROM generate_series(1, ?) g ORDER BY g RETURNING id")) {
+                ps.setString(1, runId);
+                ps.setInt(2, options.warehouses);
+                warehouseIds = ids(ps);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO products (sku, name, category, unit, price, min_stock_level) "
+                            + "SELECT 'TT-' || ? || '-' || g, 'Transfer test product ' || g, 'Load test', 'pcs', 1, ? "
+                            + "FROM generate_series(1, ?) g ORDER BY g RETURNING id")) {
+                ps.setString(1, runId);
+                ps.setInt(2, options.minStock);
+                ps.setInt(3, options.products);
+                productIds = ids(ps);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO inventory (product_id, warehouse_id, stock_level) "
+                            + "SELECT p, w, ? FROM unnest(?) p CROSS JOIN unnest(?) w")) {
+                ps.setInt(1, options.initialStock);
+                ps.setArray(2, array(con, productIds));
+                ps.setArray(3, array(con, warehouseIds));
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO stock_history (product_id, warehouse_id, adjustment_quantity, adjustment_type, timestamp, performed_by_email) "
+                            + "SELECT product_id, warehouse_id, stock_level, 'ADD', now(), ? FROM inventory "
+                            + "WHERE warehouse_id = ANY (?) AND stock_level > 0")) {
+                ps.setString(1, ApiClient.ACTOR_EMAIL);
+                ps.setArray(2, array(con, warehouseIds));
+                ps.executeUpdate();
+            }
+            con.commit();
+        }
+    }
+
+    private Map<String, Object> checkConservation() throws SQLException {
+        long expected = (long) options.initialStock * warehouseIds.length;
+        List<String> samples = new ArrayList<>();
+        long mismatched = 0;
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT product_id, sum(stock_level) FROM inventory WHERE warehouse_id = ANY (?) GROUP BY product_id ORDER BY product_id")) {
+            ps.setArray(1, array(con, warehouseIds));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getLong(2) != expected) {
+                        mismatched++;
+                        sample(samples, "product " + rs.getLong(1) + ": total " + rs.getLong(2) + ", expected " + expected);
+                    }
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("expectedTotal", expected);
+        result.put("mismatched", mismatched);
+        result.put("samples", samples);
+        result.put("passed", mismatched == 0);
+        return result;
+    }
+
+    private Map<String, Object> checkLedger() throws SQLException {
+        List<String> samples = new ArrayList<>();
+        long rows = 0;
+        long mismatched = 0;
+        long negative = 0;
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT i.product_id, i.warehouse_id, i.stock_level, coalesce(sum(CASE WHEN h.adjustment_type = 'ADD' "
+                             + "THEN h.adjustment_quantity ELSE -h.adjustment_quantity END), 0) FROM inventory i "
+                             + "LEFT JOIN stock_history h ON h.product_id = i.product_id AND h.warehouse_id = i.warehouse_id "
+                             + "WHERE i.warehouse_id = ANY (?) GROUP BY i.id ORDER BY i.product_id, i.warehouse_id")) {
+            ps.setArray(1, array(con, warehouseIds));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    long stock = rs.getLong(3);
+                    long net = rs.getLong(4);
+                    if (stock < 0) {
+                        negative++;
+                    }
+                    if (stock != net) {
+                        mismatched++;
+                        sample(samples, "product " + rs.getLong(1) + " warehouse " + rs.getLong(2)
+                                + ": stockLevel=" + stock + " history=" + net);
+                    }
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowsChecked", rows);
+        result.put("mismatched", mismatched);
+        result.put("negative", negative);
+        result.put("samples", samples);
+        result.put("passed", mismatched == 0 && negative == 0);
+        return result;
+    }
+
+    private Map<String, Object> checkPairing() throws SQLException {
+        List<String> samples = new ArrayList<>();
+        long transferIds = 0;
+        long unpaired = 0;
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT transfer_id, count(*), count(*) FILTER (WHERE adjustment_type = 'REMOVE'), "
+                             + "count(DISTINCT product_id), count(DISTINCT adjustment_quantity), count(DISTINCT warehouse_id) "
+                             + "FROM stock_history WHERE warehouse_id = ANY (?) AND transfer_id IS NOT NULL GROUP BY transfer_id")) {
+            ps.setArray(1, array(con, warehouseIds));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    transferIds++;
+                    if (rs.getLong(2) != 2 || rs.getLong(3) != 1 || rs.getLong(4) != 1 || rs.getLong(5) != 1 || rs.getLong(6) != 2) {
+                        unpaired++;
+                        sample(samples, "transfer " + rs.getString(1) + ": " + rs.getLong(2) + " rows, " + rs.getLong(3)
+                                + " REMOVE, " + rs.getLong(6) + " warehouses");
+                    }
+                }
+            }
+        }
+        // Timed-out requests may or may not have committed, so the count only has to match without them
+        boolean countMatches = ambiguous.sum() > 0 || transferIds == acknowledged.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transferIds", transferIds);
+        result.put("acknowledged", acknowledged.sum());
+        result.put("unpaired", unpaired);
+        result.put("samples", samples);
+        result.put("passed", unpaired == 0 && countMatches);
+        return result;
+    }
+
+    private long deadlocks() throws SQLException {
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("SELECT deadlocks FROM pg_stat_database WHERE datname = current_database()");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(options.dbUrl, options.dbUser, options.dbPassword);
+    }
+
+    private static long[] ids(PreparedStatement ps) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static Array array(Connection con, long[] values) throws SQLException {
+        return con.createArrayOf("bigint", Arrays.stream(values).boxed().toArray());
+    }
+
+    private static void sample(List<String> samples, String message) {
+        if (samples.size() < 10) {
+            samples.add(message);
+        }
+    }
+
+    private static String verdict(Map<String, Object> check) {
+        return Boolean.TRUE.equals(check.get("passed")) ? "PASSED" : "FAILED " + check;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
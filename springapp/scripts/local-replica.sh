@@ -0,0 +1,62 @@
+#!/bin/bash
+# A PostgreSQL primary and a streaming standby on one machine, for trying out replica routing.
+#
+#   scripts/local-replica.sh start   # primary on 55432, standby on 55433, database "inventory"
+#   scripts/local-replica.sh stop
+#
+# Then run the app with
+#   DB_HOST=localhost DB_PORT=55432 DB_NAME=inventory DB_USERNAME=postgres DB_PASSWORD=postgres \
+#   REPLICA_ENABLED=true REPLICA_URL=jdbc:postgresql://localhost:55433/inventory \
+#   SPRING_JPA_OPEN_IN_VIEW=false java -jar target/springapp-0.0.1-SNAPSHOT.jar
+#
+# To see lag failover, pause replay on the standby:
+#   psql -p 55433 -U postgres -c "select pg_wal_replay_pause()"     # replica.lag grows, reads move to the primary
+#   psql -p 55433 -U postgres -c "select pg_wal_replay_resume()"
+# Uses initdb/pg_ctl from PATH, or from PG_BIN. The standby is a cold copy of the primary's data
+# directory, so pg_basebackup is not needed.
+set -euo pipefail
+
+PG_BIN=${PG_BIN:-$(dirname "$(command -v pg_ctl)")}
+DIR=${REPLICA_DIR:-/tmp/inventory-replica}
+PRIMARY_PORT=${PRIMARY_PORT:-55432}
+STANDBY_PORT=${STANDBY_PORT:-55433}
+
+start() {
+    mkdir -p "$DIR"
+    if [ ! -d "$DIR/primary" ]; then
+        echo postgres > "$DIR/pwfile"
+        "$PG_BIN/initdb" -D "$DIR/primary" -U postgres --pwfile="$DIR/pwfile" -A md5 > "$DIR/initdb.log"
+        # The defaults (wal_level = replica, max_wal_senders = 10) already allow streaming
+        echo "port = $PRIMARY_PORT" >> "$DIR/primary/postgresql.conf"
+        echo "host replication postgres 127.0.0.1/32 md5" >> "$DIR/primary/pg_hba.conf"
+
+        # Copy the data directory while the primary is stopped, then point the copy at the primary
+        cp -a "$DIR/primary" "$DIR/standby"
+        sed -i "s/^port = $PRIMARY_PORT/port = $STANDBY_PORT/" "$DIR/standby/postgresql.conf"
+        cat >> "$DIR/standby/postgresql.conf" <<CONF
+primary_conninfo = 'host=127.0.0.1 port=$PRIMARY_PORT user=postgres password=postgres'
+hot_standby = on
+CONF
+        touch "$DIR/standby/standby.signal"
+        FRESH=1
+    fi
+    "$PG_BIN/pg_ctl" -D "$DIR/primary" -l "$DIR/primary.log" -w start
+    "$PG_BIN/pg_ctl" -D "$DIR/standby" -l "$DIR/standby.log" -w start
+    if [ "${FRESH:-0}" = 1 ]; then
+        # Created on the primary after the copy, so it also shows that the standby is streaming
+        PGPASSWORD=postgres "$PG_BIN/psql" -h 127.0.0.1 -p "$PRIMARY_PORT" -U postgres -c "create database inventory" \
+            2>/dev/null || echo "psql not found: create database inventory on port $PRIMARY_PORT yourself"
+    fi
+    echo "primary on $PRIMARY_PORT, standby on $STANDBY_PORT (data in $DIR)"
+}
+
+stop() {
+    "$PG_BIN/pg_ctl" -D "$DIR/standby" -m fast stop || true
+    "$PG_BIN/pg_ctl" -D "$DIR/primary" -m fast stop || true
+}
+
+case "${1:-}" in
+    start) start ;;
+    stop) stop ;;
+    *) echo "usage: $0 start|stop" >&2; exit 1 ;;
+esac
@@ -0,0 +1,25 @@
+#!/bin/bash
+# Three databases on one local PostgreSQL server for trying out warehouse sharding: the catalog node
+# and two shards. The application creates the shard tables and the postgres_fdw catalog link itself.
+#
+#   scripts/local-shards.sh          # creates inventory_catalog, inventory_shard_0, inventory_shard_1
+#
+# Then run the app with
+#   DB_HOST=localhost DB_PORT=5432 DB_NAME=inventory_catalog DB_USERNAME=postgres DB_PASSWORD=postgres \
+#   SHARD_ENABLED=true SHARD_0_URL=jdbc:postgresql://localhost:5432/inventory_shard_0 \
+#   SHARD_1_URL=jdbc:postgresql://localhost:5432/inventory_shard_1 java -jar target/springapp-0.0.1-SNAPSHOT.jar
+#
+# Odd warehouse ids land on shard 1, even ones on shard 0. The shards' postgres_fdw connects back to the
+# catalog with the application's credentials, so the server must accept password logins from localhost.
+set -euo pipefail
+
+export PGHOST=${PGHOST:-localhost} PGPORT=${PGPORT:-5432} PGUSER=${PGUSER:-postgres}
+
+for db in inventory_catalog inventory_shard_0 inventory_shard_1; do
+    if psql -d postgres -tAc "select 1 from pg_database where datname = '$db'" | grep -q 1; then
+        echo "$db exists"
+    else
+        psql -d postgres -qc "create database $db"
+        echo "$db created"
+    fi
+done
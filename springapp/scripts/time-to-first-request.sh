@@ -0,0 +1,67 @@
+#!/bin/bash
+# Time from JVM launch to the first successful API response, before and after the startup work:
+#   before: plain jar, default profile (schema diffing, no AOT, no CDS)
+#   after:  mvn -Pprod build, extracted jar, AOT bean definitions and an AppCDS archive
+#
+# Needs DB_HOST, DB_PORT, DB_NAME, DB_USERNAME and DB_PASSWORD for a database that already has the
+# schema (run the app once normally first). Usage: scripts/time-to-first-request.sh [runs]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+URL="http://localhost:${PORT}/api/warehouses"
+JAR=springapp-0.0.1-SNAPSHOT.jar
+WORK=target/startup
+rm -rf "$WORK"
+mkdir -p "$WORK"
+
+echo "Building baseline jar"
+mvn -B -q package -DskipTests
+cp "target/$JAR" "$WORK/baseline.jar"
+
+echo "Building prod jar with AOT and training the CDS archive"
+mvn -B -q -Pprod package -DskipTests
+java -Djarmode=tools -jar "target/$JAR" extract --destination "$WORK/prod"
+# Starts the context once, exits after refresh and dumps every class loaded on the way
+(cd "$WORK/prod" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -Dspring.profiles.active=prod -jar "$JAR" > training.log 2>&1)
+
+# Prints the milliseconds from launch until $URL answers with a 2xx
+time_to_first_request() {
+    local log=$1
+    shift
+    local start end pid
+    start=$(date +%s%N)
+    "$@" > "$log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited during startup, see $log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+run() {
+    local label=$1
+    shift
+    local times=()
+    for i in $(seq 1 "$RUNS"); do
+        times+=("$(time_to_first_request "$WORK/$label-$i.log" "$@")")
+    done
+    printf '%-8s median %6s ms   runs: %s\n' "$label" "$(printf '%s\n' "${times[@]}" | median)" "${times[*]}"
+}
+
+echo "Measuring $RUNS runs each against $URL"
+run before java -jar "$WORK/baseline.jar"
+run after bash -c "cd $WORK/prod && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=prod -jar $JAR"
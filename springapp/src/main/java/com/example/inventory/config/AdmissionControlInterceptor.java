@@ -0,0 +1,64 @@
+package com.example.inventory.config;
+
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.service.impl.AdmissionControl;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+// Rejects requests to @AdmissionControlled handlers with 429 once their token buckets run dry
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private final AdmissionControl admissionControl;
+    private final boolean enabled;
+
+    public AdmissionControlInterceptor(AdmissionControl admissionControl, AdmissionProperties properties) {
+        this.admissionControl = admissionControl;
+        this.enabled = properties.isEnabled();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Async handlers are dispatched a second time to write the result; they were admitted already
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AdmissionControlled annotation = handlerMethod.getMethodAnnotation(AdmissionControlled.class);
+        if (annotation == null) {
+            annotation = handlerMethod.getBeanType().getAnnotation(AdmissionControlled.class);
+        }
+        if (annotation == null) {
+            return true;
+        }
+
+        long waitNanos = admissionControl.tryAdmit(annotation.value(), principal(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+        long retryAfterSeconds = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry after " + retryAfterSeconds + " seconds\"}");
+        return false;
+    }
+
+    // Authenticated callers are limited per user, anonymous ones per client address
+    private static String principal(HttpServletRequest request) {
+        Object user = request.getAttribute(JwtAuthFilter.AUTHENTICATED_USER);
+        if (user instanceof AuthenticatedUser authenticated) {
+            return "user:" + authenticated.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
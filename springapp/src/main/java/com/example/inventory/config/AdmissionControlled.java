@@ -0,0 +1,16 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.AdmissionClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts a controller or handler method behind the admission limits of the given class.
+// A method-level annotation overrides the one on its controller.
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControlled {
+    AdmissionClass value();
+}
@@ -0,0 +1,25 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.AdmissionClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private Map<AdmissionClass, Limit> classes = new EnumMap<>(AdmissionClass.class);
+
+    // Rates are requests per second; a rate of 0 or less switches that bucket off
+    @Data
+    public static class Limit {
+        private double perUserRate;
+        private int perUserBurst = 1;
+        private double globalRate;
+        private int globalBurst = 1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "alerts")
+public class AlertProperties {
+
+    // Resolved alerts older than this are rolled into alert_daily_counts by the compaction
+    private int retentionDays = 90;
+    // Alerts compacted per transaction
+    private int compactionBatchSize = 5000;
+    // Spring cron expression for the compaction; "-" leaves it off
+    private String compactionCron = "0 30 3 * * *";
+    // Inventory rows re-evaluated per transaction by the periodic alert scan
+    private int scanBatchSize = 500;
+    // Largest page of GET /api/alerts/history
+    private int maxHistoryPageSize = 500;
+}
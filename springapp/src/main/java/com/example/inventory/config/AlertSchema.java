@@ -0,0 +1,68 @@
+package com.example.inventory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Alert table changes ddl-auto cannot make. One active alert per product and warehouse is enforced by a
+ * partial unique index; it replaces the unique (product_id, warehouse_id, resolved) constraint of earlier
+ * versions, which also allowed only one resolved alert, so the second resolution of a pair failed.
+ *
+ * Applied to the main database once every singleton is up (after Hibernate created the tables on a fresh
+ * database) and before the web server starts, so no request meets the old constraint. The AppCDS training
+ * run of the image exits on refresh without a database and skips it. Applied to every shard after
+ * shard-schema.sql. Idempotent; the old constraint is found by its columns, whatever it was named.
+ */
+@Component
+public class AlertSchema implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertSchema.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    public AlertSchema(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, Environment environment) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.environment = environment;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (exitsOnRefresh(environment)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> migrate(jdbcTemplate));
+    }
+
+    // The AppCDS training run (spring.context.exit=onRefresh) stops after refresh and has no database
+    static boolean exitsOnRefresh(Environment environment) {
+        return "onRefresh".equalsIgnoreCase(environment.getProperty("spring.context.exit"));
+    }
+
+    // Runs in the caller's transaction
+    static void migrate(JdbcTemplate jdbcTemplate) {
+        // Application instances starting together take turns
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('inventory-alert-schema'))");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS low_stock_alerts_active_key "
+                + "ON low_stock_alerts (product_id, warehouse_id) WHERE resolved = false");
+        // For the compaction, which takes resolved alerts oldest first
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS low_stock_alerts_resolved_idx "
+                + "ON low_stock_alerts (resolved_at) WHERE resolved = true");
+        for (String name : jdbcTemplate.queryForList("SELECT c.conname FROM pg_constraint c "
+                + "WHERE c.conrelid = 'low_stock_alerts'::regclass AND c.contype = 'u' "
+                + "AND (SELECT array_agg(a.attname::text ORDER BY a.attname) FROM pg_attribute a "
+                + "WHERE a.attrelid = c.conrelid AND a.attnum = ANY(c.conkey)) = ARRAY['product_id', 'resolved', 'warehouse_id']",
+                String.class)) {
+            log.info("Replacing unique constraint {} on low_stock_alerts with the partial index on active alerts", name);
+            jdbcTemplate.execute("ALTER TABLE low_stock_alerts DROP CONSTRAINT " + name);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.impl.OutboxRelay;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refuses to start when a feature toggle is on but the AOT build left its beans out.
+ *
+ * With the AOT bean definitions (the Docker image) @ConditionalOnProperty was evaluated once, by
+ * process-aot for aot.profiles, so turning a feature on in the container's environment would be ignored
+ * without a word: with shard.enabled, inventory would keep going to the catalog database. Without AOT
+ * the conditions are evaluated at startup and always agree with the environment.
+ */
+@Component
+public class AotToggleGuard {
+
+    // Toggle property and a bean type that exists only when the toggle was on
+    private static final Map<String, Class<?>> TOGGLES = new LinkedHashMap<>();
+
+    static {
+        TOGGLES.put("shard.enabled", ShardPools.class);
+        TOGGLES.put("replica.enabled", ReplicaRoutingDataSource.class);
+        TOGGLES.put("outbox.enabled", OutboxRelay.class);
+    }
+
+    public AotToggleGuard(Environment environment, ListableBeanFactory beanFactory) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> ignored = TOGGLES.entrySet().stream()
+                .filter(toggle -> environment.getProperty(toggle.getKey(), Boolean.class, false))
+                .filter(toggle -> beanFactory.getBeanNamesForType(toggle.getValue(), true, false).length == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!ignored.isEmpty()) {
+            throw new IllegalStateException(String.join(", ", ignored) + " set, but this build's AOT bean definitions "
+                    + "were generated with it off. Start without AOT (SPRING_AOT_ENABLED=false for the Docker image) "
+                    + "or build with the toggle on.");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    // One Hikari pool per bulkhead, all built from spring.datasource.* and spring.datasource.hikari.*;
+    // only the pool size and name differ
+    // The primary DataSource wraps this one (see QueryLogConfig)
+    @Bean
+    public BulkheadRoutingDataSource bulkheadRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                               BulkheadProperties bulkheadProperties,
+                                                               Environment environment,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        Map<Bulkhead, HikariDataSource> pools = new EnumMap<>(Bulkhead.class);
+        for (Bulkhead bulkhead : Bulkhead.values()) {
+            HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("hikari-" + bulkhead.name().toLowerCase());
+            pool.setMaximumPoolSize(bulkheadProperties.get(bulkhead).getPoolSize());
+            // Boot only instruments Hikari pools that are beans themselves, so register these by hand
+            meterRegistry.ifAvailable(pool::setMetricRegistry);
+            pools.put(bulkhead, pool);
+        }
+        return new BulkheadRoutingDataSource(pools);
+    }
+}
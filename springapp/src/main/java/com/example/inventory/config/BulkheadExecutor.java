@@ -0,0 +1,126 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executors for the mutation, read and report bulkheads.
+ *
+ * Work dispatched here runs on the bulkhead's own threads and against its own connection pool,
+ * so a flood of report queries can only exhaust the report partition. A full queue, or a request
+ * still queued at the bulkhead timeout, gets a 503 instead of waiting indefinitely. Reads that run
+ * past the timeout get one too; mutations that have started are left to finish and answer.
+ */
+@Component
+public class BulkheadExecutor implements DisposableBean {
+
+    private final Map<Bulkhead, ThreadPoolExecutor> executors = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Long> timeouts = new EnumMap<>(Bulkhead.class);
+
+    public BulkheadExecutor(BulkheadProperties properties,
+                            MeterRegistry meterRegistry,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        for (Bulkhead bulkhead : Bulkhead.values()) {
+            BulkheadProperties.Partition partition = properties.get(bulkhead);
+            String prefix = "bulkhead-" + bulkhead.name().toLowerCase() + "-";
+            // The pool size is the bulkhead's concurrency limit either way; virtual threads just make parked workers cheap
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name(prefix, 1).factory()
+                    : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(partition.getThreads(), partition.getThreads(),
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(partition.getQueueCapacity()), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+            // Only the name tag: Prometheus rejects executor.* meters whose tag keys differ from Spring's task executor's
+            new ExecutorServiceMetrics(executor, "bulkhead-" + bulkhead.name().toLowerCase(), Tags.empty())
+                    .bindTo(meterRegistry);
+            executors.put(bulkhead, executor);
+            timeouts.put(bulkhead, partition.getTimeoutMs());
+        }
+    }
+
+    // Runs the handler body on the bulkhead; suitable as an async controller return value
+    public CompletableFuture<ResponseEntity<?>> dispatch(Bulkhead bulkhead, Supplier<ResponseEntity<?>> work) {
+        long timeoutMs = timeouts.get(bulkhead);
+        ThreadPoolExecutor executor = executors.get(bulkhead);
+        // The worker cannot see the request, so it carries the caller's session for replica routing
+        String session = ReadYourWrites.currentSession();
+        CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+        // Set by whichever comes first: the worker starting the task or the timeout while it is still queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            ReadYourWrites.bindSession(session);
+            try {
+                result.complete(callIn(bulkhead, work));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                ReadYourWrites.bindSession(null);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(unavailable(bulkhead, "is at capacity"));
+        }
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                // Never started, so retrying is safe
+                executor.remove(task);
+                result.complete(unavailable(bulkhead, "timed out after " + timeoutMs + " ms in the queue"));
+            } else if (bulkhead != Bulkhead.MUTATION) {
+                // A read that has started may be abandoned; a mutation that has started may commit, so a
+                // 503 inviting a retry could apply it twice, and it is left to finish
+                result.complete(unavailable(bulkhead, "timed out after " + timeoutMs + " ms"));
+            }
+        });
+        return result;
+    }
+
+    // Runs on the calling thread but against the bulkhead's connection pool (for streaming uploads)
+    public <T> T callIn(Bulkhead bulkhead, Supplier<T> work) {
+        Bulkhead previous = BulkheadRoutingDataSource.current();
+        BulkheadRoutingDataSource.bind(bulkhead);
+        try {
+            return work.get();
+        } finally {
+            BulkheadRoutingDataSource.bind(previous);
+        }
+    }
+
+    public Map<Bulkhead, ThreadPoolExecutor> getExecutors() {
+        return executors;
+    }
+
+    private static ResponseEntity<?> unavailable(Bulkhead bulkhead, String reason) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "The " + bulkhead.name().toLowerCase() + " bulkhead " + reason));
+    }
+
+    @Override
+    public void destroy() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.Bulkhead;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private Map<Bulkhead, Partition> partitions = new EnumMap<>(Bulkhead.class);
+
+    public Partition get(Bulkhead bulkhead) {
+        return partitions.getOrDefault(bulkhead, new Partition());
+    }
+
+    @Data
+    public static class Partition {
+        // Worker threads and the number of requests allowed to wait for one
+        private int threads = 8;
+        private int queueCapacity = 100;
+        // Time from dispatch to response before the caller gets a 503; mutations only while still queued
+        private long timeoutMs = 10000;
+        // Size of this partition's own connection pool
+        private int poolSize = 5;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the bulkhead the current thread works for.
+ *
+ * Threads outside any bulkhead (other controllers, schedulers, startup) use the READ partition.
+ * The partition is fixed when a transaction begins, so a transaction never spans two pools.
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final Map<Bulkhead, HikariDataSource> pools;
+
+    public BulkheadRoutingDataSource(Map<Bulkhead, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(Bulkhead.READ));
+    }
+
+    static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(bulkhead);
+        }
+    }
+
+    public Map<Bulkhead, HikariDataSource> getPools() {
+        return pools;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
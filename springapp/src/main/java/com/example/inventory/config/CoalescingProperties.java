@@ -0,0 +1,21 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+    // How long a request waits for a read it joined before answering 503; per endpoint in timeoutsMs
+    private long timeoutMs = 5000;
+    private Map<String, Long> timeoutsMs = new HashMap<>();
+
+    public long timeoutFor(String endpoint) {
+        return timeoutsMs.getOrDefault(endpoint, timeoutMs);
+    }
+}
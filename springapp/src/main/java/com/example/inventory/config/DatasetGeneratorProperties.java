@@ -0,0 +1,34 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+@Data
+@ConfigurationProperties(prefix = "datagen")
+public class DatasetGeneratorProperties {
+
+    // Same seed and sizes give the same rows; only history row ids depend on load order
+    private long seed = 42;
+    private int suppliers = 200;
+    private int warehouses = 20;
+    private int products = 100000;
+    // Approximate; restocks triggered by the simulation add a few percent
+    private long historyRows = 1000000;
+    private int years = 3;
+    // History covers [endDate - years, endDate); fixed by default so runs on different days match
+    private LocalDate endDate = LocalDate.of(2025, 1, 1);
+    // Average share of warehouses stocking a product; popular products are stocked more widely
+    private double stockingRatio = 0.3;
+    // Zipf exponent of product popularity; 0 spreads movements evenly
+    private double popularitySkew = 1.0;
+    private int parallelism = 4;
+    // Products per COPY transaction
+    private int chunkSize = 2000;
+    // Drops the stock_history foreign keys during the load and re-validates them in one pass afterwards
+    private boolean dropForeignKeys = true;
+    // Empties the catalog, inventory, history and alert tables first
+    private boolean truncate = false;
+    private boolean exitWhenDone = true;
+}
@@ -0,0 +1,36 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.impl.DatasetGenerator;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Entry point of the "datagen" profile: fills the configured database, then shuts the application down
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DatasetGeneratorProperties.class)
+public class DatasetGeneratorRunner implements ApplicationRunner {
+
+    private final DatasetGenerator datasetGenerator;
+    private final DatasetGeneratorProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    public DatasetGeneratorRunner(DatasetGenerator datasetGenerator, DatasetGeneratorProperties properties,
+                                  ConfigurableApplicationContext context) {
+        this.datasetGenerator = datasetGenerator;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        datasetGenerator.generate();
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
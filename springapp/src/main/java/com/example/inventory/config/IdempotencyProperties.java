@@ -0,0 +1,21 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    // How long a key's response is replayed after its first request
+    private long ttlSeconds = 86400;
+    // Completed responses kept in memory, so most retries are answered without a query
+    private int cacheSize = 10000;
+    // How long a duplicate waits for the request holding its key before answering 409
+    private long waitTimeoutMs = 5000;
+    private long pollIntervalMs = 50;
+    // A key still in flight after this long is taken over: the instance running its request is gone
+    private long inFlightLeaseSeconds = 60;
+    // Expired keys deleted per statement by the cleanup
+    private int cleanupBatchSize = 5000;
+}
@@ -1,3 +1,48 @@
-// Removed - JWT filter no longer used
+package com.example.inventory.config;
 
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
 
+import java.io.IOException;
+
+/**
+ * Verifies the bearer token, if any, and exposes the caller as a request attribute.
+ *
+ * Requests without a valid token are passed on anonymously; endpoints that need an actor
+ * (stock movements) answer 401 themselves, so the response still goes through the MVC CORS setup.
+ */
+@Component
+public class JwtAuthFilter extends OncePerRequestFilter {
+
+    public static final String AUTHENTICATED_USER = "authenticatedUser";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+
+    public JwtAuthFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            try {
+                AuthenticatedUser user = jwtUtil.parseToken(header.substring(BEARER_PREFIX.length()).trim());
+                request.setAttribute(AUTHENTICATED_USER, user);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired: treat the request as anonymous
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
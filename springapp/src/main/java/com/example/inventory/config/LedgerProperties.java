@@ -0,0 +1,21 @@
+package com.example.inventory.config;
+
+import com.example.inventory.util.ReconciliationMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "ledger.reconciliation")
+public class LedgerProperties {
+
+    // Key ranges compared at once; each holds a connection of the report bulkhead (or of its shard) while it runs
+    private int parallelism = 2;
+    // Product ids per key range
+    private long rangeSize = 5000;
+    // Discrepancies repaired per transaction
+    private int repairBatchSize = 500;
+    // Spring cron expressions for scheduled runs; "-" leaves them off
+    private String incrementalCron = "-";
+    private String fullCron = "-";
+    private ReconciliationMode scheduledMode = ReconciliationMode.REPORT;
+}
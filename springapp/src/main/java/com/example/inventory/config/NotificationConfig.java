@@ -0,0 +1,20 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.impl.LowStockNotifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(NotificationProperties.class)
+public class NotificationConfig {
+
+    // Always present for the alert services; does nothing unless notifications.enabled
+    @Bean
+    public LowStockNotifier lowStockNotifier(NotificationProperties properties, ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+        return new LowStockNotifier(properties, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "notifications")
+public class NotificationProperties {
+
+    // Off by default: new low-stock alerts are only visible on the dashboard
+    private boolean enabled = false;
+    private List<Subscriber> subscribers = new ArrayList<>();
+    // Alerts opened within one window go to a subscriber as one digest
+    private long digestWindowMs = 5000;
+    private int maxDigestSize = 100;
+    private long requestTimeoutMs = 5000;
+    // A digest is retried after initialBackoffMs * 2^(attempt - 1), capped at maxBackoffMs and jittered,
+    // and written to the dead-letter log once maxAttempts have failed
+    private int maxAttempts = 8;
+    private long initialBackoffMs = 1000;
+    private long maxBackoffMs = 300000;
+    // Pending alerts kept in memory per subscriber; beyond that they are spilled to spoolDirectory
+    // and read back as the subscriber catches up
+    private int queueCapacity = 10000;
+    private String spoolDirectory = "notification-spool";
+    private String deadLetterFile = "notification-dead-letters.jsonl";
+
+    @Data
+    public static class Subscriber {
+        // Names the subscriber's spool files and metrics; letters, digits, '-' and '_'
+        private String name;
+        private String url;
+        // Only alerts of these warehouses; empty means all
+        private List<Long> warehouseIds = new ArrayList<>();
+    }
+}
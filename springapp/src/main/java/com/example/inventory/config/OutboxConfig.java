@@ -0,0 +1,49 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.OutboxSink;
+import com.example.inventory.service.impl.FileOutboxSink;
+import com.example.inventory.service.impl.OutboxRelay;
+import com.example.inventory.service.impl.WebhookOutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    // Delivers to the configured webhook and file sinks, plus any OutboxSink beans
+    @Bean
+    @ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+    public OutboxRelay outboxRelay(OutboxProperties properties,
+                                   ObjectProvider<OutboxSink> sinkBeans,
+                                   ShardRouter shardRouter,
+                                   JdbcTemplate jdbcTemplate,
+                                   BulkheadExecutor bulkheadExecutor,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        List<OutboxSink> sinks = new ArrayList<>(sinkBeans.orderedStream().toList());
+        if (properties.getWebhook().getUrl() != null && !properties.getWebhook().getUrl().isBlank()) {
+            sinks.add(new WebhookOutboxSink(properties.getWebhook(), objectMapper));
+        }
+        if (properties.getFile().getPath() != null && !properties.getFile().getPath().isBlank()) {
+            sinks.add(new FileOutboxSink(properties.getFile(), objectMapper));
+        }
+        // Events would only pile up in the table
+        if (sinks.isEmpty()) {
+            throw new IllegalStateException("outbox.enabled is set but neither outbox.webhook.url nor outbox.file.path is configured");
+        }
+        if (properties.getBatchSize() <= 0 || properties.getRelayThreads() <= 0) {
+            throw new IllegalStateException("outbox.batch-size and outbox.relay-threads must be positive");
+        }
+        return new OutboxRelay(properties, sinks, shardRouter, jdbcTemplate, bulkheadExecutor, meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    // Off by default: no events are written, so nothing piles up without a relay to deliver them
+    private boolean enabled = false;
+    // Events claimed per shard and relay round
+    private int batchSize = 200;
+    // Relay threads per application instance; instances and threads share the work through SKIP LOCKED
+    private int relayThreads = 1;
+    // Pause between rounds that found nothing to deliver
+    private long pollIntervalMs = 500;
+    // A failed batch is retried after retryBackoffMs * 2^(attempts - 1), capped at maxRetryBackoffMs
+    private long retryBackoffMs = 1000;
+    private long maxRetryBackoffMs = 300000;
+    private Webhook webhook = new Webhook();
+    private File file = new File();
+
+    @Data
+    public static class Webhook {
+        // Receives each batch as a JSON array in a POST; blank disables the sink
+        private String url;
+        // Keep below shard.scatter-timeout-ms, which bounds a relay round on sharded setups
+        private long timeoutMs = 5000;
+    }
+
+    @Data
+    public static class File {
+        // Events are appended as JSON lines; blank disables the sink
+        private String path;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.inventory.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Change log the product search index of every instance follows (see ProductSearchIndex.refresh). Triggers on
+ * the catalog record each insert, delete and search-relevant update of a product, and the products of a renamed
+ * supplier, whoever wrote them: another instance, the importer's batched SQL or a manual fix. Each row carries
+ * the writing transaction's id, so a reader can tell which changes may still have been in flight at its last poll.
+ *
+ * Catalog only; the shards reach products through postgres_fdw. Applied like AlertSchema, before the web server
+ * starts and so before the index loads; idempotent.
+ */
+@Component
+public class ProductSearchSchema implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    public ProductSearchSchema(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               Environment environment) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.environment = environment;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (AlertSchema.exitsOnRefresh(environment)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> migrate(jdbcTemplate));
+    }
+
+    // Runs in the caller's transaction
+    static void migrate(JdbcTemplate jdbcTemplate) {
+        // Application instances starting together take turns
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('inventory-product-search-schema'))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS product_search_changes ("
+                + "id bigserial PRIMARY KEY, product_id bigint NOT NULL, "
+                + "txid bigint NOT NULL DEFAULT txid_current(), changed_at timestamptz NOT NULL DEFAULT now())");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS product_search_changes_txid_idx ON product_search_changes (txid)");
+        // For the pruning of changes every instance has seen
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS product_search_changes_changed_at_idx "
+                + "ON product_search_changes (changed_at)");
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION product_search_changed() RETURNS trigger LANGUAGE plpgsql AS $$ "
+                + "BEGIN "
+                + "IF TG_TABLE_NAME = 'suppliers' THEN "
+                + "INSERT INTO product_search_changes (product_id) SELECT p.id FROM products p WHERE p.supplier_id = NEW.id; "
+                + "ELSIF TG_OP = 'DELETE' THEN "
+                + "INSERT INTO product_search_changes (product_id) VALUES (OLD.id); "
+                + "ELSE "
+                + "INSERT INTO product_search_changes (product_id) VALUES (NEW.id); "
+                + "END IF; "
+                + "RETURN NULL; "
+                + "END $$");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS products_search_change ON products");
+        jdbcTemplate.execute("CREATE TRIGGER products_search_change AFTER INSERT OR DELETE ON products "
+                + "FOR EACH ROW EXECUTE FUNCTION product_search_changed()");
+        // Threshold and price updates leave the index as it is
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS products_search_update ON products");
+        jdbcTemplate.execute("CREATE TRIGGER products_search_update AFTER UPDATE ON products FOR EACH ROW "
+                + "WHEN (OLD.sku IS DISTINCT FROM NEW.sku OR OLD.name IS DISTINCT FROM NEW.name "
+                + "OR OLD.category IS DISTINCT FROM NEW.category OR OLD.supplier_id IS DISTINCT FROM NEW.supplier_id) "
+                + "EXECUTE FUNCTION product_search_changed()");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS suppliers_search_update ON suppliers");
+        jdbcTemplate.execute("CREATE TRIGGER suppliers_search_update AFTER UPDATE ON suppliers FOR EACH ROW "
+                + "WHEN (OLD.name IS DISTINCT FROM NEW.name) EXECUTE FUNCTION product_search_changed()");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.impl.QueryStatsCollector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(QueryLogProperties.class)
+public class QueryLogConfig {
+
+    // The DataSource used by JPA and JdbcTemplate: bulkhead routing, read-only transactions split off to
+    // the replicas when they are configured, shard-bound work sent to its shard, with statement tracking on top
+    @Bean
+    @Primary
+    public DataSource dataSource(BulkheadRoutingDataSource bulkheadRoutingDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                 ObjectProvider<ShardPools> shardPools,
+                                 QueryStatsCollector queryStatsCollector,
+                                 QueryLogProperties properties) {
+        ReplicaRoutingDataSource replicas = replicaRoutingDataSource.getIfAvailable();
+        DataSource target = replicas == null ? bulkheadRoutingDataSource : replicas.splittingReadsFromPrimary();
+        ShardPools shards = shardPools.getIfAvailable();
+        if (shards != null) {
+            target = shards.routing(target);
+        }
+        if (!properties.isEnabled()) {
+            return target;
+        }
+        return new QueryTrackingDataSource(target, queryStatsCollector);
+    }
+}
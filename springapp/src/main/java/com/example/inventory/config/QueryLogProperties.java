@@ -0,0 +1,15 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "query-log")
+public class QueryLogProperties {
+
+    private boolean enabled = true;
+    // Statements at or above this duration are logged individually
+    private long slowThresholdMs = 200;
+    // Distinct fingerprints tracked before new ones are folded into a single "other" entry
+    private int maxFingerprints = 2000;
+}
@@ -0,0 +1,224 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.impl.QueryStatsCollector;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every statement executed through the application's connections.
+ *
+ * Connections, statements and result sets are wrapped in JDK proxies. Updates are recorded when
+ * they return; queries when their result set is closed, so the duration includes fetching and the
+ * row count is the number of rows actually read. unwrap() still reaches the driver objects, which
+ * is what the COPY-based loaders rely on.
+ */
+public class QueryTrackingDataSource extends DelegatingDataSource {
+
+    private final QueryStatsCollector collector;
+
+    public QueryTrackingDataSource(DataSource target, QueryStatsCollector collector) {
+        super(target);
+        this.collector = collector;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Connection identity is the proxy's; transaction code compares held connections with ==/equals
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+            Object result = QueryTrackingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final String preparedFingerprint;
+        private Execution pending;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.preparedFingerprint = preparedSql == null ? null : collector.fingerprint(preparedSql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args, name);
+            }
+            if (name.equals("getResultSet")) {
+                return wrapResultSet((ResultSet) QueryTrackingDataSource.invoke(target, method, args));
+            }
+            if (name.equals("close")) {
+                finishPending(-1);
+            }
+            return QueryTrackingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args, String name) throws Throwable {
+            finishPending(-1);
+            Execution execution;
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                execution = new Execution(collector.fingerprint(sql), sql);
+            } else {
+                execution = new Execution(preparedFingerprint, preparedSql);
+            }
+            Object result = QueryTrackingDataSource.invoke(target, method, args);
+            switch (name) {
+                case "executeQuery" -> {
+                    pending = execution;
+                    return wrapResultSet((ResultSet) result);
+                }
+                case "executeUpdate", "executeLargeUpdate" -> execution.finish(((Number) result).longValue());
+                case "executeBatch" -> execution.finish(sum((int[]) result));
+                case "executeLargeBatch" -> execution.finish(sum((long[]) result));
+                default -> {
+                    // execute(): a result set is fetched separately, otherwise there is an update count
+                    if (Boolean.TRUE.equals(result)) {
+                        pending = execution;
+                    } else {
+                        execution.finish(target.getUpdateCount());
+                    }
+                }
+            }
+            return result;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            if (resultSet == null || pending == null) {
+                return resultSet;
+            }
+            return (ResultSet) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, pending));
+        }
+
+        private void finishPending(long rows) {
+            if (pending != null) {
+                pending.finish(rows);
+                pending = null;
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Execution execution;
+
+        ResultSetHandler(ResultSet target, Execution execution) {
+            this.target = target;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryTrackingDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    execution.rows++;
+                }
+            } else if (name.equals("close")) {
+                execution.finish(execution.rows);
+            }
+            return result;
+        }
+    }
+
+    private final class Execution {
+        private final String fingerprint;
+        private final String sql;
+        private final long started = System.nanoTime();
+        private long rows;
+        private boolean finished;
+
+        Execution(String fingerprint, String sql) {
+            this.fingerprint = fingerprint;
+            this.sql = sql;
+        }
+
+        // rows < 0 means "use the rows counted so far"
+        void finish(long rowCount) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            collector.record(fingerprint == null ? "" : fingerprint, sql, System.nanoTime() - started,
+                    rowCount < 0 ? rows : rowCount);
+        }
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
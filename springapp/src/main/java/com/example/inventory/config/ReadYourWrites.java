@@ -0,0 +1,114 @@
+package com.example.inventory.config;
+
+import com.example.inventory.dto.AuthenticatedUser;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a session's reads on the primary for a short window after it writes, so a client never
+ * reads an older state than the one it just produced from a lagging replica.
+ *
+ * A session is the authenticated user, or the client address for anonymous callers (the same key
+ * admission control uses). Threads without a request, such as schedulers, have no session and are
+ * never pinned.
+ */
+public class ReadYourWrites {
+
+    // Set on bulkhead workers, which do not see the request of the thread that dispatched them
+    private static final ThreadLocal<String> SESSION = new ThreadLocal<>();
+
+    private final long windowNanos;
+    // Session -> System.nanoTime() until which its reads go to the primary
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(long windowMs) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    static String currentSession() {
+        String bound = SESSION.get();
+        if (bound != null) {
+            return bound;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        Object user = servletAttributes.getRequest().getAttribute(JwtAuthFilter.AUTHENTICATED_USER);
+        if (user instanceof AuthenticatedUser authenticated) {
+            return "user:" + authenticated.getId();
+        }
+        return "ip:" + servletAttributes.getRequest().getRemoteAddr();
+    }
+
+    static void bindSession(String session) {
+        if (session == null) {
+            SESSION.remove();
+        } else {
+            SESSION.set(session);
+        }
+    }
+
+    public boolean isPinned() {
+        String session = currentSession();
+        if (session == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(session);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    // The window starts when the write becomes visible, i.e. at commit
+    void recordWrite() {
+        String session = currentSession();
+        if (session == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pin(session);
+                }
+            });
+        } else {
+            pin(session);
+        }
+    }
+
+    private void pin(String session) {
+        pinnedUntil.put(session, System.nanoTime() + windowNanos);
+    }
+
+    void evictExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    int pinnedSessions() {
+        return pinnedUntil.size();
+    }
+
+    // Every connection taken from the primary for read-write work counts as a write by the current session
+    DataSource trackingWrites(DataSource primary) {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                recordWrite();
+                return connection;
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    // One Hikari pool per replica, built like the bulkhead pools; the primary DataSource puts this
+    // in front of the bulkhead routing for read-only transactions (see QueryLogConfig)
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties,
+                                                             BulkheadRoutingDataSource bulkheadRoutingDataSource,
+                                                             Environment environment,
+                                                             MeterRegistry meterRegistry) {
+        if (replicaProperties.getNodes().stream().allMatch(node -> node.getUrl() == null || node.getUrl().isBlank())) {
+            throw new IllegalStateException("replica.enabled is set but no replica.nodes are configured");
+        }
+        // An EntityManager held open for the whole request keeps the connection of its first transaction,
+        // so a write after a read-only transaction would land on the replica
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("replica.enabled requires spring.jpa.open-in-view=false");
+        }
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (ReplicaProperties.Node node : replicaProperties.getNodes()) {
+            if (node.getUrl() == null || node.getUrl().isBlank()) {
+                continue;
+            }
+            DataSourceBuilder<?> builder = dataSourceProperties.initializeDataSourceBuilder().url(node.getUrl());
+            if (node.getUsername() != null) {
+                builder.username(node.getUsername()).password(node.getPassword());
+            }
+            HikariDataSource pool = builder.type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("hikari-replica-" + pools.size());
+            pool.setMaximumPoolSize(replicaProperties.getPoolSize());
+            // A dead replica should fail over quickly instead of holding requests for the default 30 s
+            pool.setConnectionTimeout(Math.min(pool.getConnectionTimeout(), 2000));
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+        }
+        return new ReplicaRoutingDataSource(pools, bulkheadRoutingDataSource,
+                new ReadYourWrites(replicaProperties.getReadYourWritesMs()), replicaProperties, meterRegistry);
+    }
+}
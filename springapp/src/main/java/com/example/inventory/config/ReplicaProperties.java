@@ -0,0 +1,31 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+    // Off by default: every connection comes from the primary, exactly as without this feature
+    private boolean enabled = false;
+    private List<Node> nodes = new ArrayList<>();
+    // Connection pool size per replica
+    private int poolSize = 8;
+    // After a session writes, its reads stay on the primary for this long
+    private long readYourWritesMs = 5000;
+    // Replicas further behind than this are taken out of rotation until they catch up
+    private long maxLagMs = 10000;
+    private long checkIntervalMs = 2000;
+
+    @Data
+    public static class Node {
+        private String url;
+        // Default to spring.datasource.username / password
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions: round-robin over the replicas that are up and within
+ * the lag limit, otherwise the primary.
+ *
+ * Reads also go to the primary while the session is inside its read-your-writes window. Lag is
+ * polled on a thread of its own so an unreachable replica cannot stall the application's scheduler.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Replay lag of a standby; 0 when it has replayed everything it received or is not a standby at all
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final ReadYourWrites readYourWrites;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+    private final Counter toReplica;
+    private final Counter pinnedToPrimary;
+    private final Counter failedOverToPrimary;
+
+    public ReplicaRoutingDataSource(List<HikariDataSource> pools, DataSource primary, ReadYourWrites readYourWrites,
+                                    ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.maxLagMs = properties.getMaxLagMs();
+
+        this.toReplica = routed(meterRegistry, "replica", "healthy");
+        this.pinnedToPrimary = routed(meterRegistry, "primary", "read-your-writes");
+        this.failedOverToPrimary = routed(meterRegistry, "primary", "no-healthy-replica");
+        for (Replica replica : replicas) {
+            String name = replica.pool.getPoolName();
+            Gauge.builder("replica.lag", replica, r -> r.lagMs).tag("replica", name).baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("replica.healthy", replica, r -> r.healthy ? 1 : 0).tag("replica", name)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("replica.pinned.sessions", readYourWrites, ReadYourWrites::pinnedSessions).register(meterRegistry);
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-check").daemon(true).factory());
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, properties.getCheckIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("replica.routed.connections").tag("target", target).tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Read-only transactions come here, everything else goes to the primary and opens the session's
+    // read-your-writes window. The proxy defers picking a target until the first statement, by which
+    // time the transaction manager has marked the connection read-only or not.
+    public DataSource splittingReadsFromPrimary() {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(readYourWrites.trackingWrites(primary));
+        proxy.setReadOnlyDataSource(this);
+        return proxy;
+    }
+
+    // Whether the current session's reads are held on the primary after a write of its own
+    public boolean isSessionPinned() {
+        return readYourWrites.isPinned();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWrites.isPinned()) {
+            pinnedToPrimary.increment();
+            return readOnly(primary.getConnection());
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                toReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Went away since the last check; the next check brings it back once it answers again
+                markDown(replica, e);
+            }
+        }
+        failedOverToPrimary.increment();
+        return readOnly(primary.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+
+    // Keeps the read-only guarantee of the transaction when it falls back to the primary
+    private static Connection readOnly(Connection connection) throws SQLException {
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    private void checkReplicas() {
+        readYourWrites.evictExpired();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    replica.lagMs = rs.getDouble(1);
+                }
+                boolean healthy = replica.lagMs <= maxLagMs;
+                if (healthy != replica.healthy) {
+                    log.info("Replica {} {} (lag {} ms)", replica.pool.getPoolName(),
+                            healthy ? "back in rotation" : "out of rotation", Math.round(replica.lagMs));
+                }
+                replica.healthy = healthy;
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            log.warn("Replica {} out of rotation: {}", replica.pool.getPoolName(), cause.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    @Override
+    public void destroy() {
+        checker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static class Replica {
+        final HikariDataSource pool;
+        // Out of rotation until the first check has seen it
+        volatile boolean healthy;
+        volatile double lagMs;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
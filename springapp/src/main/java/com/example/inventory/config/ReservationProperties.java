@@ -0,0 +1,22 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "reservations")
+public class ReservationProperties {
+
+    // Hold time when a reservation does not ask for one, and the longest it may ask for
+    private long defaultTtlSeconds = 900;
+    private long maxTtlSeconds = 86400;
+    // Expiry timing wheel: tick length and buckets per level. Four levels of 64 one-second buckets reach
+    // 194 days; holds further out are filed again as the top level turns.
+    private long wheelTickMs = 1000;
+    private int wheelSize = 64;
+    private int wheelLevels = 4;
+    // Threads expiring holds as they come due
+    private int expiryThreads = 2;
+    // Safety net for holds no wheel has (their instance is gone): expired by the sweep once this far overdue
+    private long sweepGraceSeconds = 60;
+}
@@ -0,0 +1,127 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.Driver;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+    static final String[] SHARDED_TABLES = {"inventory", "stock_history", "low_stock_alerts", "outbox_events",
+            "ledger_discrepancies", "ledger_dirty_keys", "stock_reservations", "alert_daily_counts"};
+    // Catalog tables the shards read through postgres_fdw, for the joins behind Inventory.product etc.
+    private static final String CATALOG_TABLES = "products, suppliers, warehouses";
+
+    // One Hikari pool per shard, built like the bulkhead pools
+    @Bean
+    @ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+    public ShardPools shardPools(DataSourceProperties dataSourceProperties,
+                                 ShardProperties shardProperties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        // Unset URLs (e.g. an empty SHARD_1_URL) leave the node out
+        List<ShardProperties.Node> nodes = shardProperties.getNodes().stream()
+                .filter(node -> node.getUrl() != null && !node.getUrl().isBlank())
+                .toList();
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("shard.enabled is set but no shard.nodes are configured");
+        }
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (ShardProperties.Node node : nodes) {
+            DataSourceBuilder<?> builder = dataSourceProperties.initializeDataSourceBuilder().url(node.getUrl());
+            if (node.getUsername() != null) {
+                builder.username(node.getUsername()).password(node.getPassword());
+            }
+            HikariDataSource pool = builder.type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("hikari-shard-" + pools.size());
+            pool.setMaximumPoolSize(shardProperties.getPoolSize());
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+        }
+        return new ShardPools(pools);
+    }
+
+    // Gives each shard its tables and its view of the catalog. Runs once every singleton is up, i.e. after
+    // Hibernate has created the catalog tables on a fresh database, and before the server takes requests.
+    @Bean
+    @ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+    public SmartInitializingSingleton shardSchemaInitializer(ShardPools shardPools,
+                                                             ShardProperties shardProperties,
+                                                             DataSourceProperties dataSourceProperties) {
+        String catalogUrl = shardProperties.getCatalogUrl() != null
+                ? shardProperties.getCatalogUrl() : dataSourceProperties.determineUrl();
+        return () -> {
+            List<HikariDataSource> pools = shardPools.getPools();
+            for (int shard = 0; shard < pools.size(); shard++) {
+                prepare(pools.get(shard), shard, catalogUrl, dataSourceProperties);
+            }
+        };
+    }
+
+    // Idempotent; re-imports the catalog tables on every start so they follow catalog schema changes
+    private static void prepare(HikariDataSource shard, int number, String catalogUrl, DataSourceProperties catalog) {
+        Properties url = Driver.parseURL(catalogUrl, null);
+        if (url == null) {
+            throw new IllegalStateException("Not a PostgreSQL JDBC URL: " + catalogUrl);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+        new TransactionTemplate(new DataSourceTransactionManager(shard)).executeWithoutResult(status -> {
+            // Application instances starting together take turns
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('inventory-shard-schema'))");
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS postgres_fdw");
+            jdbcTemplate.execute("DROP SERVER IF EXISTS inventory_catalog CASCADE");
+            jdbcTemplate.execute("CREATE SERVER inventory_catalog FOREIGN DATA WRAPPER postgres_fdw OPTIONS ("
+                    + "host " + literal(url.getProperty("PGHOST")) + ", port " + literal(url.getProperty("PGPORT"))
+                    + ", dbname " + literal(url.getProperty("PGDBNAME")) + ", use_remote_estimate 'true')");
+            jdbcTemplate.execute("CREATE USER MAPPING FOR CURRENT_USER SERVER inventory_catalog OPTIONS ("
+                    + "user " + literal(catalog.determineUsername()) + ", password " + literal(catalog.determinePassword()) + ")");
+            jdbcTemplate.execute("IMPORT FOREIGN SCHEMA public LIMIT TO (" + CATALOG_TABLES + ") "
+                    + "FROM SERVER inventory_catalog INTO public");
+            // IMPORT skips tables the catalog does not have, which would only surface at the first join
+            Integer imported = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.foreign_tables "
+                    + "WHERE foreign_table_schema = 'public' AND foreign_server_name = 'inventory_catalog'", Integer.class);
+            if (imported == null || imported != CATALOG_TABLES.split(",").length) {
+                throw new IllegalStateException("Shard " + number + " found only " + imported + " of the catalog tables ("
+                        + CATALOG_TABLES + ") at " + catalogUrl);
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                ScriptUtils.executeSqlScript(con, new ClassPathResource("db/shard-schema.sql"));
+                return null;
+            });
+            AlertSchema.migrate(jdbcTemplate);
+            // Ids carry their shard (see ShardRouter.shardOfId), so each shard numbers from its own base
+            long base = ShardRouter.idBase(number);
+            for (String table : SHARDED_TABLES) {
+                jdbcTemplate.queryForList("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), ?, false) "
+                        + "WHERE (SELECT coalesce(max(id), 0) FROM " + table + ") < ?", base, base);
+            }
+        });
+    }
+
+    private static String literal(String value) {
+        return value == null ? "''" : "'" + value.replace("'", "''") + "'";
+    }
+}
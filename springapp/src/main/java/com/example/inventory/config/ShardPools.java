@@ -0,0 +1,30 @@
+package com.example.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// The shard connection pools, in shard-number order; the primary DataSource routes to them (see QueryLogConfig)
+public class ShardPools implements DisposableBean {
+
+    private final List<HikariDataSource> pools;
+
+    public ShardPools(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    public List<HikariDataSource> getPools() {
+        return pools;
+    }
+
+    public DataSource routing(DataSource catalog) {
+        return new ShardRoutingDataSource(catalog, pools);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shard")
+public class ShardProperties {
+
+    // Off by default: inventory, stock history and alerts live next to the catalog on spring.datasource
+    private boolean enabled = false;
+    // Position in this list is the shard number; do not reorder once shards hold data
+    private List<Node> nodes = new ArrayList<>();
+    // How the shards' postgres_fdw reaches the catalog node, as seen from the shard servers;
+    // defaults to spring.datasource.url
+    private String catalogUrl;
+    // Connection pool size per shard
+    private int poolSize = 10;
+    // Warehouse id -> shard number; warehouses not listed go to shard (id mod number of shards)
+    private Map<Long, Integer> assignments = new HashMap<>();
+    // Cross-shard reads fail instead of returning partial results when a shard takes longer than this
+    private long scatterTimeoutMs = 10000;
+
+    @Data
+    public static class Node {
+        private String url;
+        // Default to spring.datasource.username / password
+        private String username;
+        private String password;
+    }
+}
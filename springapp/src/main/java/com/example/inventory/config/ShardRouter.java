@@ -0,0 +1,255 @@
+package com.example.inventory.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs inventory, stock history and alert work on the shard that owns it.
+ *
+ * Work keyed by a warehouse, or by the id of a sharded row, runs in a transaction on that
+ * warehouse's shard. Reads that span warehouses run on every shard in parallel and the results are
+ * merged; a shard that fails or times out fails the whole read rather than returning partial data.
+ * Without shard.enabled every method simply runs the work in a transaction on the single database.
+ */
+@Component
+public class ShardRouter implements DisposableBean {
+
+    // Shard n hands out ids from (n + 1) << 48, well inside JavaScript's exact integer range
+    private static final int ID_SHIFT = 48;
+
+    private final int shards;
+    private final Map<Long, Integer> assignments;
+    private final long scatterTimeoutMs;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService scatterExecutor;
+    private final Timer scatterTimer;
+
+    public ShardRouter(ShardProperties properties,
+                       ObjectProvider<ShardPools> shardPools,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        ShardPools pools = shardPools.getIfAvailable();
+        this.shards = pools == null ? 0 : pools.getPools().size();
+        this.assignments = Map.copyOf(properties.getAssignments());
+        this.scatterTimeoutMs = properties.getScatterTimeoutMs();
+        assignments.forEach((warehouseId, shard) -> {
+            if (shard < 0 || (shards > 0 && shard >= shards)) {
+                throw new IllegalStateException("Warehouse " + warehouseId + " is assigned to unknown shard " + shard);
+            }
+        });
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        this.scatterExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-scatter-", 1).factory());
+        this.scatterTimer = Timer.builder("shard.scatter").description("Cross-shard reads, from fan-out to merged result")
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    static long idBase(int shard) {
+        return (shard + 1L) << ID_SHIFT;
+    }
+
+    public boolean isSharded() {
+        return shards > 0;
+    }
+
+    // Databases holding inventory data; the single one without sharding
+    public int shardCount() {
+        return isSharded() ? shards : 1;
+    }
+
+    public int shardOf(Long warehouseId) {
+        if (warehouseId == null) {
+            throw new RuntimeException("A warehouse is required to place inventory data on a shard");
+        }
+        Integer assigned = assignments.get(warehouseId);
+        return assigned != null ? assigned : (int) Math.floorMod(warehouseId, (long) shards);
+    }
+
+    // Ids below the first shard's base were issued by the catalog node before sharding
+    Integer shardOfId(Long id) {
+        long shard = (id >>> ID_SHIFT) - 1;
+        return shard >= 0 && shard < shards ? (int) shard : null;
+    }
+
+    public <T> T inWarehouse(Long warehouseId, Supplier<T> work) {
+        return run(isSharded() ? shardOf(warehouseId) : null, readWrite, work);
+    }
+
+    public <T> T readInWarehouse(Long warehouseId, Supplier<T> work) {
+        return run(isSharded() ? shardOf(warehouseId) : null, readOnly, work);
+    }
+
+    public <T> T inShardOf(Long id, Supplier<T> work) {
+        return run(isSharded() ? shardOfId(id) : null, readWrite, work);
+    }
+
+    public <T> T readInShardOf(Long id, Supplier<T> work) {
+        return run(isSharded() ? shardOfId(id) : null, readOnly, work);
+    }
+
+    // For jobs that split their work per shard themselves; shard 0 is the single database without sharding
+    public <T> T inShard(int shard, Supplier<T> work) {
+        if (shard < 0 || shard >= shardCount()) {
+            throw new IllegalStateException("No shard " + shard + " among " + shardCount());
+        }
+        return run(isSharded() ? shard : null, readWrite, work);
+    }
+
+    // Concatenation of the work's results on every shard, in shard order
+    public <T> List<T> readEverywhere(Supplier<? extends List<T>> work) {
+        List<T> merged = new ArrayList<>();
+        scatter(readOnly, work).forEach(merged::addAll);
+        return merged;
+    }
+
+    // Runs the work in its own read-write transaction on each shard, in parallel
+    public void inEveryShard(Runnable work) {
+        scatter(readWrite, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * One page across all shards. The query runs on each shard for the first offset + size rows in
+     * the requested order, and the page is cut from the merged rows, so deep pages cost every shard
+     * the rows before them. Counts are summed when the query returns Pages.
+     */
+    public <T> Slice<T> readPage(Pageable pageable, Function<Pageable, ? extends Slice<T>> query) {
+        if (!isSharded()) {
+            return readOnly.execute(status -> query.apply(pageable));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        int offset = (int) pageable.getOffset();
+        Pageable leading = PageRequest.of(0, offset + pageable.getPageSize(), sort);
+        List<? extends Slice<T>> slices = scatter(readOnly, () -> query.apply(leading));
+
+        List<T> rows = new ArrayList<>();
+        long total = 0;
+        boolean counted = true;
+        boolean anyHasNext = false;
+        for (Slice<T> slice : slices) {
+            rows.addAll(slice.getContent());
+            anyHasNext |= slice.hasNext();
+            if (slice instanceof Page<T> page) {
+                total += page.getTotalElements();
+            } else {
+                counted = false;
+            }
+        }
+        rows.sort(comparator(sort));
+        List<T> content = rows.subList(Math.min(offset, rows.size()), Math.min(offset + pageable.getPageSize(), rows.size()));
+        if (counted) {
+            return new PageImpl<>(new ArrayList<>(content), pageable, total);
+        }
+        return new SliceImpl<>(new ArrayList<>(content), pageable, anyHasNext || rows.size() > offset + pageable.getPageSize());
+    }
+
+    private <T> T run(Integer shard, TransactionTemplate transaction, Supplier<T> work) {
+        Integer current = ShardRoutingDataSource.current();
+        if (current != null) {
+            // Already inside a shard transaction; nested work joins it, but may not reach into another shard
+            if (!current.equals(shard)) {
+                throw new IllegalStateException("Work for shard " + shard + " inside a transaction on shard " + current);
+            }
+            return transaction.execute(status -> work.get());
+        }
+        ShardRoutingDataSource.bind(shard);
+        try {
+            return transaction.execute(status -> work.get());
+        } finally {
+            ShardRoutingDataSource.bind(null);
+        }
+    }
+
+    private <T> List<T> scatter(TransactionTemplate transaction, Supplier<? extends T> work) {
+        if (!isSharded()) {
+            return new ArrayList<>(Collections.singletonList(transaction.execute(status -> work.get())));
+        }
+        if (ShardRoutingDataSource.current() != null) {
+            throw new IllegalStateException("Cross-shard work inside a transaction on shard " + ShardRoutingDataSource.current());
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(scatterTimeoutMs);
+        List<Future<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(scatterExecutor.submit(() -> run(target, transaction, work)));
+        }
+        List<T> results = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                results.add(await(futures.get(shard), shard, deadline));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            scatterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return results;
+    }
+
+    private <T> T await(Future<T> future, int shard, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Shard " + shard + " did not answer within " + scatterTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Shard " + shard + " failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for shard " + shard, e);
+        }
+    }
+
+    // In-memory equivalent of the ORDER BY each shard applied, for merging their rows
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Comparable> values = order.isAscending()
+                    ? Comparator.nullsLast(Comparator.<Comparable>naturalOrder())
+                    : Comparator.nullsFirst(Comparator.<Comparable>reverseOrder());
+            Comparator<T> byProperty = Comparator.comparing(
+                    row -> (Comparable) new BeanWrapperImpl(row).getPropertyValue(order.getProperty()), values);
+            comparator = comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+
+    @Override
+    public void destroy() {
+        scatterExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.inventory.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard the current thread is bound to, or from the catalog node
+ * when it is not bound to any.
+ *
+ * ShardRouter binds the shard before it starts the transaction, so a transaction never spans two
+ * nodes.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    public ShardRoutingDataSource(DataSource catalog, List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(catalog);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+}
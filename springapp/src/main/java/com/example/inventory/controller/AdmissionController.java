@@ -0,0 +1,28 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.AdmissionStats;
+import com.example.inventory.service.impl.AdmissionControl;
+import com.example.inventory.util.AdmissionClass;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admission")
+public class AdmissionController {
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionController(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    // Admit and reject counters per endpoint class
+    @GetMapping("/stats")
+    public ResponseEntity<Map<AdmissionClass, AdmissionStats>> getStats() {
+        return ResponseEntity.ok(admissionControl.getStats());
+    }
+}
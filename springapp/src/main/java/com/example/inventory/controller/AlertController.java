@@ -1,30 +1,75 @@
 package com.example.inventory.controller;
 
-import com.example.inventory.entity.LowStockAlert;
+import com.example.inventory.config.AdmissionControlled;
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.dto.PageResponse;
 import com.example.inventory.service.LowStockAlertService;
+import com.example.inventory.service.impl.ReadCoalescer;
+import com.example.inventory.util.AdmissionClass;
+import com.example.inventory.util.Bulkhead;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/alerts")
 public class AlertController {
 
 	private final LowStockAlertService lowStockAlertService;
+	private final BulkheadExecutor bulkheadExecutor;
+	private final ReadCoalescer readCoalescer;
 
-	public AlertController(LowStockAlertService lowStockAlertService) {
+	public AlertController(LowStockAlertService lowStockAlertService, BulkheadExecutor bulkheadExecutor,
+	                       ReadCoalescer readCoalescer) {
 		this.lowStockAlertService = lowStockAlertService;
+		this.bulkheadExecutor = bulkheadExecutor;
+		this.readCoalescer = readCoalescer;
 	}
 
 	@GetMapping("/active")
-	public ResponseEntity<List<LowStockAlert>> getActiveAlerts() {
-		return ResponseEntity.ok(lowStockAlertService.getActiveAlerts());
+	public CompletableFuture<ResponseEntity<?>> getActiveAlerts(@SortDefault("id") Pageable pageable,
+	                                                            @RequestParam(defaultValue = "false") boolean count) {
+		return readCoalescer.coalesce("alerts-active", ReadCoalescer.pageKey(pageable, count), () -> bulkheadExecutor.dispatch(Bulkhead.READ,
+				() -> ResponseEntity.ok(PageResponse.from(lowStockAlertService.getActiveAlerts(pageable, count)))));
 	}
 
+	@AdmissionControlled(AdmissionClass.REPORT)
 	@GetMapping
-	public ResponseEntity<List<LowStockAlert>> getAllAlerts() {
-		return ResponseEntity.ok(lowStockAlertService.getAllAlerts());
+	public CompletableFuture<ResponseEntity<?>> getAllAlerts(@SortDefault("id") Pageable pageable,
+	                                                         @RequestParam(defaultValue = "false") boolean count) {
+		return bulkheadExecutor.dispatch(Bulkhead.REPORT,
+				() -> ResponseEntity.ok(PageResponse.from(lowStockAlertService.getAlerts(pageable, count))));
+	}
+
+	// Keyset-paged history, newest first; pass nextCursor of a page as cursor for the one after it
+	@AdmissionControlled(AdmissionClass.REPORT)
+	@GetMapping("/history")
+	public CompletableFuture<ResponseEntity<?>> getAlertHistory(@RequestParam(required = false) Long productId,
+	                                                            @RequestParam(required = false) Long warehouseId,
+	                                                            @RequestParam(required = false) Boolean resolved,
+	                                                            @RequestParam(required = false) String cursor,
+	                                                            @RequestParam(defaultValue = "50") int size) {
+		return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+			try {
+				return ResponseEntity.ok(lowStockAlertService.getAlertHistory(productId, warehouseId, resolved, cursor, size));
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+			}
+		});
+	}
+
+	@AdmissionControlled(AdmissionClass.REPORT)
+	@GetMapping("/daily-counts")
+	public CompletableFuture<ResponseEntity<?>> getDailyCounts(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+	                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return bulkheadExecutor.dispatch(Bulkhead.REPORT,
+				() -> ResponseEntity.ok(lowStockAlertService.getDailyCounts(from, to)));
 	}
 
 	@PostMapping("/{id}/resolve")
@@ -1,25 +1,42 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.config.AdmissionControlled;
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.dto.PageResponse;
+import com.example.inventory.dto.StockTransferResult;
 import com.example.inventory.entity.Inventory;
-import com.example.inventory.entity.StockHistory;
 import com.example.inventory.util.StockAdjustmentType;
 import com.example.inventory.repository.InventoryRepository;
 import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.repository.WarehouseRepository;
 import com.example.inventory.repository.StockHistoryRepository;
+import com.example.inventory.service.InventoryCountService;
 import com.example.inventory.service.InventoryService;
 import com.example.inventory.service.ProductService;
 import com.example.inventory.service.WarehouseService;
+import com.example.inventory.service.impl.IdempotencyGuard;
+import com.example.inventory.service.impl.ReadCoalescer;
 import com.example.inventory.service.StockHistoryService;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
+import com.example.inventory.util.AdmissionClass;
+import com.example.inventory.util.Bulkhead;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@AdmissionControlled(AdmissionClass.READ)
 @RequestMapping("/api/inventory")
 public class InventoryController {
     
@@ -27,61 +44,81 @@ public class InventoryController {
     private final ProductService productService;
     private final WarehouseService warehouseService;
     private final StockHistoryService stockHistoryService;
+    private final InventoryCountService inventoryCountService;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final IdempotencyGuard idempotencyGuard;
+    private final ReadCoalescer readCoalescer;
 
     public InventoryController(InventoryService inventoryService,
                                ProductService productService,
                                WarehouseService warehouseService,
-                               StockHistoryService stockHistoryService) {
+                               StockHistoryService stockHistoryService,
+                               InventoryCountService inventoryCountService,
+                               BulkheadExecutor bulkheadExecutor,
+                               IdempotencyGuard idempotencyGuard,
+                               ReadCoalescer readCoalescer) {
         this.inventoryService = inventoryService;
         this.productService = productService;
         this.warehouseService = warehouseService;
         this.stockHistoryService = stockHistoryService;
+        this.inventoryCountService = inventoryCountService;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.idempotencyGuard = idempotencyGuard;
+        this.readCoalescer = readCoalescer;
     }
 
     // Create inventory
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping
-    public ResponseEntity<Inventory> createInventory(@RequestBody Inventory inventory) {
-        Inventory saved = inventoryService.createOrUpdateInventory(inventory);
-        return ResponseEntity.ok(saved);
+    public CompletableFuture<ResponseEntity<?>> createInventory(@RequestBody Inventory inventory) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, () -> {
+            Inventory saved = inventoryService.createOrUpdateInventory(inventory);
+            return ResponseEntity.ok(saved);
+        });
     }
 
     // Get all inventory
     @GetMapping
-    public ResponseEntity<List<Inventory>> getAll() {
-        return ResponseEntity.ok(inventoryService.getAll());
+    public CompletableFuture<ResponseEntity<?>> getAll(@SortDefault("id") Pageable pageable,
+                                                       @RequestParam(defaultValue = "false") boolean count) {
+        return readCoalescer.coalesce("inventory", ReadCoalescer.pageKey(pageable, count), () -> bulkheadExecutor.dispatch(Bulkhead.READ,
+                () -> ResponseEntity.ok(PageResponse.from(inventoryService.getPage(pageable, count)))));
     }
 
     // Get inventory by id
     @GetMapping("/{id}")
-    public ResponseEntity<Inventory> getById(@PathVariable Long id) {
-        return inventoryService.getById(id)
+    public CompletableFuture<ResponseEntity<?>> getById(@PathVariable Long id) {
+        return bulkheadExecutor.dispatch(Bulkhead.READ, () -> inventoryService.getById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     // Get inventory by product
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Inventory>> getByProduct(@PathVariable Long productId) {
-        return productService.getProductById(productId)
+    public CompletableFuture<ResponseEntity<?>> getByProduct(@PathVariable Long productId) {
+        return bulkheadExecutor.dispatch(Bulkhead.READ, () -> productService.getProductById(productId)
                 .map(inventoryService::getByProduct)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     // Get inventory by warehouse
     @GetMapping("/warehouse/{warehouseId}")
-    public ResponseEntity<List<Inventory>> getByWarehouse(@PathVariable Long warehouseId) {
-        return warehouseService.getWarehouseById(warehouseId)
+    public CompletableFuture<ResponseEntity<?>> getByWarehouse(@PathVariable Long warehouseId) {
+        return bulkheadExecutor.dispatch(Bulkhead.READ, () -> warehouseService.getWarehouseById(warehouseId)
                 .map(inventoryService::getByWarehouse)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     // Delete inventory
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        inventoryService.deleteById(id);
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<?>> delete(@PathVariable Long id) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, () -> {
+            inventoryService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // Stock adjustment request DTO
@@ -89,96 +126,182 @@ public class InventoryController {
         public Long productId;
         public Long warehouseId;
         public Integer quantity;
-        public String performedByEmail;
     }
 
     // Record Stock-In
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping("/stock-in")
-    public ResponseEntity<?> stockIn(@RequestBody StockAdjustmentRequest request) {
-        try {
-            if (request.quantity == null || request.quantity <= 0) {
-                return ResponseEntity.badRequest().body("Quantity must be a positive number");
-            }
-            
-            if (request.performedByEmail == null || request.performedByEmail.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Employee email is required");
-            }
+    public CompletableFuture<ResponseEntity<?>> stockIn(@RequestBody StockAdjustmentRequest request,
+                                                        @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                        @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/inventory/stock-in", request, () -> {
+            try {
+                if (actor == null) {
+                    return ResponseEntity.status(401).body("Authentication required");
+                }
 
-            Inventory updatedInventory = stockHistoryService.recordStockIn(
-                request.productId, 
-                request.warehouseId, 
-                request.quantity, 
-                request.performedByEmail.trim()
-            );
+                if (request.quantity == null || request.quantity <= 0) {
+                    return ResponseEntity.badRequest().body("Quantity must be a positive number");
+                }
 
-            return ResponseEntity.ok(updatedInventory);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
-        }
+                Inventory updatedInventory = stockHistoryService.recordStockIn(
+                    request.productId, 
+                    request.warehouseId, 
+                    request.quantity, 
+                    actor.getEmail()
+                );
+
+                return ResponseEntity.ok(updatedInventory);
+            } catch (DataAccessException | TransactionException e) {
+                // Database trouble is not the request's fault: a 500, and with an Idempotency-Key, retryable
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
+            }
+        }));
     }
 
     // Record Stock-Out
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping("/stock-out")
-    public ResponseEntity<?> stockOut(@RequestBody StockAdjustmentRequest request) {
-        try {
-            if (request.quantity == null || request.quantity <= 0) {
-                return ResponseEntity.badRequest().body("Quantity must be a positive number");
-            }
-            
-            if (request.performedByEmail == null || request.performedByEmail.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Employee email is required");
+    public CompletableFuture<ResponseEntity<?>> stockOut(@RequestBody StockAdjustmentRequest request,
+                                                         @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                         @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/inventory/stock-out", request, () -> {
+            try {
+                if (actor == null) {
+                    return ResponseEntity.status(401).body("Authentication required");
+                }
+
+                if (request.quantity == null || request.quantity <= 0) {
+                    return ResponseEntity.badRequest().body("Quantity must be a positive number");
+                }
+
+                Inventory updatedInventory = stockHistoryService.recordStockOut(
+                    request.productId, 
+                    request.warehouseId, 
+                    request.quantity, 
+                    actor.getEmail()
+                );
+
+                return ResponseEntity.ok(updatedInventory);
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (e.getMessage().contains("Insufficient stock")) {
+                    return ResponseEntity.status(409).body(e.getMessage());
+                }
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
             }
+        }));
+    }
+
+    public static class StockTransferRequest {
+        public Long productId;
+        public Long fromWarehouseId;
+        public Long toWarehouseId;
+        public Integer quantity;
+    }
 
-            Inventory updatedInventory = stockHistoryService.recordStockOut(
-                request.productId, 
-                request.warehouseId, 
-                request.quantity, 
-                request.performedByEmail.trim()
-            );
+    // Move stock between two warehouses: both sides commit together or not at all
+    @AdmissionControlled(AdmissionClass.MUTATION)
+    @PostMapping("/transfer")
+    public CompletableFuture<ResponseEntity<?>> transfer(@RequestBody StockTransferRequest request,
+                                                         @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                         @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/inventory/transfer", request, () -> {
+            try {
+                if (actor == null) {
+                    return ResponseEntity.status(401).body("Authentication required");
+                }
 
-            return ResponseEntity.ok(updatedInventory);
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("Insufficient stock")) {
-                return ResponseEntity.status(409).body(e.getMessage());
+                if (request.quantity == null || request.quantity <= 0) {
+                    return ResponseEntity.badRequest().body("Quantity must be a positive number");
+                }
+
+                StockTransferResult result = stockHistoryService.recordTransfer(
+                    request.productId,
+                    request.fromWarehouseId,
+                    request.toWarehouseId,
+                    request.quantity,
+                    actor.getEmail()
+                );
+
+                return ResponseEntity.ok(result);
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (e.getMessage().contains("Insufficient stock")) {
+                    return ResponseEntity.status(409).body(e.getMessage());
+                }
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
             }
+        }));
+    }
+
+    // Load a full or partial stock count for a warehouse from a "sku,quantity" CSV
+    @AdmissionControlled(AdmissionClass.BULK)
+    @PostMapping(value = "/counts/{warehouseId}", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<?> loadCounts(@PathVariable Long warehouseId,
+                                        @RequestParam(defaultValue = "false") boolean fullCount,
+                                        @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor,
+                                        InputStream csv) {
+        try {
+            if (actor == null) {
+                return ResponseEntity.status(401).body("Authentication required");
+            }
+            // The upload is read on the request thread, but the database work uses the report partition
+            return ResponseEntity.ok(bulkheadExecutor.callIn(Bulkhead.REPORT,
+                    () -> inventoryCountService.loadCounts(warehouseId, csv, fullCount, actor.getEmail())));
+        } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
         }
     }
 
     // Get stock history
+    @AdmissionControlled(AdmissionClass.REPORT)
     @GetMapping("/history")
-    public ResponseEntity<List<StockHistory>> getStockHistory() {
-        List<StockHistory> history = stockHistoryService.getAllStockHistory();
-        return ResponseEntity.ok(history);
+    public CompletableFuture<ResponseEntity<?>> getStockHistory(@SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+                                                                @RequestParam(defaultValue = "false") boolean count) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT,
+                () -> ResponseEntity.ok(PageResponse.from(stockHistoryService.getStockHistory(pageable, count))));
     }
 
     // Get stock history by product
+    @AdmissionControlled(AdmissionClass.REPORT)
     @GetMapping("/history/product/{productId}")
-    public ResponseEntity<List<StockHistory>> getStockHistoryByProduct(@PathVariable Long productId) {
-        try {
-            Product product = productService.getProductById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            List<StockHistory> history = stockHistoryService.getStockHistoryByProduct(product);
-            return ResponseEntity.ok(history);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(null);
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByProduct(@PathVariable Long productId,
+                                                                   @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Product product = productService.getProductById(productId)
+                        .orElseThrow(() -> new RuntimeException("Product not found"));
+                return ResponseEntity.ok(PageResponse.from(stockHistoryService.getStockHistoryByProduct(product, pageable)));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(null);
+            }
+        });
     }
 
     // Get stock history by warehouse
+    @AdmissionControlled(AdmissionClass.REPORT)
     @GetMapping("/history/warehouse/{warehouseId}")
-    public ResponseEntity<List<StockHistory>> getStockHistoryByWarehouse(@PathVariable Long warehouseId) {
-        try {
-            Warehouse warehouse = warehouseService.getWarehouseById(warehouseId)
-                    .orElseThrow(() -> new RuntimeException("Warehouse not found"));
-            List<StockHistory> history = stockHistoryService.getStockHistoryByWarehouse(warehouse);
-            return ResponseEntity.ok(history);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(null);
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByWarehouse(@PathVariable Long warehouseId,
+                                                                     @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Warehouse warehouse = warehouseService.getWarehouseById(warehouseId)
+                        .orElseThrow(() -> new RuntimeException("Warehouse not found"));
+                return ResponseEntity.ok(PageResponse.from(stockHistoryService.getStockHistoryByWarehouse(warehouse, pageable)));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(null);
+            }
+        });
     }
 }
@@ -0,0 +1,82 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.dto.PageResponse;
+import com.example.inventory.service.LedgerReconciliationService;
+import com.example.inventory.util.ReconciliationMode;
+import com.example.inventory.util.Role;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/ledger-reconciliations")
+public class LedgerController {
+
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    public LedgerController(LedgerReconciliationService ledgerReconciliationService) {
+        this.ledgerReconciliationService = ledgerReconciliationService;
+    }
+
+    // Start a reconciliation of inventory against stock history; poll the returned run for progress
+    @PostMapping
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "REPORT") ReconciliationMode mode,
+                                   @RequestParam(defaultValue = "true") boolean incremental,
+                                   @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ledgerReconciliationService.startReconciliation(mode, incremental));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Recent runs first
+    @GetMapping
+    public ResponseEntity<?> getRuns(@SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+                                     @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(PageResponse.from(ledgerReconciliationService.getRuns(pageable)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRun(@PathVariable Long id,
+                                    @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        return ledgerReconciliationService.getRun(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Discrepancies a run found, with what a repair did about each
+    @GetMapping("/{id}/discrepancies")
+    public ResponseEntity<?> getDiscrepancies(@PathVariable Long id,
+                                              @SortDefault("id") Pageable pageable,
+                                              @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(PageResponse.from(ledgerReconciliationService.getDiscrepancies(id, pageable)));
+    }
+
+    private static boolean isAdmin(AuthenticatedUser actor) {
+        return actor != null && actor.getRole() == Role.ADMIN;
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+}
@@ -1,25 +1,49 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.config.AdmissionControlled;
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.dto.ImportResult;
+import com.example.inventory.dto.PageResponse;
+import com.example.inventory.dto.ProductSearchHit;
 import com.example.inventory.entity.Product;
+import com.example.inventory.service.ProductImportService;
 import com.example.inventory.service.ProductService;
+import com.example.inventory.service.impl.ReadCoalescer;
+import com.example.inventory.util.AdmissionClass;
+import com.example.inventory.util.Bulkhead;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.HashMap;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     @Autowired
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final ReadCoalescer readCoalescer;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductImportService productImportService,
+                             BulkheadExecutor bulkheadExecutor,
+                             ReadCoalescer readCoalescer) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.readCoalescer = readCoalescer;
     }
 
     @PostMapping
@@ -28,25 +52,47 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
 
+    // Bulk catalog import; the CSV body is streamed and committed in chunks. An upload that
+    // breaks off midway answers 422 with the report of what was committed before it stopped.
+    @AdmissionControlled(AdmissionClass.BULK)
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<?> importProducts(InputStream csv) {
+        try {
+            ImportResult result = bulkheadExecutor.callIn(Bulkhead.REPORT, () -> productImportService.importProducts(csv));
+            return ResponseEntity.status(result.getStatus() == ImportResult.Status.STOPPED
+                    ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.OK).body(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public CompletableFuture<ResponseEntity<?>> getAllProducts(@SortDefault("id") Pageable pageable,
+                                                              @RequestParam(defaultValue = "false") boolean count) {
+        return readCoalescer.coalesce("products", ReadCoalescer.pageKey(pageable, count), () -> bulkheadExecutor.dispatch(Bulkhead.READ,
+                () -> ResponseEntity.ok(PageResponse.from(productService.getProducts(pageable, count)))));
+    }
+
+    // Ranked search by SKU prefix, name substring, category or supplier name
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(@RequestParam("q") String query,
+                                                                 @RequestParam(required = false) String category,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok(productService.searchProducts(query, category, boundedLimit));
     }
 
-    // Get all products for dropdown selection
+    // Products for dropdown selection, a page at a time; pickers over the whole catalog use /search
     @GetMapping("/dropdown")
-    public ResponseEntity<List<Map<String, Object>>> getProductsForDropdown() {
-        List<Product> products = productService.getAllProducts();
-        List<Map<String, Object>> dropdownData = products.stream()
+    public ResponseEntity<PageResponse<Map<String, Object>>> getProductsForDropdown(@SortDefault("id") Pageable pageable) {
+        return ResponseEntity.ok(PageResponse.from(productService.getProducts(pageable, false)
                 .map(product -> {
                     Map<String, Object> data = new HashMap<>();
                     data.put("id", product.getId());
                     data.put("name", product.getName());
                     data.put("sku", product.getSku());
                     return data;
-                })
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dropdownData);
+                })));
     }
 
     @GetMapping("/{id}")
@@ -63,6 +109,31 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    public static class ThresholdUpdateRequest {
+        // Exactly one of these selects the products
+        public String category;
+        public Long supplierId;
+        public List<Long> productIds;
+        // With a warehouse, sets that warehouse's override instead of the products' threshold; null clears it.
+        // Without one, minStockLevel is required.
+        public Long warehouseId;
+        public Integer minStockLevel;
+    }
+
+    // Sets low-stock thresholds for many products at once and re-evaluates only the alerts they affect
+    @AdmissionControlled(AdmissionClass.MUTATION)
+    @PatchMapping("/thresholds")
+    public CompletableFuture<ResponseEntity<?>> updateThresholds(@RequestBody ThresholdUpdateRequest request) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, () -> {
+            try {
+                return ResponseEntity.ok(productService.updateThresholds(request.category, request.supplierId,
+                        request.productIds, request.warehouseId, request.minStockLevel));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+            }
+        });
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProductById(id);
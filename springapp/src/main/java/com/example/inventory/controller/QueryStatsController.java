@@ -0,0 +1,54 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.service.impl.QueryStatsCollector;
+import com.example.inventory.util.Role;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/query-stats")
+public class QueryStatsController {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final QueryStatsCollector queryStatsCollector;
+
+    public QueryStatsController(QueryStatsCollector queryStatsCollector) {
+        this.queryStatsCollector = queryStatsCollector;
+    }
+
+    // Per-fingerprint statement statistics; sort by total, count, mean, max or slow
+    @GetMapping
+    public ResponseEntity<?> getStats(@RequestParam(defaultValue = "total") String sort,
+                                      @RequestParam(defaultValue = "50") int limit,
+                                      @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(queryStatsCollector.getStats(sort, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    // Clear the aggregates, e.g. before a load test
+    @DeleteMapping
+    public ResponseEntity<?> reset(
+            @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (!isAdmin(actor)) {
+            return forbidden();
+        }
+        queryStatsCollector.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    private static boolean isAdmin(AuthenticatedUser actor) {
+        return actor != null && actor.getRole() == Role.ADMIN;
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
+    }
+}
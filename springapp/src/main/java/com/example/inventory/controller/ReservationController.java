@@ -0,0 +1,110 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.config.AdmissionControlled;
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.entity.StockReservation;
+import com.example.inventory.service.StockReservationService;
+import com.example.inventory.service.impl.IdempotencyGuard;
+import com.example.inventory.util.AdmissionClass;
+import com.example.inventory.util.Bulkhead;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@RestController
+@AdmissionControlled(AdmissionClass.READ)
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private final StockReservationService reservationService;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final IdempotencyGuard idempotencyGuard;
+
+    public ReservationController(StockReservationService reservationService, BulkheadExecutor bulkheadExecutor,
+                                 IdempotencyGuard idempotencyGuard) {
+        this.reservationService = reservationService;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.idempotencyGuard = idempotencyGuard;
+    }
+
+    public static class ReservationRequest {
+        public Long productId;
+        public Long warehouseId;
+        public Integer quantity;
+        // Optional; reservations.default-ttl-seconds when left out
+        public Long ttlSeconds;
+    }
+
+    // Hold stock for a checkout; it stays on hand but is no longer available to others
+    @AdmissionControlled(AdmissionClass.MUTATION)
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> reserve(@RequestBody ReservationRequest request,
+                                                        @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                        @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/reservations", request,
+                handled(actor, () -> ResponseEntity.status(HttpStatus.CREATED).body(reservationService.reserve(
+                        request.productId, request.warehouseId, request.quantity, request.ttlSeconds, actor.getEmail())))));
+    }
+
+    // Turn the hold into a stock-out
+    @AdmissionControlled(AdmissionClass.MUTATION)
+    @PostMapping("/{id}/confirm")
+    public CompletableFuture<ResponseEntity<?>> confirm(@PathVariable Long id,
+                                                        @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return mutation(actor, () -> ResponseEntity.ok(reservationService.confirm(id, actor.getEmail())));
+    }
+
+    // Give the held stock back before the hold expires
+    @AdmissionControlled(AdmissionClass.MUTATION)
+    @PostMapping("/{id}/release")
+    public CompletableFuture<ResponseEntity<?>> release(@PathVariable Long id,
+                                                        @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return mutation(actor, () -> ResponseEntity.ok(reservationService.release(id)));
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> getById(@PathVariable Long id) {
+        return bulkheadExecutor.dispatch(Bulkhead.READ, () -> reservationService.getReservation(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> mutation(AuthenticatedUser actor, Supplier<ResponseEntity<?>> work) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, handled(actor, work));
+    }
+
+    // The work with its errors mapped to responses, so a replayed request gets the same answer as the first
+    private static Supplier<ResponseEntity<?>> handled(AuthenticatedUser actor, Supplier<ResponseEntity<?>> work) {
+        return () -> {
+            if (actor == null) {
+                return ResponseEntity.status(401).body("Authentication required");
+            }
+            try {
+                return work.get();
+            } catch (DataAccessException | TransactionException e) {
+                // Database trouble is not the request's fault: a 500, and with an Idempotency-Key, retryable
+                throw e;
+            } catch (IllegalStateException e) {
+                // Already confirmed, released or expired
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+            } catch (RuntimeException e) {
+                String message = String.valueOf(e.getMessage());
+                if (message.contains("Insufficient stock")) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", message));
+                }
+                if (message.startsWith("Reservation not found")) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", message));
+                }
+                return ResponseEntity.badRequest().body(Map.of("error", message));
+            }
+        };
+    }
+}
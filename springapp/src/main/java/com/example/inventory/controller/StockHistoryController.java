@@ -1,250 +1,345 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.config.AdmissionControlled;
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.dto.PageResponse;
 import com.example.inventory.entity.StockHistory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
 import com.example.inventory.service.StockHistoryService;
 import com.example.inventory.service.ProductService;
 import com.example.inventory.service.WarehouseService;
+import com.example.inventory.service.impl.IdempotencyGuard;
 import com.example.inventory.util.StockAdjustmentType;
+import com.example.inventory.util.AdmissionClass;
+import com.example.inventory.util.Bulkhead;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@AdmissionControlled(AdmissionClass.REPORT)
 @RequestMapping("/api/stock-history")
 public class StockHistoryController {
 
     private final StockHistoryService stockHistoryService;
     private final ProductService productService;
     private final WarehouseService warehouseService;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final IdempotencyGuard idempotencyGuard;
 
     @Autowired
     public StockHistoryController(StockHistoryService stockHistoryService,
                                  ProductService productService,
-                                 WarehouseService warehouseService) {
+                                 WarehouseService warehouseService,
+                                 BulkheadExecutor bulkheadExecutor,
+                                 IdempotencyGuard idempotencyGuard) {
         this.stockHistoryService = stockHistoryService;
         this.productService = productService;
         this.warehouseService = warehouseService;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.idempotencyGuard = idempotencyGuard;
     }
 
     // ========== CRUD Operations ==========
 
     // Create new stock history record
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping
-    public ResponseEntity<?> createStockHistory(@RequestBody StockHistory stockHistory) {
-        try {
-            StockHistory created = stockHistoryService.createStockHistory(stockHistory);
-            return ResponseEntity.status(HttpStatus.CREATED).body(created);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Failed to create stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> createStockHistory(@RequestBody StockHistory stockHistory,
+                                                                   @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                                   @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/stock-history", stockHistory, () -> {
+            try {
+                StockHistory created = stockHistoryService.createStockHistory(stockHistory);
+                return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            } catch (DataAccessException | TransactionException e) {
+                // Database trouble is not the request's fault: a 500, and with an Idempotency-Key, retryable
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Failed to create stock history: " + e.getMessage()));
+            }
+        }));
     }
 
     // Get all stock history records
     @GetMapping
-    public ResponseEntity<List<StockHistory>> getAllStockHistory() {
-        List<StockHistory> history = stockHistoryService.getAllStockHistory();
-        return ResponseEntity.ok(history);
+    public CompletableFuture<ResponseEntity<?>> getAllStockHistory(@SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+                                                                   @RequestParam(defaultValue = "false") boolean count) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT,
+                () -> ResponseEntity.ok(PageResponse.from(stockHistoryService.getStockHistory(pageable, count))));
     }
 
     // Get stock history by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getStockHistoryById(@PathVariable Long id) {
-        try {
-            Optional<StockHistory> history = stockHistoryService.getStockHistoryById(id);
-            if (history.isPresent()) {
-                return ResponseEntity.ok(history.get());
-            } else {
-                return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryById(@PathVariable Long id) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Optional<StockHistory> history = stockHistoryService.getStockHistoryById(id);
+                if (history.isPresent()) {
+                    return ResponseEntity.ok(history.get());
+                } else {
+                    return ResponseEntity.notFound().build();
+                }
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
             }
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+        });
     }
 
     // Update stock history record
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateStockHistory(@PathVariable Long id, @RequestBody StockHistory stockHistoryDetails) {
-        try {
-            StockHistory updated = stockHistoryService.updateStockHistory(id, stockHistoryDetails);
-            return ResponseEntity.ok(updated);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Failed to update stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> updateStockHistory(@PathVariable Long id, @RequestBody StockHistory stockHistoryDetails) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, () -> {
+            try {
+                StockHistory updated = stockHistoryService.updateStockHistory(id, stockHistoryDetails);
+                return ResponseEntity.ok(updated);
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.notFound().build();
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Failed to update stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Delete stock history record
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteStockHistory(@PathVariable Long id) {
-        try {
-            stockHistoryService.deleteStockHistory(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to delete stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> deleteStockHistory(@PathVariable Long id) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, () -> {
+            try {
+                stockHistoryService.deleteStockHistory(id);
+                return ResponseEntity.noContent().build();
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.notFound().build();
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to delete stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // ========== Query Operations ==========
 
     // Get stock history by product
     @GetMapping("/product/{productId}")
-    public ResponseEntity<?> getStockHistoryByProduct(@PathVariable Long productId) {
-        try {
-            Product product = productService.getProductById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-            List<StockHistory> history = stockHistoryService.getStockHistoryByProduct(product);
-            return ResponseEntity.ok(history);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByProduct(@PathVariable Long productId,
+                                                                   @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Product product = productService.getProductById(productId)
+                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByProduct(product, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.notFound().build();
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Get stock history by warehouse
     @GetMapping("/warehouse/{warehouseId}")
-    public ResponseEntity<?> getStockHistoryByWarehouse(@PathVariable Long warehouseId) {
-        try {
-            Warehouse warehouse = warehouseService.getWarehouseById(warehouseId)
-                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
-            List<StockHistory> history = stockHistoryService.getStockHistoryByWarehouse(warehouse);
-            return ResponseEntity.ok(history);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByWarehouse(@PathVariable Long warehouseId,
+                                                                     @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Warehouse warehouse = warehouseService.getWarehouseById(warehouseId)
+                        .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByWarehouse(warehouse, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.notFound().build();
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Get stock history by date range
     @GetMapping("/date-range")
-    public ResponseEntity<?> getStockHistoryByDateRange(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        try {
-            List<StockHistory> history = stockHistoryService.getStockHistoryByDateRange(startDate, endDate);
-            return ResponseEntity.ok(history);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByDateRange(
+                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                               @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByDateRange(startDate, endDate, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Get stock history by adjustment type
     @GetMapping("/type/{adjustmentType}")
-    public ResponseEntity<?> getStockHistoryByAdjustmentType(@PathVariable StockAdjustmentType adjustmentType) {
-        try {
-            List<StockHistory> history = stockHistoryService.getStockHistoryByAdjustmentType(adjustmentType);
-            return ResponseEntity.ok(history);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByAdjustmentType(@PathVariable StockAdjustmentType adjustmentType,
+                                                                          @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByAdjustmentType(adjustmentType, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Get stock history by employee email
     @GetMapping("/employee/{email}")
-    public ResponseEntity<?> getStockHistoryByPerformedByEmail(@PathVariable String email) {
-        try {
-            List<StockHistory> history = stockHistoryService.getStockHistoryByPerformedByEmail(email);
-            return ResponseEntity.ok(history);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByPerformedByEmail(@PathVariable String email,
+                                                                            @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByPerformedByEmail(email, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // Get stock history by product and warehouse combination
     @GetMapping("/product/{productId}/warehouse/{warehouseId}")
-    public ResponseEntity<?> getStockHistoryByProductAndWarehouse(
-            @PathVariable Long productId, @PathVariable Long warehouseId) {
-        try {
-            List<StockHistory> history = stockHistoryService.getStockHistoryByProductAndWarehouse(productId, warehouseId);
-            return ResponseEntity.ok(history);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByProductAndWarehouse(
+                               @PathVariable Long productId, @PathVariable Long warehouseId,
+                               @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                Slice<StockHistory> history = stockHistoryService.getStockHistoryByProductAndWarehouse(productId, warehouseId, pageable);
+                return ResponseEntity.ok(PageResponse.from(history));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
+    }
+
+    // Get both rows of an inter-warehouse transfer
+    @GetMapping("/transfer/{transferId}")
+    public CompletableFuture<ResponseEntity<?>> getStockHistoryByTransferId(@PathVariable String transferId) {
+        return bulkheadExecutor.dispatch(Bulkhead.REPORT, () -> {
+            try {
+                List<StockHistory> history = stockHistoryService.getStockHistoryByTransferId(transferId);
+                if (history.isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "Transfer not found with id: " + transferId));
+                }
+                return ResponseEntity.ok(history);
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to retrieve stock history: " + e.getMessage()));
+            }
+        });
     }
 
     // ========== Business Logic Operations ==========
 
     // Record Stock-In (alternative endpoint)
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping("/stock-in")
-    public ResponseEntity<?> recordStockIn(@RequestBody Map<String, Object> request) {
-        try {
-            Long productId = Long.valueOf(request.get("productId").toString());
-            Long warehouseId = Long.valueOf(request.get("warehouseId").toString());
-            Integer quantity = Integer.valueOf(request.get("quantity").toString());
-            String performedByEmail = request.get("performedByEmail").toString();
-
-            if (quantity <= 0) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Quantity must be a positive number"));
-            }
+    public CompletableFuture<ResponseEntity<?>> recordStockIn(@RequestBody Map<String, Object> request,
+                                                              @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                              @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/stock-history/stock-in", request, () -> {
+            try {
+                if (actor == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Authentication required"));
+                }
 
-            if (performedByEmail == null || performedByEmail.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Employee email is required"));
-            }
+                Long productId = Long.valueOf(request.get("productId").toString());
+                Long warehouseId = Long.valueOf(request.get("warehouseId").toString());
+                Integer quantity = Integer.valueOf(request.get("quantity").toString());
+
+                if (quantity <= 0) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Quantity must be a positive number"));
+                }
 
-            var result = stockHistoryService.recordStockIn(productId, warehouseId, quantity, performedByEmail.trim());
-            return ResponseEntity.ok(result);
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid numeric values"));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Internal server error: " + e.getMessage()));
-        }
+                var result = stockHistoryService.recordStockIn(productId, warehouseId, quantity, actor.getEmail());
+                return ResponseEntity.ok(result);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid numeric values"));
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Internal server error: " + e.getMessage()));
+            }
+        }));
     }
 
     // Record Stock-Out (alternative endpoint)
+    @AdmissionControlled(AdmissionClass.MUTATION)
     @PostMapping("/stock-out")
-    public ResponseEntity<?> recordStockOut(@RequestBody Map<String, Object> request) {
-        try {
-            Long productId = Long.valueOf(request.get("productId").toString());
-            Long warehouseId = Long.valueOf(request.get("warehouseId").toString());
-            Integer quantity = Integer.valueOf(request.get("quantity").toString());
-            String performedByEmail = request.get("performedByEmail").toString();
-
-            if (quantity <= 0) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Quantity must be a positive number"));
-            }
+    public CompletableFuture<ResponseEntity<?>> recordStockOut(@RequestBody Map<String, Object> request,
+                                                               @RequestHeader(name = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+                                                               @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        return bulkheadExecutor.dispatch(Bulkhead.MUTATION, idempotencyGuard.guard(idempotencyKey, actor, "POST /api/stock-history/stock-out", request, () -> {
+            try {
+                if (actor == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Authentication required"));
+                }
 
-            if (performedByEmail == null || performedByEmail.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Employee email is required"));
-            }
+                Long productId = Long.valueOf(request.get("productId").toString());
+                Long warehouseId = Long.valueOf(request.get("warehouseId").toString());
+                Integer quantity = Integer.valueOf(request.get("quantity").toString());
+
+                if (quantity <= 0) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Quantity must be a positive number"));
+                }
 
-            var result = stockHistoryService.recordStockOut(productId, warehouseId, quantity, performedByEmail.trim());
-            return ResponseEntity.ok(result);
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid numeric values"));
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("Insufficient stock")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+                var result = stockHistoryService.recordStockOut(productId, warehouseId, quantity, actor.getEmail());
+                return ResponseEntity.ok(result);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid numeric values"));
+            } catch (DataAccessException | TransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (e.getMessage().contains("Insufficient stock")) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+                }
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Internal server error: " + e.getMessage()));
             }
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Internal server error: " + e.getMessage()));
-        }
+        }));
     }
 }
@@ -1,13 +1,14 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.dto.PageResponse;
 import com.example.inventory.entity.Supplier;
 import com.example.inventory.service.SupplierService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/suppliers")
 public class SupplierController {
@@ -26,8 +27,9 @@ public class SupplierController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Supplier>> getAllSuppliers() {
-        return ResponseEntity.ok(supplierService.getAllSuppliers());
+    public ResponseEntity<PageResponse<Supplier>> getAllSuppliers(@SortDefault("id") Pageable pageable,
+                                                                  @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(PageResponse.from(supplierService.getSuppliers(pageable, count)));
     }
 
     @GetMapping("/{id}")
@@ -1,14 +1,20 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.config.JwtAuthFilter;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.dto.PageResponse;
 import com.example.inventory.entity.User;
 import com.example.inventory.repository.UserRepository;
 import com.example.inventory.service.UserService;
+import com.example.inventory.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -18,11 +24,13 @@ public class UserController {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
 
     @Autowired
-    public UserController(UserService userService, UserRepository userRepository) {
+    public UserController(UserService userService, UserRepository userRepository, JwtUtil jwtUtil) {
         this.userService = userService;
         this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
     }
 
     // Create user
@@ -61,8 +69,9 @@ public class UserController {
 
     // Get all users
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<PageResponse<User>> getAllUsers(@SortDefault("id") Pageable pageable,
+                                                          @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(PageResponse.from(userService.getUsers(pageable, count)));
     }
 
    
@@ -174,17 +183,40 @@ public class UserController {
                         .body(Map.of("error", "Invalid password"));
             }
 
-            // Return user details for successful login
-            return ResponseEntity.ok(Map.of(
-                    "id", user.getId(),
-                    "name", user.getName(),
-                    "email", user.getEmail(),
-                    "role", user.getRole(),
-                    "phoneNumber", user.getPhoneNumber()
-            ));
+            // Return user details and a signed access token for successful login
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", user.getId());
+            body.put("name", user.getName());
+            body.put("email", user.getEmail());
+            body.put("role", user.getRole());
+            body.put("phoneNumber", user.getPhoneNumber());
+            body.put("token", jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole()));
+            body.put("expiresIn", jwtUtil.getExpirationSeconds());
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Login failed: " + e.getMessage()));
         }
     }
+
+    // Exchange a still-valid token for a fresh one. The user is reloaded so a deleted account stops
+    // refreshing and a role change takes effect, instead of one login renewing forever.
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(
+            @RequestAttribute(name = JwtAuthFilter.AUTHENTICATED_USER, required = false) AuthenticatedUser actor) {
+        if (actor == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or expired token"));
+        }
+        Optional<User> current = userRepository.findById(actor.getId());
+        if (current.isEmpty() || !current.get().getEmail().equals(actor.getEmail())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "User no longer exists"));
+        }
+        User user = current.get();
+        return ResponseEntity.ok(Map.of(
+                "token", jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole()),
+                "expiresIn", jwtUtil.getExpirationSeconds()
+        ));
+    }
 }
@@ -1,15 +1,16 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.dto.PageResponse;
 import com.example.inventory.entity.Warehouse;
 import com.example.inventory.service.WarehouseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.stream.Collectors;
 
 @RestController
 // @CrossOrigin(origins="*")
@@ -30,24 +31,22 @@ public class WarehouseController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Warehouse>> getAllWarehouses() {
-        return ResponseEntity.ok(warehouseService.getAllWarehouses());
+    public ResponseEntity<PageResponse<Warehouse>> getAllWarehouses(@SortDefault("id") Pageable pageable,
+                                                                    @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(PageResponse.from(warehouseService.getWarehouses(pageable, count)));
     }
 
-    // Get all warehouses for dropdown selection
+    // Warehouses for dropdown selection, a page at a time
     @GetMapping("/dropdown")
-    public ResponseEntity<List<Map<String, Object>>> getWarehousesForDropdown() {
-        List<Warehouse> warehouses = warehouseService.getAllWarehouses();
-        List<Map<String, Object>> dropdownData = warehouses.stream()
+    public ResponseEntity<PageResponse<Map<String, Object>>> getWarehousesForDropdown(@SortDefault("id") Pageable pageable) {
+        return ResponseEntity.ok(PageResponse.from(warehouseService.getWarehouses(pageable, false)
                 .map(warehouse -> {
                     Map<String, Object> data = new HashMap<>();
                     data.put("id", warehouse.getId());
                     data.put("name", warehouse.getName());
                     data.put("location", warehouse.getLocation());
                     return data;
-                })
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dropdownData);
+                })));
     }
 
     @GetMapping("/{id}")
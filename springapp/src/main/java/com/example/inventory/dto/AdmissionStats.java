@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Admission counters for one endpoint class since startup
+@Data
+@AllArgsConstructor
+public class AdmissionStats {
+    private long admitted;
+    private long rejectedPerUser;
+    private long rejectedGlobal;
+    private int trackedPrincipals;
+}
@@ -0,0 +1,15 @@
+package com.example.inventory.dto;
+
+import com.example.inventory.entity.LowStockAlert;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of alert history, newest first; nextCursor fetches the page after it and is null on the last
+@Data
+@AllArgsConstructor
+public class AlertHistoryPage {
+    private List<LowStockAlert> content;
+    private String nextCursor;
+}
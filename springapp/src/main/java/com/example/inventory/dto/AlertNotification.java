@@ -0,0 +1,24 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One newly opened low-stock alert as sent to notification subscribers
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertNotification {
+    private Long alertId;
+    private Long productId;
+    private String sku;
+    private String productName;
+    private Long warehouseId;
+    private String warehouseName;
+    private Integer currentStock;
+    private Integer minStockLevel;
+    private String message;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+// Alert changes of a set-based re-evaluation of inventory rows against their thresholds
+@Data
+public class AlertReevaluation {
+    private long alertsOpened;
+    private long alertsUpdated;
+    private long alertsResolved;
+
+    public void add(AlertReevaluation other) {
+        alertsOpened += other.alertsOpened;
+        alertsUpdated += other.alertsUpdated;
+        alertsResolved += other.alertsResolved;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import com.example.inventory.util.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Caller identity taken from a verified JWT; no database lookup involved
+@Data
+@AllArgsConstructor
+public class AuthenticatedUser {
+    private Long id;
+    private String email;
+    private Role role;
+}
@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+// Outcome of a warehouse count load: rows applied, plus the stock and alert changes they caused
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class CountLoadResult extends ImportResult {
+    private long adjusted;
+    private long alertsOpened;
+    private long alertsUpdated;
+    private long alertsResolved;
+}
@@ -0,0 +1,50 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk CSV load. Only the first MAX_REPORTED_ERRORS row errors are kept.
+// A STOPPED load could not read past stoppedAtRow; the rows before it were processed and committed.
+@Data
+@NoArgsConstructor
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    public enum Status { COMPLETED, STOPPED }
+
+    private Status status = Status.COMPLETED;
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private Long stoppedAtRow;
+    private String stopReason;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void stop(long row, String reason) {
+        status = Status.STOPPED;
+        stoppedAtRow = row;
+        stopReason = reason;
+    }
+
+    public void addError(long row, String key, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, key, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String key;
+        private String message;
+    }
+}
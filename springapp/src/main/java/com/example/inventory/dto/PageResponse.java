@@ -0,0 +1,33 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Page-style envelope for collection endpoints.
+// totalElements/totalPages are only filled in when the caller asked for a count query.
+@Data
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private int numberOfElements;
+    private boolean hasNext;
+    private Long totalElements;
+    private Integer totalPages;
+
+    public static <T> PageResponse<T> from(Slice<T> slice) {
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (slice instanceof Page<T> page) {
+            totalElements = page.getTotalElements();
+            totalPages = page.getTotalPages();
+        }
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(),
+                slice.getNumberOfElements(), slice.hasNext(), totalElements, totalPages);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Lightweight search result served straight from the in-memory product index
+@Data
+@AllArgsConstructor
+public class ProductSearchHit {
+    private Long id;
+    private String sku;
+    private String name;
+    private String category;
+    private String supplierName;
+    private int score;
+}
@@ -0,0 +1,18 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Aggregate timings for one statement fingerprint since startup (or the last reset)
+@Data
+@AllArgsConstructor
+public class QueryStatsEntry {
+    private String fingerprint;
+    private long count;
+    private double totalMs;
+    private double meanMs;
+    private double maxMs;
+    private long rows;
+    private long slowCount;
+    private String slowestCaller;
+}
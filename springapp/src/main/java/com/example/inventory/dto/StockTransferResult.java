@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import com.example.inventory.entity.Inventory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Both inventory rows of a transfer after it committed, and the id linking its two history rows
+@Data
+@AllArgsConstructor
+public class StockTransferResult {
+    private String transferId;
+    private Inventory source;
+    private Inventory destination;
+}
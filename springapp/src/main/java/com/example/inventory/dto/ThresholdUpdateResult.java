@@ -0,0 +1,18 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk threshold update: products or warehouse overrides changed, and the alerts that followed.
+// With sharding the new product thresholds commit before the shards re-evaluate their alerts; shards whose
+// re-evaluation failed are listed so the caller knows their alerts wait for the next scan.
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ThresholdUpdateResult extends AlertReevaluation {
+    private long productsUpdated;
+    private long overridesUpdated;
+    private List<Integer> failedShards = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+package com.example.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Resolved low-stock alerts of one product in one warehouse, by the day they opened, kept after the
+// compaction has deleted the alerts themselves. Lives on the shard of its warehouse.
+@Entity
+@Table(name = "alert_daily_counts", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"alert_date", "product_id", "warehouse_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertDailyCount {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate alertDate;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Long alerts;
+
+    // Total time the alerts were open
+    @Column(nullable = false)
+    private Long openSeconds;
+}
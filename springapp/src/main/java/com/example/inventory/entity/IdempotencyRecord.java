@@ -0,0 +1,48 @@
+package com.example.inventory.entity;
+
+import com.example.inventory.util.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// The first response to an Idempotency-Key, replayed to retries of the same request until it expires.
+// Written with plain SQL by IdempotencyGuard; kept in the catalog database, not on the shards.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idempotency_keys_expires_idx", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    // SHA-256 of the user and the key they sent
+    @Id
+    @Column(length = 64)
+    private String keyHash;
+
+    // SHA-256 of the endpoint and request body, to refuse a key reused for another request
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+
+    private Integer responseStatus;
+
+    private String responseContentType;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Until when the request holding an IN_FLIGHT key is presumed alive
+    private LocalDateTime lockedUntil;
+}
@@ -26,4 +26,23 @@ public class Inventory {
 
     @Column(nullable = false)
     private Integer stockLevel;
+
+    // Held by ACTIVE reservations; on hand but not available. Written only by StockReservationServiceImpl's
+    // statements, never from the entity, so a save cannot overwrite a concurrent hold.
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private Integer reservedQuantity;
+
+    // Low-stock threshold of this warehouse, overriding Product.minStockLevel when set. Written only by
+    // PATCH /api/products/thresholds, never from the entity.
+    @Column(insertable = false, updatable = false)
+    private Integer minStockLevel;
+
+    public int getAvailable() {
+        return stockLevel - (reservedQuantity == null ? 0 : reservedQuantity);
+    }
+
+    // The threshold alerts are checked against
+    public Integer getEffectiveMinStockLevel() {
+        return minStockLevel != null ? minStockLevel : product == null ? null : product.getMinStockLevel();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Single row (id 1) per database: stock history up to this id has been reconciled or queued as dirty keys
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long historyId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
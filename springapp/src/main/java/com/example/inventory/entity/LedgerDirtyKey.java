@@ -0,0 +1,29 @@
+package com.example.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A (product, warehouse) whose inventory or history was written outside a stock movement, so the next
+// incremental reconciliation checks it. The version changes on every mark; see LedgerDirtyKeys.
+@Entity
+@Table(name = "ledger_dirty_keys", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "warehouse_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerDirtyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Long version;
+}
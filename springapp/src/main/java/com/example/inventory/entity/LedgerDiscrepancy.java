@@ -0,0 +1,46 @@
+package com.example.inventory.entity;
+
+import com.example.inventory.util.DiscrepancyResolution;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// An inventory row whose stock level differed from the net of its stock history, as a run found it.
+// Lives on the shard of its warehouse; plain ids rather than associations, since rows may be gone by now.
+@Entity
+@Table(name = "ledger_discrepancies", indexes = {
+        @Index(name = "ledger_discrepancies_run_idx", columnList = "run_id, product_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long runId;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long warehouseId;
+
+    // Null when there is history but no inventory row
+    private Long inventoryId;
+
+    private Integer stockLevel;
+
+    @Column(nullable = false)
+    private Long ledgerNet;
+
+    @Enumerated(EnumType.STRING)
+    private DiscrepancyResolution resolution;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,52 @@
+package com.example.inventory.entity;
+
+import com.example.inventory.util.ReconciliationMode;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One reconciliation of inventory against the stock history; progress counters are updated as key ranges finish
+@Entity
+@Table(name = "ledger_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationMode mode;
+
+    // Checks only keys changed since the last checkpoint; shards without one are scanned in full
+    @Column(nullable = false)
+    private Boolean incremental;
+
+    // RUNNING, COMPLETED or FAILED
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private Integer ranges;
+
+    @Column(nullable = false)
+    private Integer rangesDone;
+
+    @Column(nullable = false)
+    private Long discrepancies;
+
+    @Column(nullable = false)
+    private Long repaired;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -5,9 +5,11 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+// At most one unresolved alert per product and warehouse, enforced by a partial unique index (see AlertSchema).
+// Resolved alerts past alerts.retention-days are compacted into AlertDailyCount.
 @Entity
-@Table(name = "low_stock_alerts", uniqueConstraints = {
-		@UniqueConstraint(columnNames = {"product_id", "warehouse_id", "resolved"})
+@Table(name = "low_stock_alerts", indexes = {
+		@Index(name = "low_stock_alerts_history_idx", columnList = "created_at, id")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,50 @@
+package com.example.inventory.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A stock or alert change waiting for delivery to the outbox sinks. Written by OutboxWriter in the
+// transaction of the change and deleted once every sink has taken it; serialized as-is for the sinks.
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "outbox_events_key_idx", columnList = "event_key, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Events with the same key are delivered in id order, e.g. "inventory:<productId>:<warehouseId>"
+    @Column(name = "event_key", nullable = false)
+    private String key;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String type;
+
+    @JsonRawValue
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @JsonIgnore
+    @Column(length = 1000)
+    private String lastError;
+}
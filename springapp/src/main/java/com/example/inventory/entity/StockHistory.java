@@ -7,7 +7,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_history")
+// Covers the ledger sums of LedgerReconciliationServiceImpl, which then read key ranges from the index alone
+@Table(name = "stock_history", indexes = {
+        @Index(name = "stock_history_ledger_idx", columnList = "product_id, warehouse_id, adjustment_type, adjustment_quantity"),
+        @Index(name = "stock_history_transfer_idx", columnList = "transfer_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,4 +38,8 @@ public class StockHistory {
 
     // Email or identifier of the employee who performed this action
     private String performedByEmail;
+
+    // Shared by the REMOVE and ADD rows of one inter-warehouse transfer; null for other movements
+    @Column(length = 36)
+    private String transferId;
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.inventory.entity;
+
+import com.example.inventory.util.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A hold on stock of one product in one warehouse, counted in Inventory.reservedQuantity while ACTIVE.
+// Lives on the shard of its warehouse, with plain ids like the other per-shard bookkeeping.
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "stock_reservations_status_idx", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    private String reservedByEmail;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // When it was confirmed, released or expired
+    private LocalDateTime endedAt;
+}
@@ -0,0 +1,11 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.AlertDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AlertDailyCountRepository extends JpaRepository<AlertDailyCount, Long> {
+    List<AlertDailyCount> findByAlertDateBetween(LocalDate from, LocalDate to);
+}
@@ -3,13 +3,36 @@ package com.example.inventory.repository;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByProductAndWarehouse(Product product, Warehouse warehouse);
+
+    // SELECT ... FOR UPDATE: stock movements read-modify-write the level, so concurrent ones must queue
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.product = :product and i.warehouse = :warehouse")
+    Optional<Inventory> findForUpdate(Product product, Warehouse warehouse);
+
+    // Locked in id order, like any other statement locking several rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.id in :ids order by i.id")
+    List<Inventory> findAllForUpdate(Collection<Long> ids);
+
+    // Ids only, so no row enters the persistence context before it is locked
+    @Query("select i.id from Inventory i where i.product.id = :productId and i.warehouse.id in :warehouseIds")
+    List<Long> findIdsByProductIdAndWarehouseIds(Long productId, Collection<Long> warehouseIds);
     List<Inventory> findByProduct(Product product);
     List<Inventory> findByWarehouse(Warehouse warehouse);
+    Slice<Inventory> findAllBy(Pageable pageable);
+    boolean existsByProductId(Long productId);
+    boolean existsByWarehouseId(Long warehouseId);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.LedgerDiscrepancy;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LedgerDiscrepancyRepository extends JpaRepository<LedgerDiscrepancy, Long> {
+    Slice<LedgerDiscrepancy> findByRunId(Long runId, Pageable pageable);
+
+    // Keyset batches of one run's key range, for repairs
+    List<LedgerDiscrepancy> findByRunIdAndProductIdBetweenAndIdGreaterThanOrderById(Long runId, Long fromProductId,
+                                                                                   Long toProductId, Long afterId, Limit limit);
+}
@@ -0,0 +1,10 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.LedgerRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerRunRepository extends JpaRepository<LedgerRun, Long> {
+    Slice<LedgerRun> findAllBy(Pageable pageable);
+}
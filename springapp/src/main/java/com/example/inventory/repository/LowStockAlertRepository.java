@@ -3,13 +3,32 @@ package com.example.inventory.repository;
 import com.example.inventory.entity.LowStockAlert;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Long> {
-	List<LowStockAlert> findByResolvedFalse();
 	List<LowStockAlert> findByProductAndWarehouseAndResolved(Product product, Warehouse warehouse, Boolean resolved);
+	Slice<LowStockAlert> findAllBy(Pageable pageable);
+	Slice<LowStockAlert> findByResolvedFalse(Pageable pageable);
+	Page<LowStockAlert> findPageByResolvedFalse(Pageable pageable);
+
+	// Keyset page of the history, newest first: alerts before (beforeCreatedAt, beforeId), or the newest when null
+	@Query("select a from LowStockAlert a where (:productId is null or a.product.id = :productId) "
+			+ "and (:warehouseId is null or a.warehouse.id = :warehouseId) and (:resolved is null or a.resolved = :resolved) "
+			+ "and (cast(:beforeCreatedAt as LocalDateTime) is null or a.createdAt < :beforeCreatedAt "
+			+ "or (a.createdAt = :beforeCreatedAt and a.id < :beforeId)) "
+			+ "order by a.createdAt desc, a.id desc")
+	List<LowStockAlert> findHistory(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId,
+									@Param("resolved") Boolean resolved, @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+									@Param("beforeId") Long beforeId, Limit limit);
 }
 
 
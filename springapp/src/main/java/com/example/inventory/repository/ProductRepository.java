@@ -1,11 +1,30 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findBySku(String sku);
     boolean existsBySku(String sku);
+    Slice<Product> findAllBy(Pageable pageable);
+
+    @Query("select p.sku from Product p where p.sku in :skus")
+    Set<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    @Query("select p from Product p left join fetch p.supplier where p.sku in :skus")
+    List<Product> findBySkuInWithSupplier(@Param("skus") Collection<String> skus);
+
+    // Used by product search until the in-memory index has finished loading; q must have its LIKE wildcards escaped with '\'
+    @Query("select p from Product p where (lower(p.sku) like concat(:q, '%') escape '\\' or lower(p.name) like concat('%', :q, '%') escape '\\') "
+            + "and (:category is null or lower(p.category) = :category) order by p.sku")
+    List<Product> searchBySkuPrefixOrName(@Param("q") String q, @Param("category") String category, Pageable pageable);
 }
\ No newline at end of file
@@ -4,16 +4,22 @@ import com.example.inventory.entity.StockHistory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
 import com.example.inventory.util.StockAdjustmentType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface StockHistoryRepository extends JpaRepository<StockHistory, Long> {
-    List<StockHistory> findByProduct(Product product);
-    List<StockHistory> findByWarehouse(Warehouse warehouse);
-    List<StockHistory> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
-    List<StockHistory> findByAdjustmentType(StockAdjustmentType adjustmentType);
-    List<StockHistory> findByPerformedByEmail(String email);
-    List<StockHistory> findByProductIdAndWarehouseId(Long productId, Long warehouseId);
+    Slice<StockHistory> findByProduct(Product product, Pageable pageable);
+    Slice<StockHistory> findByWarehouse(Warehouse warehouse, Pageable pageable);
+    Slice<StockHistory> findByTimestampBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+    Slice<StockHistory> findByAdjustmentType(StockAdjustmentType adjustmentType, Pageable pageable);
+    Slice<StockHistory> findByPerformedByEmail(String email, Pageable pageable);
+    Slice<StockHistory> findByProductIdAndWarehouseId(Long productId, Long warehouseId, Pageable pageable);
+    List<StockHistory> findByTransferIdOrderById(String transferId);
+    Slice<StockHistory> findAllBy(Pageable pageable);
+    boolean existsByProductId(Long productId);
+    boolean existsByWarehouseId(Long warehouseId);
 }
\ No newline at end of file
@@ -1,11 +1,21 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.entity.Supplier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     Optional<Supplier> findByName(String name);
     boolean existsByName(String name);
+    Slice<Supplier> findAllBy(Pageable pageable);
+
+    @Query("select s.id from Supplier s where s.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
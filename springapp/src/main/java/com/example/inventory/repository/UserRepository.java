@@ -1,6 +1,8 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
@@ -8,4 +10,5 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    Slice<User> findAllBy(Pageable pageable);
 }
\ No newline at end of file
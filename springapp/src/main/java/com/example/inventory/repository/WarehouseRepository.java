@@ -1,8 +1,11 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.entity.Warehouse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
     boolean existsByName(String name);
+    Slice<Warehouse> findAllBy(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.CountLoadResult;
+
+import java.io.InputStream;
+
+public interface InventoryCountService {
+    // Sets stock levels for one warehouse from a "sku,quantity" CSV (header row required).
+    // With fullCount, products stocked in the warehouse but missing from the file are counted as zero.
+    CountLoadResult loadCounts(Long warehouseId, InputStream csv, boolean fullCount, String performedByEmail);
+}
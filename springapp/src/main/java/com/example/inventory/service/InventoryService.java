@@ -4,6 +4,8 @@ package com.example.inventory.service;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,5 +17,6 @@ public interface InventoryService {
     List<Inventory> getByProduct(Product product);
     List<Inventory> getByWarehouse(Warehouse warehouse);
     List<Inventory> getAll();
+    Slice<Inventory> getPage(Pageable pageable, boolean withCount);
     void deleteById(Long id);
 }
@@ -0,0 +1,21 @@
+package com.example.inventory.service;
+
+import com.example.inventory.entity.LedgerDiscrepancy;
+import com.example.inventory.entity.LedgerRun;
+import com.example.inventory.util.ReconciliationMode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+
+public interface LedgerReconciliationService {
+    // Starts a run in the background and returns it as RUNNING; one run at a time per instance.
+    // Incremental runs check only keys changed since the last checkpoint.
+    LedgerRun startReconciliation(ReconciliationMode mode, boolean incremental);
+
+    Optional<LedgerRun> getRun(Long id);
+
+    Slice<LedgerRun> getRuns(Pageable pageable);
+
+    Slice<LedgerDiscrepancy> getDiscrepancies(Long runId, Pageable pageable);
+}
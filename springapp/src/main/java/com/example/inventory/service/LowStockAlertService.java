@@ -1,18 +1,32 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.AlertHistoryPage;
+import com.example.inventory.entity.AlertDailyCount;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.LowStockAlert;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface LowStockAlertService {
 	LowStockAlert createAlert(Product product, Warehouse warehouse, int currentStock, Integer minStockLevel, String message);
 	void resolveAlert(Long alertId);
 	void resolveAlertsFor(Product product, Warehouse warehouse);
-	List<LowStockAlert> getActiveAlerts();
-	List<LowStockAlert> getAllAlerts();
+	Slice<LowStockAlert> getActiveAlerts(Pageable pageable, boolean withCount);
+	Slice<LowStockAlert> getAlerts(Pageable pageable, boolean withCount);
+
+	// Newest first, continuing after the cursor of the previous page; filters are optional
+	AlertHistoryPage getAlertHistory(Long productId, Long warehouseId, Boolean resolved, String cursor, int size);
+
+	// Per-day counts of the alerts the compaction has removed
+	List<AlertDailyCount> getDailyCounts(LocalDate from, LocalDate to);
+
+	// Rolls resolved alerts past the retention into daily counts; returns the number of alerts removed
+	long compactResolvedAlerts();
 
 	// Scans all inventory rows and creates alerts as needed
 	void scanAndGenerateAlerts();
@@ -0,0 +1,13 @@
+package com.example.inventory.service;
+
+import com.example.inventory.entity.OutboxEvent;
+
+import java.util.List;
+
+// Destination for outbox events. A batch holds events of many keys, in id order; it counts as delivered
+// only when deliver returns, and is retried whole otherwise, so receivers should skip event ids they have seen.
+public interface OutboxSink {
+	String name();
+
+	void deliver(List<OutboxEvent> events) throws Exception;
+}
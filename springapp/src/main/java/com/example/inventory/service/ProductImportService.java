@@ -0,0 +1,10 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.ImportResult;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    // Streams a CSV catalog (header row required: sku,name[,category,unit,price,description,supplierId,minStockLevel])
+    ImportResult importProducts(InputStream csv);
+}
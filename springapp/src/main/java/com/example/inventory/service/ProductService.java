@@ -1,6 +1,10 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.ProductSearchHit;
+import com.example.inventory.dto.ThresholdUpdateResult;
 import com.example.inventory.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +14,12 @@ public interface ProductService {
     Product updateProduct(Long id, Product updatedProduct);
     Optional<Product> getProductBySku(String sku);
     Optional<Product> getProductById(Long id);
-    List<Product> getAllProducts();
+    Slice<Product> getProducts(Pageable pageable, boolean withCount);
+    List<ProductSearchHit> searchProducts(String query, String category, int limit);
     void deleteProductById(Long id);
+
+    // Sets the low-stock threshold of the products in one category, of one supplier or with the given ids
+    // (exactly one selector), or their override in one warehouse, and re-evaluates the affected alerts
+    ThresholdUpdateResult updateThresholds(String category, Long supplierId, List<Long> productIds,
+                                           Long warehouseId, Integer minStockLevel);
 }
@@ -1,10 +1,13 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.StockTransferResult;
 import com.example.inventory.entity.StockHistory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.util.StockAdjustmentType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,7 +16,7 @@ import java.util.Optional;
 public interface StockHistoryService {
     // CRUD Operations
     StockHistory createStockHistory(StockHistory stockHistory);
-    List<StockHistory> getAllStockHistory();
+    Slice<StockHistory> getStockHistory(Pageable pageable, boolean withCount);
     Optional<StockHistory> getStockHistoryById(Long id);
     StockHistory updateStockHistory(Long id, StockHistory stockHistoryDetails);
     void deleteStockHistory(Long id);
@@ -21,12 +24,14 @@ public interface StockHistoryService {
     // Business Logic Operations
     Inventory recordStockIn(Long productId, Long warehouseId, Integer quantity, String performedByEmail);
     Inventory recordStockOut(Long productId, Long warehouseId, Integer quantity, String performedByEmail);
+    StockTransferResult recordTransfer(Long productId, Long fromWarehouseId, Long toWarehouseId, Integer quantity, String performedByEmail);
     
-    // Query Operations
-    List<StockHistory> getStockHistoryByProduct(Product product);
-    List<StockHistory> getStockHistoryByWarehouse(Warehouse warehouse);
-    List<StockHistory> getStockHistoryByDateRange(LocalDateTime startDate, LocalDateTime endDate);
-    List<StockHistory> getStockHistoryByAdjustmentType(StockAdjustmentType adjustmentType);
-    List<StockHistory> getStockHistoryByPerformedByEmail(String email);
-    List<StockHistory> getStockHistoryByProductAndWarehouse(Long productId, Long warehouseId);
+    // Query Operations, a page at a time
+    Slice<StockHistory> getStockHistoryByProduct(Product product, Pageable pageable);
+    Slice<StockHistory> getStockHistoryByWarehouse(Warehouse warehouse, Pageable pageable);
+    Slice<StockHistory> getStockHistoryByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Slice<StockHistory> getStockHistoryByAdjustmentType(StockAdjustmentType adjustmentType, Pageable pageable);
+    Slice<StockHistory> getStockHistoryByPerformedByEmail(String email, Pageable pageable);
+    Slice<StockHistory> getStockHistoryByProductAndWarehouse(Long productId, Long warehouseId, Pageable pageable);
+    List<StockHistory> getStockHistoryByTransferId(String transferId);
 }
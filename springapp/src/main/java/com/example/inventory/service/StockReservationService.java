@@ -0,0 +1,13 @@
+package com.example.inventory.service;
+
+import com.example.inventory.entity.StockReservation;
+
+import java.util.Optional;
+
+public interface StockReservationService {
+    // ttlSeconds may be null for the configured default
+    StockReservation reserve(Long productId, Long warehouseId, Integer quantity, Long ttlSeconds, String reservedByEmail);
+    StockReservation confirm(Long reservationId, String performedByEmail);
+    StockReservation release(Long reservationId);
+    Optional<StockReservation> getReservation(Long reservationId);
+}
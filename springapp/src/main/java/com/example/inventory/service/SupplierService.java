@@ -1,6 +1,8 @@
 package com.example.inventory.service;
 
 import com.example.inventory.entity.Supplier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +13,6 @@ public interface SupplierService {
     Optional<Supplier> getSupplierByName(String name);
     Optional<Supplier> getSupplierById(Long id);
     List<Supplier> getAllSuppliers();
+    Slice<Supplier> getSuppliers(Pageable pageable, boolean withCount);
     void deleteSupplierById(Long id);
 }
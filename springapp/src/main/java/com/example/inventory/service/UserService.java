@@ -1,6 +1,8 @@
 package com.example.inventory.service;
 
 import com.example.inventory.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +12,7 @@ public interface UserService {
     User updateUser(Long id, User updatedUser);
     Optional<User> getUserByEmail(String email);
     List<User> getAllUsers();
+    Slice<User> getUsers(Pageable pageable, boolean withCount);
     Optional<User> getUserById(Long id);
     void deleteUserById(Long id);
 }
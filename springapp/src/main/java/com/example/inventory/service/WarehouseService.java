@@ -1,14 +1,15 @@
 package com.example.inventory.service;
 
 import com.example.inventory.entity.Warehouse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface WarehouseService {
     Warehouse createWarehouse(Warehouse warehouse);
     Optional<Warehouse> getWarehouseById(Long id);
-    List<Warehouse> getAllWarehouses();
+    Slice<Warehouse> getWarehouses(Pageable pageable, boolean withCount);
     void deleteWarehouseById(Long id);
     Warehouse updateWarehouse(Long id, Warehouse warehouse);
 }
@@ -0,0 +1,104 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.AdmissionProperties;
+import com.example.inventory.dto.AdmissionStats;
+import com.example.inventory.util.AdmissionClass;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-principal and global token buckets for each endpoint class.
+ *
+ * A request must get a token from its principal's bucket and then from the class-wide bucket.
+ * The principal is checked first so one noisy client is turned away before it drains the shared
+ * budget. Buckets are created on demand and dropped again once they have refilled completely.
+ */
+@Component
+public class AdmissionControl {
+
+    private final Map<AdmissionClass, ClassLimiter> limiters = new EnumMap<>(AdmissionClass.class);
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        for (AdmissionClass admissionClass : AdmissionClass.values()) {
+            AdmissionProperties.Limit limit = properties.getClasses().get(admissionClass);
+            ClassLimiter limiter = new ClassLimiter(limit == null ? new AdmissionProperties.Limit() : limit);
+            limiters.put(admissionClass, limiter);
+            String tag = admissionClass.name().toLowerCase();
+            registerCounter(meterRegistry, tag, "admitted", limiter.admitted);
+            registerCounter(meterRegistry, tag, "rejected_user", limiter.rejectedPerUser);
+            registerCounter(meterRegistry, tag, "rejected_global", limiter.rejectedGlobal);
+        }
+    }
+
+    private static void registerCounter(MeterRegistry registry, String admissionClass, String outcome, LongAdder adder) {
+        FunctionCounter.builder("admission.requests", adder, LongAdder::sum)
+                .tag("class", admissionClass)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // Returns 0 if the request is admitted, otherwise the nanos the caller should wait before retrying
+    public long tryAdmit(AdmissionClass admissionClass, String principal) {
+        return limiters.get(admissionClass).tryAdmit(principal, System.nanoTime());
+    }
+
+    public Map<AdmissionClass, AdmissionStats> getStats() {
+        Map<AdmissionClass, AdmissionStats> stats = new EnumMap<>(AdmissionClass.class);
+        limiters.forEach((admissionClass, limiter) -> stats.put(admissionClass, limiter.stats()));
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 60000L)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ClassLimiter limiter : limiters.values()) {
+            limiter.perPrincipal.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private static final class ClassLimiter {
+        private final AdmissionProperties.Limit limit;
+        private final TokenBucket global;
+        private final ConcurrentHashMap<String, TokenBucket> perPrincipal = new ConcurrentHashMap<>();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejectedPerUser = new LongAdder();
+        private final LongAdder rejectedGlobal = new LongAdder();
+
+        ClassLimiter(AdmissionProperties.Limit limit) {
+            this.limit = limit;
+            this.global = limit.getGlobalRate() > 0 ? new TokenBucket(limit.getGlobalRate(), limit.getGlobalBurst()) : null;
+        }
+
+        long tryAdmit(String principal, long now) {
+            if (limit.getPerUserRate() > 0) {
+                TokenBucket bucket = perPrincipal.computeIfAbsent(principal,
+                        key -> new TokenBucket(limit.getPerUserRate(), limit.getPerUserBurst()));
+                long wait = bucket.tryAcquire(now);
+                if (wait > 0) {
+                    rejectedPerUser.increment();
+                    return wait;
+                }
+            }
+            if (global != null) {
+                long wait = global.tryAcquire(now);
+                if (wait > 0) {
+                    rejectedGlobal.increment();
+                    return wait;
+                }
+            }
+            admitted.increment();
+            return 0;
+        }
+
+        AdmissionStats stats() {
+            return new AdmissionStats(admitted.sum(), rejectedPerUser.sum(), rejectedGlobal.sum(), perPrincipal.size());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.AlertNotification;
+import com.example.inventory.dto.AlertReevaluation;
+import com.example.inventory.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set-based counterpart of LowStockAlertService.checkInventoryAndAlert: brings the alerts of many
+ * inventory rows in line with their stock and thresholds in one statement, opening, updating and
+ * resolving alerts and appending their outbox events together.
+ *
+ * Rows are chosen by a filter over inventory i and products p, and run against their effective
+ * threshold (the warehouse override, else the product's). The rows are locked in id order first, the
+ * order stock movements lock them in, and then their outbox keys, so this cannot deadlock with either.
+ */
+@Component
+public class AlertReevaluator {
+
+    // Outbox payload of an alert, matching the one LowStockAlertServiceImpl writes
+    private static final String ALERT_COLUMNS = "a.id, a.product_id, a.warehouse_id, a.current_stock, a.min_stock_level, "
+            + "a.message, a.created_at, a.resolved_at";
+    private static final String ALERT_EVENT = "json_build_object('alertId', id, 'productId', product_id, "
+            + "'warehouseId', warehouse_id, 'currentStock', current_stock, 'minStockLevel', min_stock_level, "
+            + "'message', message, 'createdAt', created_at, 'resolvedAt', resolved_at)";
+    private static final String MESSAGE = "left('Low stock: ' || f.product_name || ' @ ' || f.warehouse_name "
+            + "|| ' (' || f.stock_level || '/' || f.threshold || ')', 255)";
+    private static final String SAME_KEY = "a.product_id = f.product_id AND a.warehouse_id = f.warehouse_id AND a.resolved = false";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxWriter outboxWriter;
+    private final LowStockNotifier lowStockNotifier;
+    private final MeterRegistry meterRegistry;
+
+    public AlertReevaluator(JdbcTemplate jdbcTemplate, OutboxWriter outboxWriter, LowStockNotifier lowStockNotifier,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxWriter = outboxWriter;
+        this.lowStockNotifier = lowStockNotifier;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Runs in the caller's transaction on the shard holding the rows
+    public AlertReevaluation reevaluate(String inventoryFilter, Object... args) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Alerts must be re-evaluated in the transaction of their change");
+        }
+        String rows = "FROM inventory i JOIN products p ON p.id = i.product_id WHERE " + inventoryFilter;
+        jdbcTemplate.query("SELECT i.id " + rows + " ORDER BY i.id FOR UPDATE OF i", rs -> { }, args);
+        outboxWriter.lockInventoryKeyPairs("SELECT i.product_id, i.warehouse_id " + rows, args);
+
+        StringBuilder statement = new StringBuilder("WITH affected AS (SELECT i.product_id, i.warehouse_id, i.stock_level, "
+                + "coalesce(i.min_stock_level, p.min_stock_level) AS threshold, p.sku, p.name AS product_name, "
+                + "w.name AS warehouse_name FROM inventory i JOIN products p ON p.id = i.product_id "
+                + "JOIN warehouses w ON w.id = i.warehouse_id WHERE " + inventoryFilter + "), "
+                + "resolved AS (UPDATE low_stock_alerts a SET resolved = true, resolved_at = now() FROM affected f "
+                + "WHERE " + SAME_KEY + " AND (f.threshold IS NULL OR f.stock_level >= f.threshold) RETURNING " + ALERT_COLUMNS + "), "
+                + "updated AS (UPDATE low_stock_alerts a SET current_stock = f.stock_level, min_stock_level = f.threshold, "
+                + "message = " + MESSAGE + " FROM affected f WHERE " + SAME_KEY + " AND f.stock_level < f.threshold "
+                + "AND (a.current_stock <> f.stock_level OR a.min_stock_level IS DISTINCT FROM f.threshold) RETURNING a.id), "
+                // Same snapshot as the updates above, which touch only alerts of rows this does not open one for
+                + "opened AS (INSERT INTO low_stock_alerts "
+                + "(product_id, warehouse_id, current_stock, min_stock_level, resolved, created_at, message) "
+                + "SELECT f.product_id, f.warehouse_id, f.stock_level, f.threshold, false, now(), " + MESSAGE + " FROM affected f "
+                + "WHERE f.stock_level < f.threshold AND NOT EXISTS (SELECT 1 FROM low_stock_alerts a WHERE " + SAME_KEY + ") "
+                + "RETURNING id, product_id, warehouse_id, current_stock, min_stock_level, message, created_at, resolved_at)");
+        String resolvedEvents = outboxWriter.eventsFrom("resolved", "ALERT_RESOLVED", ALERT_EVENT);
+        if (resolvedEvents != null) {
+            statement.append(", resolved_events AS (").append(resolvedEvents).append("), opened_events AS (")
+                    .append(outboxWriter.eventsFrom("opened", "ALERT_OPENED", ALERT_EVENT)).append(")");
+        }
+        // One row per opened alert, or a single row without one; every row carries the counts
+        statement.append(" SELECT (SELECT count(*) FROM resolved), (SELECT count(*) FROM updated), "
+                + "(SELECT count(*) FROM opened), o.id, o.product_id, f.sku, f.product_name, o.warehouse_id, f.warehouse_name, "
+                + "o.current_stock, o.min_stock_level, o.message, o.created_at FROM (SELECT 1) one "
+                + "LEFT JOIN (opened o JOIN affected f ON f.product_id = o.product_id AND f.warehouse_id = o.warehouse_id) ON true");
+
+        AlertReevaluation result = new AlertReevaluation();
+        List<AlertNotification> opened = new ArrayList<>();
+        jdbcTemplate.query(statement.toString(), rs -> {
+            result.setAlertsResolved(rs.getLong(1));
+            result.setAlertsUpdated(rs.getLong(2));
+            result.setAlertsOpened(rs.getLong(3));
+            if (rs.getObject(4) != null) {
+                opened.add(new AlertNotification(rs.getLong(4), rs.getLong(5), rs.getString(6), rs.getString(7),
+                        rs.getLong(8), rs.getString(9), rs.getInt(10), (Integer) rs.getObject(11), rs.getString(12),
+                        rs.getObject(13, LocalDateTime.class)));
+            }
+        }, args);
+
+        // Same counters as LowStockAlertServiceImpl, which this statement bypasses; counted once committed
+        AfterCommit.run(() -> {
+            meterRegistry.counter("inventory.alerts.opened").increment(result.getAlertsOpened());
+            meterRegistry.counter("inventory.alerts.resolved").increment(result.getAlertsResolved());
+        });
+        lowStockNotifier.alertsOpened(opened);
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.BulkheadExecutor;
 import com.example.inventory.service.LowStockAlertService;
+import com.example.inventory.util.Bulkhead;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -8,15 +10,29 @@ import org.springframework.stereotype.Component;
 public class AlertScheduler {
 
 	private final LowStockAlertService lowStockAlertService;
+	private final BulkheadExecutor bulkheadExecutor;
 
-	public AlertScheduler(LowStockAlertService lowStockAlertService) {
+	public AlertScheduler(LowStockAlertService lowStockAlertService, BulkheadExecutor bulkheadExecutor) {
 		this.lowStockAlertService = lowStockAlertService;
+		this.bulkheadExecutor = bulkheadExecutor;
 	}
 
-	// Runs every 60 seconds
+	// Runs every 60 seconds. Both jobs use the report partition's connections, leaving the read pool to requests.
 	@Scheduled(fixedDelay = 60000L, initialDelay = 15000L)
 	public void scan() {
-		lowStockAlertService.scanAndGenerateAlerts();
+		bulkheadExecutor.callIn(Bulkhead.REPORT, () -> {
+			lowStockAlertService.scanAndGenerateAlerts();
+			return null;
+		});
+	}
+
+	// Rolls old resolved alerts into daily counts (alerts.compaction-cron)
+	@Scheduled(cron = "${alerts.compaction-cron:0 30 3 * * *}")
+	public void compact() {
+		bulkheadExecutor.callIn(Bulkhead.REPORT, () -> {
+			lowStockAlertService.compactResolvedAlerts();
+			return null;
+		});
 	}
 }
 
@@ -0,0 +1,560 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.DatasetGeneratorProperties;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deterministic synthetic dataset for performance work ("datagen" profile).
+ *
+ * Catalog rows are written with explicit ids after the current maximum, so the generator can run
+ * against a database that already has data. Stock history is simulated per inventory row in
+ * timestamp order (sales, receipts and restocks when stock runs low), which keeps stock levels
+ * non-negative and equal to the history net. Product popularity follows a Zipf distribution,
+ * warehouses differ in size, and days are weighted by weekday, season, growth and holidays.
+ *
+ * Products are split into chunks that workers pick up in parallel. Each chunk's history and
+ * inventory rows go through PostgreSQL COPY in one transaction, and every product draws from its
+ * own random stream, so the content does not depend on the number of workers or the order chunks finish.
+ */
+@Service
+@Profile("datagen")
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] CATEGORIES = {"Electronics", "Hardware", "Tools", "Plumbing", "Electrical",
+            "Garden", "Paint", "Lighting", "Fasteners", "Safety", "Cleaning", "Office", "Packaging", "Automotive",
+            "Kitchen", "Storage", "Outdoor", "Heating", "Flooring", "Adhesives"};
+    private static final String[] ADJECTIVES = {"Compact", "Heavy-Duty", "Premium", "Basic", "Industrial", "Slim",
+            "Portable", "Galvanized", "Cordless", "Reinforced", "Mini", "Pro", "Eco", "Classic", "Ultra", "Flex"};
+    private static final String[] NOUNS = {"Drill", "Bracket", "Valve", "Cable", "Hinge", "Lamp", "Panel", "Bolt",
+            "Pump", "Filter", "Switch", "Tape", "Clamp", "Hose", "Shelf", "Sealant", "Gloves", "Ladder", "Router", "Fan"};
+    private static final String[] UNITS = {"pcs", "pcs", "pcs", "box", "pack", "m", "kg", "l"};
+    private static final String[] CITIES = {"Chennai", "Mumbai", "Delhi", "Bengaluru", "Hyderabad", "Pune",
+            "Kolkata", "Ahmedabad", "Jaipur", "Kochi", "Lucknow", "Nagpur"};
+    private static final int EMPLOYEES = 50;
+    private static final int COPY_BUFFER = 1 << 16;
+    private static final long LOG_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetGeneratorProperties properties;
+
+    public DatasetGenerator(DataSource dataSource, JdbcTemplate jdbcTemplate, DatasetGeneratorProperties properties) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public void generate() throws Exception {
+        long started = System.nanoTime();
+        if (properties.isTruncate()) {
+            log.warn("Truncating catalog, inventory, stock history and alert tables");
+            jdbcTemplate.execute("TRUNCATE low_stock_alerts, stock_history, inventory, products, warehouses, suppliers "
+                    + "RESTART IDENTITY CASCADE");
+        }
+        Plan plan = new Plan(properties,
+                nextId("suppliers"), nextId("warehouses"), nextId("products"));
+        log.info("Generating {} suppliers, {} warehouses, {} products and ~{} stock movements over {} years (seed {})",
+                properties.getSuppliers(), properties.getWarehouses(), properties.getProducts(),
+                properties.getHistoryRows(), properties.getYears(), properties.getSeed());
+
+        copy("COPY suppliers (id, name, contact_person, email, phone, address, payment_terms) FROM STDIN",
+                properties.getSuppliers(), (i, out) -> {
+                    long id = plan.supplierBase + i;
+                    SplittableRandom random = plan.random(1, i);
+                    out.append(id).append('\t').append("Supplier ").append(id)
+                            .append('\t').append("Contact ").append(id)
+                            .append('\t').append("supplier").append(id).append("@example.com")
+                            .append('\t').append("+91-").append(9000000000L + random.nextLong(1000000000L))
+                            .append('\t').append(1 + random.nextInt(500)).append(" Industrial Estate, ")
+                            .append(CITIES[random.nextInt(CITIES.length)])
+                            .append('\t').append(random.nextInt(4) == 0 ? "NET60" : "NET30").append('\n');
+                });
+        copy("COPY warehouses (id, name, location) FROM STDIN", properties.getWarehouses(), (i, out) -> {
+            long id = plan.warehouseBase + i;
+            out.append(id).append('\t').append("DC-").append(id)
+                    .append('\t').append(CITIES[i % CITIES.length]).append('\n');
+        });
+        copy("COPY products (id, sku, name, category, unit, price, description, supplier_id, min_stock_level) FROM STDIN",
+                properties.getProducts(), (i, out) -> {
+                    long id = plan.productBase + i;
+                    SplittableRandom random = plan.random(2, i);
+                    String category = CATEGORIES[plan.zipf(random, CATEGORIES.length)];
+                    out.append(id).append('\t').append("SYN-").append(id)
+                            .append('\t').append(ADJECTIVES[random.nextInt(ADJECTIVES.length)]).append(' ')
+                            .append(NOUNS[random.nextInt(NOUNS.length)]).append(' ').append(id)
+                            .append('\t').append(category)
+                            .append('\t').append(UNITS[random.nextInt(UNITS.length)])
+                            .append('\t').append(Math.round(Math.exp(1 + random.nextDouble() * 6) * 100) / 100.0)
+                            .append('\t').append("Synthetic ").append(category.toLowerCase()).append(" item")
+                            .append('\t').append(plan.supplierBase + plan.zipf(random, properties.getSuppliers()))
+                            .append('\t').append(plan.minStockLevel(i)).append('\n');
+                });
+        for (String table : List.of("suppliers", "warehouses", "products")) {
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "(SELECT max(id) FROM " + table + "))");
+        }
+
+        Map<String, String> droppedForeignKeys = properties.isDropForeignKeys() ? dropForeignKeys("stock_history") : Map.of();
+        Progress progress = new Progress();
+        try {
+            writeMovements(plan, progress);
+        } finally {
+            restoreForeignKeys("stock_history", droppedForeignKeys);
+        }
+
+        int alerts = openAlerts(plan);
+        jdbcTemplate.execute("ANALYZE");
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Generated {} inventory rows, {} stock movements and {} open alerts in {} s ({} movements/s)",
+                progress.inventoryRows.get(), progress.historyRows.get(), alerts, Math.round(seconds),
+                Math.round(progress.historyRows.get() / seconds));
+    }
+
+    private void writeMovements(Plan plan, Progress progress) throws Exception {
+        AtomicInteger nextChunk = new AtomicInteger();
+        int chunks = (properties.getProducts() + properties.getChunkSize() - 1) / properties.getChunkSize();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getParallelism());
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int w = 0; w < properties.getParallelism(); w++) {
+                running.add(workers.submit(() -> {
+                    int chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                        writeChunk(plan, chunk * properties.getChunkSize(),
+                                Math.min(properties.getProducts(), (chunk + 1) * properties.getChunkSize()), progress);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Checking two foreign keys per COPY row costs more than generating the row. Dropping them for
+     * the load and adding them back validates everything in one pass at the end. The definitions
+     * are logged first so they can be restored by hand if the process dies in between.
+     */
+    private Map<String, String> dropForeignKeys(String table) {
+        Map<String, String> definitions = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint "
+                + "WHERE conrelid = ?::regclass AND contype = 'f'", rs -> {
+            definitions.put(rs.getString(1), rs.getString(2));
+        }, table);
+        definitions.forEach((name, definition) -> {
+            log.info("Dropping {}.{} for the load: {}", table, name, definition);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + name);
+        });
+        return definitions;
+    }
+
+    private void restoreForeignKeys(String table, Map<String, String> definitions) {
+        definitions.forEach((name, definition) -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + name + " " + definition);
+            log.info("Restored {}.{}", table, name);
+        });
+    }
+
+    // History and inventory for products [from, to), committed together
+    private void writeChunk(Plan plan, int from, int to, Progress progress) throws SQLException {
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            try (Statement statement = con.createStatement()) {
+                statement.execute("SET LOCAL synchronous_commit = off");
+            }
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            StringBuilder inventory = new StringBuilder();
+            long history = 0;
+            int inventoryRows = 0;
+            CopyWriter out = new CopyWriter(copyManager.copyIn("COPY stock_history "
+                    + "(product_id, warehouse_id, adjustment_quantity, adjustment_type, timestamp, performed_by_email) FROM STDIN"),
+                    plan.days);
+            try {
+                for (int p = from; p < to; p++) {
+                    SplittableRandom random = plan.random(3, p);
+                    boolean[] stocked = plan.stockedWarehouses(random, p);
+                    double warehouseWeight = 0;
+                    for (int w = 0; w < stocked.length; w++) {
+                        warehouseWeight += stocked[w] ? plan.warehouseWeights[w] : 0;
+                    }
+                    for (int w = 0; w < stocked.length; w++) {
+                        if (!stocked[w]) {
+                            continue;
+                        }
+                        double expected = plan.expectedMovements(p) * plan.warehouseWeights[w] / warehouseWeight;
+                        int level = simulate(plan, random, p, w, expected, out);
+                        inventory.append(plan.productBase + p).append('\t').append(plan.warehouseBase + w)
+                                .append('\t').append(level).append('\n');
+                        inventoryRows++;
+                    }
+                }
+                out.end();
+                history = out.rows;
+            } catch (SQLException | RuntimeException e) {
+                out.cancel();
+                throw e;
+            }
+            copyManager.copyIn("COPY inventory (product_id, warehouse_id, stock_level) FROM STDIN",
+                    new StringReader(inventory.toString()));
+            con.commit();
+            progress.add(history, inventoryRows);
+        } catch (IOException e) {
+            throw new SQLException("Failed to stream inventory rows: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replays one inventory row's movements in time order and returns its closing level.
+     * Most movements are sales; the rest are supplier receipts. A sale larger than the stock on
+     * hand is preceded by an emergency restock, and dropping below the minimum usually triggers a
+     * replenishment a day later, so only some rows end the period below their minimum.
+     */
+    private int simulate(Plan plan, SplittableRandom random, int product, int warehouse, double expected,
+                         CopyWriter out) throws SQLException {
+        int movements = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+        int minLevel = plan.minStockLevel(product);
+        int target = minLevel * (3 + random.nextInt(4));
+        long productId = plan.productBase + product;
+        long warehouseId = plan.warehouseBase + warehouse;
+
+        long[] times = new long[movements];
+        for (int m = 0; m < movements; m++) {
+            times[m] = plan.sampleSecond(random);
+        }
+        Arrays.sort(times);
+
+        int level = target;
+        out.row(productId, warehouseId, target, true, plan.firstSecond(), random);
+        long replenishAt = Long.MAX_VALUE;
+        for (long time : times) {
+            if (time >= replenishAt) {
+                out.row(productId, warehouseId, target - level, true, replenishAt, random);
+                level = target;
+                replenishAt = Long.MAX_VALUE;
+            }
+            if (random.nextInt(8) == 0) {
+                int received = 1 + random.nextInt(Math.max(1, target / 2));
+                out.row(productId, warehouseId, received, true, time, random);
+                level += received;
+                continue;
+            }
+            int sold = 1 + (int) (-Math.log(1 - random.nextDouble()) * Math.max(1, minLevel / 4.0));
+            if (sold > level) {
+                out.row(productId, warehouseId, target + sold - level, true, time, random);
+                level = target + sold;
+            }
+            out.row(productId, warehouseId, sold, false, time, random);
+            level -= sold;
+            if (level < minLevel && replenishAt == Long.MAX_VALUE && random.nextInt(10) < 8) {
+                replenishAt = time + 86400;
+            }
+        }
+        return level;
+    }
+
+    // Same statement as the count load uses for its new alerts, limited to the generated warehouses
+    private int openAlerts(Plan plan) {
+        return jdbcTemplate.update("INSERT INTO low_stock_alerts "
+                + "(product_id, warehouse_id, current_stock, min_stock_level, resolved, created_at, message) "
+                + "SELECT i.product_id, i.warehouse_id, i.stock_level, p.min_stock_level, false, now(), "
+                + "left('Low stock: ' || p.name || ' @ ' || w.name || ' (' || i.stock_level || '/' || p.min_stock_level || ')', 255) "
+                + "FROM inventory i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id "
+                + "WHERE i.warehouse_id >= ? AND i.stock_level < p.min_stock_level AND NOT EXISTS (SELECT 1 FROM low_stock_alerts a "
+                + "WHERE a.product_id = i.product_id AND a.warehouse_id = i.warehouse_id AND a.resolved = false)",
+                plan.warehouseBase);
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class);
+        return (max == null ? 0 : max) + 1;
+    }
+
+    private void copy(String sql, int rows, RowWriter writer) {
+        jdbcTemplate.execute((Connection con) -> {
+            CopyWriter out = new CopyWriter(con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql), null);
+            StringBuilder line = new StringBuilder();
+            try {
+                for (int i = 0; i < rows; i++) {
+                    line.setLength(0);
+                    writer.write(i, line);
+                    out.append(line);
+                }
+                out.end();
+            } catch (SQLException | RuntimeException e) {
+                out.cancel();
+                throw e;
+            }
+            return null;
+        });
+        log.info("{} rows: {}", sql.substring(5, sql.indexOf(' ', 5)), rows);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(int index, StringBuilder out);
+    }
+
+    // Buffers COPY text rows and ships them in 64 KB writes
+    private static final class CopyWriter {
+        private final CopyIn copyIn;
+        private final String[] days;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER + 256);
+        private final char[] timeOfDay = new char[9];
+        long rows;
+
+        CopyWriter(CopyIn copyIn, String[] days) {
+            this.copyIn = copyIn;
+            this.days = days;
+            timeOfDay[0] = ' ';
+        }
+
+        void append(CharSequence line) throws SQLException {
+            buffer.append(line);
+            rows++;
+            flushIfFull();
+        }
+
+        // One stock_history row; second counts from midnight of the first day of the period
+        void row(long productId, long warehouseId, int quantity, boolean add, long second, SplittableRandom random)
+                throws SQLException {
+            int day = (int) (second / 86400);
+            int secondOfDay = (int) (second % 86400);
+            twoDigits(1, secondOfDay / 3600);
+            timeOfDay[3] = ':';
+            twoDigits(4, secondOfDay / 60 % 60);
+            timeOfDay[6] = ':';
+            twoDigits(7, secondOfDay % 60);
+            buffer.append(productId).append('\t').append(warehouseId).append('\t').append(quantity)
+                    .append(add ? "\tADD\t" : "\tREMOVE\t").append(days[day]).append(timeOfDay)
+                    .append("\temployee").append(random.nextInt(EMPLOYEES)).append("@example.com\n");
+            rows++;
+            flushIfFull();
+        }
+
+        private void twoDigits(int at, int value) {
+            timeOfDay[at] = (char) ('0' + value / 10);
+            timeOfDay[at + 1] = (char) ('0' + value % 10);
+        }
+
+        private void flushIfFull() throws SQLException {
+            if (buffer.length() >= COPY_BUFFER) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        void end() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        void cancel() {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ignored) {
+                // The connection is being abandoned anyway
+            }
+        }
+    }
+
+    private final class Progress {
+        final AtomicLong historyRows = new AtomicLong();
+        final AtomicLong inventoryRows = new AtomicLong();
+        private final long started = System.nanoTime();
+        private final AtomicLong lastLog = new AtomicLong(started);
+
+        void add(long history, long inventory) {
+            long total = historyRows.addAndGet(history);
+            inventoryRows.addAndGet(inventory);
+            long now = System.nanoTime();
+            long last = lastLog.get();
+            if (now - last >= LOG_INTERVAL_NANOS && lastLog.compareAndSet(last, now)) {
+                log.info("{} / ~{} stock movements ({} /s)", total, properties.getHistoryRows(),
+                        Math.round(total / ((now - started) / 1e9)));
+            }
+        }
+    }
+
+    /**
+     * Everything derived from the properties that every worker shares: id offsets, popularity
+     * ranks, warehouse sizes and the day-weight table timestamps are drawn from.
+     */
+    private static final class Plan {
+        final long seed;
+        final long supplierBase;
+        final long warehouseBase;
+        final long productBase;
+        final double[] warehouseWeights;
+        // "yyyy-MM-dd" per day of the period
+        final String[] days;
+        private final int products;
+        private final int[] rank;
+        private final double popularityNorm;
+        private final double popularitySkew;
+        private final double stockingRatio;
+        private final long historyRows;
+        private final double[] dayCumulative;
+        private final double[] zipfCumulative;
+
+        Plan(DatasetGeneratorProperties properties, long supplierBase, long warehouseBase, long productBase) {
+            this.seed = properties.getSeed();
+            this.supplierBase = supplierBase;
+            this.warehouseBase = warehouseBase;
+            this.productBase = productBase;
+            this.products = properties.getProducts();
+            this.popularitySkew = properties.getPopularitySkew();
+            this.stockingRatio = properties.getStockingRatio();
+            this.historyRows = properties.getHistoryRows();
+
+            // Popularity rank is a seeded shuffle, so hot products are spread over the id range
+            rank = new int[products];
+            for (int i = 0; i < products; i++) {
+                rank[i] = i + 1;
+            }
+            SplittableRandom shuffle = new SplittableRandom(seed);
+            for (int i = products - 1; i > 0; i--) {
+                int j = shuffle.nextInt(i + 1);
+                int swap = rank[i];
+                rank[i] = rank[j];
+                rank[j] = swap;
+            }
+            double norm = 0;
+            for (int r = 1; r <= products; r++) {
+                norm += Math.pow(r, -popularitySkew);
+            }
+            popularityNorm = norm;
+
+            // A few large distribution centres and a tail of small ones
+            warehouseWeights = new double[properties.getWarehouses()];
+            for (int w = 0; w < warehouseWeights.length; w++) {
+                warehouseWeights[w] = Math.pow(w + 1, -0.8);
+            }
+
+            zipfCumulative = new double[Math.max(properties.getSuppliers(), CATEGORIES.length)];
+            double sum = 0;
+            for (int k = 0; k < zipfCumulative.length; k++) {
+                sum += 1.0 / (k + 1);
+                zipfCumulative[k] = sum;
+            }
+
+            LocalDate end = properties.getEndDate();
+            LocalDate start = end.minusYears(properties.getYears());
+            days = new String[(int) ChronoUnit.DAYS.between(start, end)];
+            dayCumulative = new double[days.length];
+            double total = 0;
+            for (int d = 0; d < days.length; d++) {
+                LocalDate date = start.plusDays(d);
+                days[d] = date.toString();
+                total += dayWeight(date, (double) d / days.length);
+                dayCumulative[d] = total;
+            }
+            for (int d = 0; d < days.length; d++) {
+                dayCumulative[d] /= total;
+            }
+        }
+
+        // Weekday pattern, a December peak with a summer lull, 40% growth over the period, closed on holidays
+        private static double dayWeight(LocalDate date, double progress) {
+            if ((date.getMonthValue() == 12 && date.getDayOfMonth() == 25) || date.getDayOfYear() == 1) {
+                return 0.05;
+            }
+            double weekday = switch (date.getDayOfWeek()) {
+                case SATURDAY -> 0.6;
+                case SUNDAY -> 0.3;
+                case MONDAY -> 1.2;
+                default -> 1.0;
+            };
+            double season = 1 + 0.35 * Math.cos(2 * Math.PI * (date.getDayOfYear() - 350) / 365.25);
+            return weekday * season * (1 + 0.4 * progress);
+        }
+
+        SplittableRandom random(int stream, long index) {
+            long mixed = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+            return new SplittableRandom(mixed ^ (mixed >>> 31));
+        }
+
+        double expectedMovements(int product) {
+            return historyRows * Math.pow(rank[product], -popularitySkew) / popularityNorm;
+        }
+
+        // Popular products are stocked in more warehouses and kept with a higher minimum
+        boolean[] stockedWarehouses(SplittableRandom random, int product) {
+            double hotness = 1 - (rank[product] - 1) / (double) products;
+            double probability = Math.min(1, stockingRatio * 2 * hotness);
+            boolean[] stocked = new boolean[warehouseWeights.length];
+            boolean any = false;
+            for (int w = 0; w < stocked.length; w++) {
+                stocked[w] = random.nextDouble() < probability;
+                any |= stocked[w];
+            }
+            if (!any) {
+                stocked[random.nextInt(stocked.length)] = true;
+            }
+            return stocked;
+        }
+
+        int minStockLevel(int product) {
+            double hotness = 1 - (rank[product] - 1) / (double) products;
+            return 5 + (int) (45 * hotness * hotness);
+        }
+
+        int zipf(SplittableRandom random, int n) {
+            double u = random.nextDouble() * zipfCumulative[n - 1];
+            int index = Arrays.binarySearch(zipfCumulative, 0, n, u);
+            return Math.min(n - 1, index >= 0 ? index : -index - 1);
+        }
+
+        long firstSecond() {
+            return 6 * 3600;
+        }
+
+        // Business hours, busiest around midday
+        long sampleSecond(SplittableRandom random) {
+            int index = Arrays.binarySearch(dayCumulative, random.nextDouble());
+            int day = Math.min(dayCumulative.length - 1, index >= 0 ? index : -index - 1);
+            double hour = 13 + (random.nextDouble() + random.nextDouble() + random.nextDouble() - 1.5) * 5;
+            return day * 86400L + (long) (hour * 3600);
+        }
+    }
+}
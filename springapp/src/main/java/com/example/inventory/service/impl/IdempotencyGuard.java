@@ -0,0 +1,355 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.IdempotencyProperties;
+import com.example.inventory.dto.AuthenticatedUser;
+import com.example.inventory.util.Bulkhead;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for the stock mutation endpoints: a request sent again with the same key gets
+ * the response of the first one instead of running again.
+ *
+ * Keys belong to the user sending them. The first request with a key claims it with an insert into
+ * idempotency_keys, runs, and stores its response there and in a bounded in-memory LRU that answers most
+ * retries without a query. A duplicate arriving while the first still runs waits for it: on this instance
+ * on the first request's future, on another by polling the claim. A key reused for a different request is
+ * refused with 422. Responses that say nothing about the outcome (5xx, 401, 429) are not stored, so their
+ * retry runs for real, and a claim whose instance died mid-request is taken over once its lease is up.
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyGuard {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int CACHE_STRIPES = 16;
+
+    private static final String CLAIM = "INSERT INTO idempotency_keys (key_hash, fingerprint, status, created_at, expires_at, locked_until) "
+            + "VALUES (?, ?, 'IN_FLIGHT', ?, ?, ?) ON CONFLICT (key_hash) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, "
+            + "status = 'IN_FLIGHT', response_status = NULL, response_content_type = NULL, response_body = NULL, "
+            + "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, locked_until = EXCLUDED.locked_until "
+            // Only an expired key, or one whose request outlived its lease, is claimed again
+            + "WHERE idempotency_keys.expires_at < EXCLUDED.created_at "
+            + "OR (idempotency_keys.status = 'IN_FLIGHT' AND idempotency_keys.locked_until < EXCLUDED.created_at)";
+    private static final String COMPLETE = "UPDATE idempotency_keys SET status = 'COMPLETED', response_status = ?, "
+            + "response_content_type = ?, response_body = ?, locked_until = NULL WHERE key_hash = ? AND status = 'IN_FLIGHT'";
+    private static final String LOAD = "SELECT fingerprint, response_status, response_content_type, response_body, expires_at "
+            + "FROM idempotency_keys WHERE key_hash = ? AND status = 'COMPLETED' AND expires_at >= ?";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyGuard.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final ResponseCache cache;
+    private final BulkheadExecutor bulkheadExecutor;
+    // Requests holding a key on this instance; duplicates wait on them rather than on the database
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter waited;
+    private final Counter inProgress;
+    private final Counter mismatched;
+
+    public IdempotencyGuard(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, IdempotencyProperties properties,
+                            BulkheadExecutor bulkheadExecutor, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = new ResponseCache(properties.getCacheSize());
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.executed = outcomeCounter(meterRegistry, "executed");
+        this.replayed = outcomeCounter(meterRegistry, "replayed");
+        this.waited = outcomeCounter(meterRegistry, "waited");
+        this.inProgress = outcomeCounter(meterRegistry, "in_progress");
+        this.mismatched = outcomeCounter(meterRegistry, "mismatch");
+        Gauge.builder("idempotency.in_flight", inFlight, Map::size)
+                .description("Requests holding an idempotency key on this instance")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Requests with an Idempotency-Key, by what became of them")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Wraps the work of a mutation endpoint. Without a key the work is returned as is; with one it runs
+     * at most once per user, key and request, and later calls return its response. The operation names the
+     * endpoint, so the same key sent to two endpoints counts as two different requests.
+     */
+    public Supplier<ResponseEntity<?>> guard(String key, AuthenticatedUser actor, String operation, Object request,
+                                             Supplier<ResponseEntity<?>> work) {
+        if (key == null) {
+            return work;
+        }
+        return () -> execute(key, actor, operation, request, work);
+    }
+
+    private ResponseEntity<?> execute(String key, AuthenticatedUser actor, String operation, Object request,
+                                      Supplier<ResponseEntity<?>> work) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+        String keyHash = sha256((actor == null || actor.getId() == null ? "anonymous" : "user:" + actor.getId()) + "\n" + key);
+        String fingerprint;
+        try {
+            fingerprint = sha256(operation + "\n" + objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to fingerprint request: " + e.getMessage(), e);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWaitTimeoutMs());
+        while (true) {
+            StoredResponse cached = cache.get(keyHash);
+            if (cached != null) {
+                return replay(cached, fingerprint);
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(keyHash, mine);
+            if (running != null) {
+                waited.increment();
+                StoredResponse stored;
+                try {
+                    stored = running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    return stillInProgress();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return stillInProgress();
+                } catch (ExecutionException e) {
+                    stored = null;
+                }
+                if (stored != null) {
+                    return replay(stored, fingerprint);
+                }
+                // The first request kept no response, so this one may run
+                continue;
+            }
+            try {
+                ResponseEntity<?> response = claimAndRun(keyHash, fingerprint, work, mine);
+                if (response != null) {
+                    return response;
+                }
+            } finally {
+                inFlight.remove(keyHash, mine);
+                mine.complete(null);
+            }
+            // Held by a request on another instance: poll until it completes or gives the key up
+            if (System.nanoTime() >= deadline) {
+                return stillInProgress();
+            }
+            try {
+                Thread.sleep(properties.getPollIntervalMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return stillInProgress();
+            }
+        }
+    }
+
+    // Runs the work if this request claims the key, replays a stored response if there is one,
+    // and returns null while another instance holds the key
+    private ResponseEntity<?> claimAndRun(String keyHash, String fingerprint, Supplier<ResponseEntity<?>> work,
+                                          CompletableFuture<StoredResponse> mine) {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update(CLAIM, keyHash, fingerprint, now, now.plusSeconds(properties.getTtlSeconds()),
+                now.plusSeconds(properties.getInFlightLeaseSeconds()));
+        if (claimed == 0) {
+            StoredResponse stored = load(keyHash);
+            if (stored == null) {
+                return null;
+            }
+            cache.put(keyHash, stored);
+            mine.complete(stored);
+            return replay(stored, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = work.get();
+        } catch (RuntimeException | Error e) {
+            release(keyHash);
+            throw e;
+        }
+        executed.increment();
+        int status = response.getStatusCode().value();
+        if (status >= 500 || status == HttpStatus.UNAUTHORIZED.value() || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            release(keyHash);
+            return response;
+        }
+        StoredResponse stored = store(keyHash, fingerprint, response, now.plusSeconds(properties.getTtlSeconds()));
+        mine.complete(stored);
+        return response;
+    }
+
+    private StoredResponse store(String keyHash, String fingerprint, ResponseEntity<?> response, LocalDateTime expiresAt) {
+        Object body = response.getBody();
+        String contentType = null;
+        String text = null;
+        if (body instanceof String s) {
+            contentType = MediaType.TEXT_PLAIN_VALUE;
+            text = s;
+        } else if (body != null) {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            try {
+                text = objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                log.warn("Response to an idempotent request could not be stored: {}", e.getMessage());
+                release(keyHash);
+                return null;
+            }
+        }
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(), contentType, text,
+                Timestamp.valueOf(expiresAt).getTime());
+        try {
+            jdbcTemplate.update(COMPLETE, stored.status(), contentType, text, keyHash);
+        } catch (RuntimeException e) {
+            // The work has committed; a retry after the lease would run it again, so this is worth a warning
+            log.warn("Response to an idempotent request could not be stored: {}", e.getMessage());
+        }
+        cache.put(keyHash, stored);
+        return stored;
+    }
+
+    private StoredResponse load(String keyHash) {
+        List<StoredResponse> rows = jdbcTemplate.query(LOAD, (rs, i) -> new StoredResponse(rs.getString(1), rs.getInt(2),
+                rs.getString(3), rs.getString(4), rs.getTimestamp(5).getTime()), keyHash, LocalDateTime.now());
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void release(String keyHash) {
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND status = 'IN_FLIGHT'", keyHash);
+        } catch (RuntimeException e) {
+            // The lease runs out instead
+            log.warn("Idempotency key could not be released: {}", e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            return ResponseEntity.unprocessableEntity()
+                    .body(Map.of("error", HEADER + " was already used for a different request"));
+        }
+        replayed.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            builder.contentType(MediaType.parseMediaType(stored.contentType()));
+        }
+        return builder.body(stored.body());
+    }
+
+    private ResponseEntity<?> stillInProgress() {
+        inProgress.increment();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A request with this " + HEADER + " is still in progress"));
+    }
+
+    // Background cleanup, on the report partition's connections rather than the read pool's
+    @Scheduled(fixedDelay = 60000L, initialDelay = 60000L)
+    public void deleteExpired() {
+        int batch = properties.getCleanupBatchSize();
+        int total = bulkheadExecutor.callIn(Bulkhead.REPORT, () -> {
+            int deleted;
+            int sum = 0;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash IN "
+                        + "(SELECT key_hash FROM idempotency_keys WHERE expires_at < ? LIMIT ?)", LocalDateTime.now(), batch);
+                sum += deleted;
+            } while (deleted == batch);
+            return sum;
+        });
+        if (total > 0) {
+            log.debug("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Body is the serialized response, replayed byte for byte; expiresAt is epoch milliseconds
+    private record StoredResponse(String fingerprint, int status, String contentType, String body, long expiresAt) {
+    }
+
+    // LRU of completed responses, split into independently locked segments so request threads do not
+    // queue on one lock. Each segment evicts its own least recently used entry.
+    private static final class ResponseCache {
+        private final LinkedHashMap<String, StoredResponse>[] segments;
+
+        @SuppressWarnings("unchecked")
+        ResponseCache(int capacity) {
+            int perSegment = Math.max(1, capacity / CACHE_STRIPES);
+            segments = new LinkedHashMap[CACHE_STRIPES];
+            for (int i = 0; i < CACHE_STRIPES; i++) {
+                segments[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                        return size() > perSegment;
+                    }
+                };
+            }
+        }
+
+        StoredResponse get(String keyHash) {
+            LinkedHashMap<String, StoredResponse> segment = segment(keyHash);
+            synchronized (segment) {
+                StoredResponse stored = segment.get(keyHash);
+                if (stored != null && stored.expiresAt() < System.currentTimeMillis()) {
+                    segment.remove(keyHash);
+                    return null;
+                }
+                return stored;
+            }
+        }
+
+        void put(String keyHash, StoredResponse stored) {
+            LinkedHashMap<String, StoredResponse> segment = segment(keyHash);
+            synchronized (segment) {
+                segment.put(keyHash, stored);
+            }
+        }
+
+        private LinkedHashMap<String, StoredResponse> segment(String keyHash) {
+            return segments[Math.floorMod(keyHash.hashCode(), CACHE_STRIPES)];
+        }
+    }
+}
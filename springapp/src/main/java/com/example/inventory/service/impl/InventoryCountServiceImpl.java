@@ -0,0 +1,128 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.dto.AlertReevaluation;
+import com.example.inventory.dto.CountLoadResult;
+import com.example.inventory.repository.WarehouseRepository;
+import com.example.inventory.service.InventoryCountService;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk stock-count loads (opening balances, cycle counts).
+ *
+ * The upload is streamed into a temporary staging table with PostgreSQL's COPY protocol and then
+ * reconciled against inventory with set-based statements: one insert for the StockHistory
+ * adjustments, one upsert for the new levels and one statement for alert re-evaluation.
+ * Everything runs in a single transaction on the warehouse's shard, so a load is applied completely
+ * or not at all. Changed levels and alerts are appended to the outbox by the same statements.
+ */
+@Service
+public class InventoryCountServiceImpl implements InventoryCountService {
+
+    private static final String VALID_QUANTITY = "trim(s.quantity) ~ '^[0-9]{1,9}$'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WarehouseRepository warehouseRepository;
+    private final ShardRouter shardRouter;
+    private final OutboxWriter outboxWriter;
+    private final AlertReevaluator alertReevaluator;
+
+    public InventoryCountServiceImpl(JdbcTemplate jdbcTemplate, WarehouseRepository warehouseRepository,
+                                     ShardRouter shardRouter, OutboxWriter outboxWriter,
+                                     AlertReevaluator alertReevaluator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warehouseRepository = warehouseRepository;
+        this.shardRouter = shardRouter;
+        this.outboxWriter = outboxWriter;
+        this.alertReevaluator = alertReevaluator;
+    }
+
+    @Override
+    public CountLoadResult loadCounts(Long warehouseId, InputStream csv, boolean fullCount, String performedByEmail) {
+        return shardRouter.inWarehouse(warehouseId, () -> load(warehouseId, csv, fullCount, performedByEmail));
+    }
+
+    private CountLoadResult load(Long warehouseId, InputStream csv, boolean fullCount, String performedByEmail) {
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new RuntimeException("Warehouse not found with id: " + warehouseId);
+        }
+        CountLoadResult result = new CountLoadResult();
+
+        jdbcTemplate.execute("CREATE TEMP TABLE count_staging (line_no bigserial, sku text, quantity text) ON COMMIT DROP");
+        long copied = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY count_staging (sku, quantity) FROM STDIN WITH (FORMAT csv, HEADER true, ENCODING 'UTF8')", csv);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read count upload: " + e.getMessage(), e);
+            }
+        });
+        result.setTotalRows(copied);
+
+        reportInvalidRows(result);
+
+        // Last line wins when a SKU is counted twice
+        jdbcTemplate.execute("CREATE TEMP TABLE count_resolved ON COMMIT DROP AS "
+                + "SELECT DISTINCT ON (p.id) p.id AS product_id, trim(s.quantity)::int AS counted "
+                + "FROM count_staging s JOIN products p ON p.sku = trim(s.sku) "
+                + "WHERE " + VALID_QUANTITY + " ORDER BY p.id, s.line_no DESC");
+        if (fullCount) {
+            jdbcTemplate.update("INSERT INTO count_resolved (product_id, counted) "
+                    + "SELECT i.product_id, 0 FROM inventory i WHERE i.warehouse_id = ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM count_resolved r WHERE r.product_id = i.product_id)", warehouseId);
+        }
+        jdbcTemplate.execute("ANALYZE count_resolved");
+        Long applied = jdbcTemplate.queryForObject("SELECT count(*) FROM count_resolved", Long.class);
+        result.setImported(applied == null ? 0 : applied);
+
+        // Hold the warehouse's rows so concurrent stock movements cannot slip in between history and levels
+        jdbcTemplate.query("SELECT i.id FROM inventory i JOIN count_resolved r ON r.product_id = i.product_id "
+                + "WHERE i.warehouse_id = ? ORDER BY i.id FOR UPDATE OF i", rs -> { }, warehouseId);
+        outboxWriter.lockInventoryKeys("SELECT product_id FROM count_resolved", warehouseId);
+
+        result.setAdjusted(jdbcTemplate.update("INSERT INTO stock_history "
+                + "(product_id, warehouse_id, adjustment_quantity, adjustment_type, timestamp, performed_by_email) "
+                + "SELECT r.product_id, ?, abs(r.counted - coalesce(i.stock_level, 0)), "
+                + "CASE WHEN r.counted > coalesce(i.stock_level, 0) THEN 'ADD' ELSE 'REMOVE' END, now(), ? "
+                + "FROM count_resolved r LEFT JOIN inventory i ON i.product_id = r.product_id AND i.warehouse_id = ? "
+                + "WHERE r.counted <> coalesce(i.stock_level, 0)", warehouseId, performedByEmail, warehouseId));
+
+        jdbcTemplate.update(outboxWriter.withInventoryEvents("INSERT INTO inventory (product_id, warehouse_id, stock_level) "
+                + "SELECT r.product_id, ?, r.counted FROM count_resolved r "
+                + "ON CONFLICT (product_id, warehouse_id) DO UPDATE SET stock_level = EXCLUDED.stock_level "
+                + "WHERE inventory.stock_level <> EXCLUDED.stock_level",
+                "id, product_id, warehouse_id, stock_level", "STOCK_COUNTED",
+                "json_build_object('inventoryId', id, 'productId', product_id, 'warehouseId', warehouse_id, "
+                        + "'stockLevel', stock_level)"), warehouseId);
+
+        AlertReevaluation alerts = alertReevaluator.reevaluate(
+                "i.warehouse_id = ? AND i.product_id IN (SELECT product_id FROM count_resolved)", warehouseId);
+        result.setAlertsOpened(alerts.getAlertsOpened());
+        result.setAlertsUpdated(alerts.getAlertsUpdated());
+        result.setAlertsResolved(alerts.getAlertsResolved());
+        return result;
+    }
+
+    private void reportInvalidRows(CountLoadResult result) {
+        String invalid = "FROM count_staging s LEFT JOIN products p ON p.sku = trim(s.sku) "
+                + "WHERE p.id IS NULL OR s.quantity IS NULL OR NOT (" + VALID_QUANTITY + ")";
+        // line_no counts data rows; +1 accounts for the header so numbers match the file
+        jdbcTemplate.query("SELECT s.line_no + 1 AS row_no, s.sku, "
+                + "CASE WHEN p.id IS NULL THEN 'Unknown SKU' ELSE 'Quantity must be a non-negative integer' END AS reason "
+                + invalid + " ORDER BY s.line_no LIMIT " + CountLoadResult.MAX_REPORTED_ERRORS,
+                rs -> {
+                    result.addError(rs.getLong("row_no"), rs.getString("sku"), rs.getString("reason"));
+                });
+        Long failed = jdbcTemplate.queryForObject("SELECT count(*) " + invalid, Long.class);
+        if (failed != null && failed > result.getErrors().size()) {
+            result.setFailed(failed);
+            result.setErrorsTruncated(true);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.ShardRouter;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
@@ -8,6 +9,8 @@ import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.repository.WarehouseRepository;
 import com.example.inventory.service.InventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,11 +23,16 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
+    private final ShardRouter shardRouter;
+    private final LedgerDirtyKeys ledgerDirtyKeys;
 
-    public InventoryServiceImpl(InventoryRepository inventoryRepository,ProductRepository productRepository,WarehouseRepository warehouseRepository) {
+    public InventoryServiceImpl(InventoryRepository inventoryRepository,ProductRepository productRepository,WarehouseRepository warehouseRepository,
+                                ShardRouter shardRouter, LedgerDirtyKeys ledgerDirtyKeys) {
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
         this.warehouseRepository = warehouseRepository;
+        this.shardRouter = shardRouter;
+        this.ledgerDirtyKeys = ledgerDirtyKeys;
     }
 
     @Override
@@ -32,50 +40,66 @@ public class InventoryServiceImpl implements InventoryService {
         Long productId = inventory.getProduct().getId();
         Long warehouseId = inventory.getWarehouse().getId();
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
+        return shardRouter.inWarehouse(warehouseId, () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            Warehouse warehouse = warehouseRepository.findById(warehouseId)
+                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
 
-        // Ensure fully loaded entities are set
-        inventory.setProduct(product);
-        inventory.setWarehouse(warehouse);
+            // Ensure fully loaded entities are set
+            inventory.setProduct(product);
+            inventory.setWarehouse(warehouse);
 
-        // Optional: Check if already exists (prevent duplicate product+warehouse)
-        inventoryRepository.findByProductAndWarehouse(product, warehouse).ifPresent(existing -> {
-            throw new RuntimeException("Inventory already exists for this product and warehouse.");
-        });
+            // Optional: Check if already exists (prevent duplicate product+warehouse)
+            inventoryRepository.findByProductAndWarehouse(product, warehouse).ifPresent(existing -> {
+                throw new RuntimeException("Inventory already exists for this product and warehouse.");
+            });
 
-        return inventoryRepository.save(inventory);
+            // The stock level was set without a stock movement, so the ledger may not agree
+            ledgerDirtyKeys.mark(productId, warehouseId);
+            return inventoryRepository.save(inventory);
+        });
     }
 
     @Override
     public Optional<Inventory> getById(Long id) {
-        return inventoryRepository.findById(id);
+        return shardRouter.readInShardOf(id, () -> inventoryRepository.findById(id));
     }
 
     @Override
     public Optional<Inventory> getByProductAndWarehouse(Product product, Warehouse warehouse) {
-        return inventoryRepository.findByProductAndWarehouse(product, warehouse);
+        return shardRouter.readInWarehouse(warehouse.getId(), () -> inventoryRepository.findByProductAndWarehouse(product, warehouse));
     }
 
     @Override
     public List<Inventory> getByProduct(Product product) {
-        return inventoryRepository.findByProduct(product);
+        return shardRouter.readEverywhere(() -> inventoryRepository.findByProduct(product));
     }
 
     @Override
     public List<Inventory> getByWarehouse(Warehouse warehouse) {
-        return inventoryRepository.findByWarehouse(warehouse);
+        return shardRouter.readInWarehouse(warehouse.getId(), () -> inventoryRepository.findByWarehouse(warehouse));
     }
 
     @Override
     public List<Inventory> getAll() {
-        return inventoryRepository.findAll();
+        return shardRouter.readEverywhere(inventoryRepository::findAll);
+    }
+
+    @Override
+    public Slice<Inventory> getPage(Pageable pageable, boolean withCount) {
+        return shardRouter.readPage(pageable,
+                page -> withCount ? inventoryRepository.findAll(page) : inventoryRepository.findAllBy(page));
     }
 
     @Override
     public void deleteById(Long id) {
-        inventoryRepository.deleteById(id);
+        shardRouter.inShardOf(id, () -> {
+            inventoryRepository.findById(id).ifPresent(inventory -> {
+                ledgerDirtyKeys.mark(inventory.getProduct().getId(), inventory.getWarehouse().getId());
+                inventoryRepository.delete(inventory);
+            });
+            return null;
+        });
     }
 }
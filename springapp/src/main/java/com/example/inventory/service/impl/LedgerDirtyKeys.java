@@ -0,0 +1,36 @@
+package com.example.inventory.service.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marks (product, warehouse) keys whose inventory or stock history was written directly rather than
+ * by a stock movement, in the transaction of that write, so incremental reconciliation checks them.
+ *
+ * Every mark bumps the key's version. A reconciliation clears a key only at the version it compared,
+ * so a write that commits while the comparison runs leaves the key marked for the next run.
+ */
+@Component
+public class LedgerDirtyKeys {
+
+    static final String MARK = "INSERT INTO ledger_dirty_keys (product_id, warehouse_id, version) ";
+    static final String ON_CONFLICT = " ON CONFLICT (product_id, warehouse_id) DO UPDATE SET version = ledger_dirty_keys.version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerDirtyKeys(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Rows without a product or warehouse cannot be reconciled, so they are not marked
+    public void mark(Long productId, Long warehouseId) {
+        if (productId == null || warehouseId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Ledger keys must be marked in the transaction of their change");
+        }
+        jdbcTemplate.update(MARK + "VALUES (?, ?, 0)" + ON_CONFLICT, productId, warehouseId);
+    }
+}
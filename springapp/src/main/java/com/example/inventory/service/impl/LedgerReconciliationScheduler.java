@@ -0,0 +1,41 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.LedgerProperties;
+import com.example.inventory.service.LedgerReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Scheduled ledger reconciliations (ledger.reconciliation.incremental-cron / full-cron)
+@Component
+public class LedgerReconciliationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationScheduler.class);
+
+    private final LedgerReconciliationService ledgerReconciliationService;
+    private final LedgerProperties properties;
+
+    public LedgerReconciliationScheduler(LedgerReconciliationService ledgerReconciliationService, LedgerProperties properties) {
+        this.ledgerReconciliationService = ledgerReconciliationService;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.incremental-cron:-}")
+    public void incremental() {
+        start(true);
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.full-cron:-}")
+    public void full() {
+        start(false);
+    }
+
+    private void start(boolean incremental) {
+        try {
+            ledgerReconciliationService.startReconciliation(properties.getScheduledMode(), incremental);
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled ledger reconciliation: {}", e.getMessage());
+        }
+    }
+}
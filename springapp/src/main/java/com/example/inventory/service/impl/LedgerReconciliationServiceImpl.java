@@ -0,0 +1,430 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.LedgerProperties;
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.entity.Inventory;
+import com.example.inventory.entity.LedgerDiscrepancy;
+import com.example.inventory.entity.LedgerRun;
+import com.example.inventory.entity.Product;
+import com.example.inventory.entity.Warehouse;
+import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.repository.LedgerDiscrepancyRepository;
+import com.example.inventory.repository.LedgerRunRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.WarehouseRepository;
+import com.example.inventory.service.LedgerReconciliationService;
+import com.example.inventory.service.LowStockAlertService;
+import com.example.inventory.util.Bulkhead;
+import com.example.inventory.util.DiscrepancyResolution;
+import com.example.inventory.util.ReconciliationMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles inventory stock levels with the net of their stock history.
+ *
+ * Each shard's product ids are cut into key ranges that workers compare in parallel. A range is
+ * compared by one INSERT ... SELECT that sums its history from stock_history_ledger_idx (an index-only
+ * scan in key order) and writes only the discrepancies to ledger_discrepancies, so memory stays flat
+ * however large the history is. REPAIR runs then set the affected stock levels to the ledger net in
+ * small locked batches, with an outbox event and an alert check per row, like a stock movement.
+ *
+ * Incremental runs compare only dirty keys: keys marked by direct inventory and history writes (see
+ * LedgerDirtyKeys), plus every key with history appended since the shard's checkpoint, which the run
+ * marks while moving the checkpoint forward. Keys stay dirty while they disagree, so each incremental
+ * run reports them again until they are repaired. A shard without a checkpoint is compared in full,
+ * and a full comparison leaves the checkpoint at the newest history row it started from.
+ */
+@Service
+@EnableConfigurationProperties(LedgerProperties.class)
+public class LedgerReconciliationServiceImpl implements LedgerReconciliationService, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationServiceImpl.class);
+
+    private static final String NET = "sum(CASE WHEN adjustment_type = 'ADD' THEN adjustment_quantity ELSE -adjustment_quantity END)";
+
+    // Records the discrepancies among the keys of a range and clears the dirty keys found consistent, all from
+    // one snapshot. Discrepant keys stay dirty until a run finds them fixed, and a key marked again meanwhile
+    // has a new version, so it stays for the next run too.
+    private static final String RECONCILE = "WITH dirty AS (SELECT product_id, warehouse_id, version FROM ledger_dirty_keys "
+            + "WHERE product_id >= ? AND product_id < ?), "
+            + "found AS (INSERT INTO ledger_discrepancies (run_id, product_id, warehouse_id, inventory_id, stock_level, ledger_net, detected_at) "
+            + "SELECT ?, k.product_id, k.warehouse_id, k.inventory_id, k.stock_level, k.net, localtimestamp FROM (%s) k "
+            + "WHERE coalesce(k.stock_level, 0) <> k.net RETURNING product_id, warehouse_id), "
+            + "cleared AS (DELETE FROM ledger_dirty_keys d USING dirty WHERE d.product_id = dirty.product_id "
+            + "AND d.warehouse_id = dirty.warehouse_id AND d.version = dirty.version "
+            + "AND NOT EXISTS (SELECT 1 FROM found f WHERE f.product_id = d.product_id AND f.warehouse_id = d.warehouse_id) RETURNING 1) "
+            + "SELECT count(*) FROM found";
+
+    // Every key of the range on either side; takes the range bounds twice more
+    private static final String ALL_KEYS = String.format(RECONCILE, "SELECT coalesce(i.product_id, h.product_id) AS product_id, "
+            + "coalesce(i.warehouse_id, h.warehouse_id) AS warehouse_id, i.id AS inventory_id, i.stock_level, coalesce(h.net, 0) AS net "
+            + "FROM (SELECT id, product_id, warehouse_id, stock_level FROM inventory WHERE product_id >= ? AND product_id < ?) i "
+            + "FULL JOIN (SELECT product_id, warehouse_id, " + NET + " AS net FROM stock_history "
+            + "WHERE product_id >= ? AND product_id < ? AND warehouse_id IS NOT NULL GROUP BY product_id, warehouse_id) h "
+            + "ON h.product_id = i.product_id AND h.warehouse_id = i.warehouse_id");
+
+    private static final String DIRTY_KEYS = String.format(RECONCILE, "SELECT k.product_id, k.warehouse_id, i.id AS inventory_id, "
+            + "i.stock_level, coalesce(h.net, 0) AS net FROM dirty k "
+            + "LEFT JOIN inventory i ON i.product_id = k.product_id AND i.warehouse_id = k.warehouse_id "
+            + "CROSS JOIN LATERAL (SELECT " + NET + " AS net FROM stock_history s "
+            + "WHERE s.product_id = k.product_id AND s.warehouse_id = k.warehouse_id) h");
+
+    private static final String FULL_BOUNDS = "SELECT min(lo), max(hi) FROM ("
+            + "SELECT min(product_id) AS lo, max(product_id) AS hi FROM inventory "
+            + "UNION ALL SELECT min(product_id), max(product_id) FROM stock_history "
+            + "UNION ALL SELECT min(product_id), max(product_id) FROM ledger_dirty_keys) b";
+
+    private final LedgerProperties properties;
+    private final ShardRouter shardRouter;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerRunRepository runRepository;
+    private final LedgerDiscrepancyRepository discrepancyRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final LowStockAlertService lowStockAlertService;
+    private final OutboxWriter outboxWriter;
+    private final MeterRegistry meterRegistry;
+    private final Counter discrepanciesFound;
+    private final Counter discrepanciesRepaired;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LedgerReconciliationServiceImpl(LedgerProperties properties,
+                                           ShardRouter shardRouter,
+                                           BulkheadExecutor bulkheadExecutor,
+                                           JdbcTemplate jdbcTemplate,
+                                           LedgerRunRepository runRepository,
+                                           LedgerDiscrepancyRepository discrepancyRepository,
+                                           InventoryRepository inventoryRepository,
+                                           ProductRepository productRepository,
+                                           WarehouseRepository warehouseRepository,
+                                           LowStockAlertService lowStockAlertService,
+                                           OutboxWriter outboxWriter,
+                                           MeterRegistry meterRegistry) {
+        if (properties.getParallelism() <= 0 || properties.getRangeSize() <= 0 || properties.getRepairBatchSize() <= 0) {
+            throw new IllegalStateException("ledger.reconciliation.parallelism, range-size and repair-batch-size must be positive");
+        }
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.lowStockAlertService = lowStockAlertService;
+        this.outboxWriter = outboxWriter;
+        this.meterRegistry = meterRegistry;
+        this.discrepanciesFound = meterRegistry.counter("ledger.discrepancies");
+        this.discrepanciesRepaired = meterRegistry.counter("ledger.discrepancies.repaired");
+        this.coordinator = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("ledger-reconciler").factory());
+        this.workers = Executors.newFixedThreadPool(properties.getParallelism(),
+                Thread.ofPlatform().name("ledger-range-", 1).factory());
+    }
+
+    @Override
+    public LedgerRun startReconciliation(ReconciliationMode mode, boolean incremental) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A ledger reconciliation is already running");
+        }
+        try {
+            LedgerRun run = runRepository.save(LedgerRun.builder()
+                    .mode(mode)
+                    .incremental(incremental)
+                    .status("RUNNING")
+                    .startedAt(LocalDateTime.now())
+                    .ranges(0)
+                    .rangesDone(0)
+                    .discrepancies(0L)
+                    .repaired(0L)
+                    .build());
+            coordinator.submit(() -> {
+                try {
+                    execute(run);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<LedgerRun> getRun(Long id) {
+        return runRepository.findById(id);
+    }
+
+    @Override
+    public Slice<LedgerRun> getRuns(Pageable pageable) {
+        return runRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public Slice<LedgerDiscrepancy> getDiscrepancies(Long runId, Pageable pageable) {
+        return shardRouter.readPage(pageable, page -> discrepancyRepository.findByRunId(runId, page));
+    }
+
+    private record ShardPlan(int shard, boolean full, long latestHistoryId, Long fromProductId, Long toProductId) {
+    }
+
+    // Product ids [from, to) of one shard
+    private record KeyRange(ShardPlan plan, long from, long to) {
+    }
+
+    private void execute(LedgerRun run) {
+        long started = System.nanoTime();
+        String kind = run.getIncremental() ? "incremental" : "full";
+        String error = null;
+        try {
+            List<ShardPlan> plans = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int target = shard;
+                plans.add(bulkheadExecutor.callIn(Bulkhead.REPORT,
+                        () -> shardRouter.inShard(target, () -> plan(target, run.getIncremental()))));
+            }
+            List<KeyRange> ranges = new ArrayList<>();
+            for (ShardPlan plan : plans) {
+                if (plan.fromProductId() == null) {
+                    continue;
+                }
+                for (long from = plan.fromProductId(); from <= plan.toProductId(); from += properties.getRangeSize()) {
+                    ranges.add(new KeyRange(plan, from, Math.min(from + properties.getRangeSize(), plan.toProductId() + 1)));
+                }
+            }
+            jdbcTemplate.update("UPDATE ledger_runs SET ranges = ? WHERE id = ?", ranges.size(), run.getId());
+            log.info("Ledger reconciliation {} ({}, {}) started: {} key ranges on {} shard(s){}", run.getId(), run.getMode(),
+                    kind, ranges.size(), plans.size(),
+                    plans.stream().anyMatch(ShardPlan::full) && run.getIncremental() ? ", without a checkpoint compared in full" : "");
+
+            List<Future<?>> futures = new ArrayList<>(ranges.size());
+            for (KeyRange range : ranges) {
+                futures.add(workers.submit(() -> bulkheadExecutor.callIn(Bulkhead.REPORT, () -> reconcile(run, range))));
+            }
+            Map<Integer, Boolean> shardSucceeded = new HashMap<>();
+            for (int i = 0; i < futures.size(); i++) {
+                int shard = ranges.get(i).plan().shard();
+                try {
+                    futures.get(i).get();
+                    shardSucceeded.putIfAbsent(shard, true);
+                } catch (ExecutionException e) {
+                    shardSucceeded.put(shard, false);
+                    log.warn("Ledger reconciliation {} failed for products [{}, {}) on shard {}", run.getId(),
+                            ranges.get(i).from(), ranges.get(i).to(), shard, e.getCause());
+                    if (error == null) {
+                        error = "Products [" + ranges.get(i).from() + ", " + ranges.get(i).to() + ") on shard " + shard
+                                + ": " + e.getCause().getMessage();
+                    }
+                }
+            }
+            // A full comparison counts as a checkpoint only when every range of its shard made it
+            for (ShardPlan plan : plans) {
+                if (plan.full() && shardSucceeded.getOrDefault(plan.shard(), true)) {
+                    bulkheadExecutor.callIn(Bulkhead.REPORT, () -> shardRouter.inShard(plan.shard(), () -> {
+                        saveCheckpoint(plan.latestHistoryId());
+                        return null;
+                    }));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (RuntimeException e) {
+            log.warn("Ledger reconciliation {} failed", run.getId(), e);
+            error = e.getMessage();
+        }
+
+        String status = error == null ? "COMPLETED" : "FAILED";
+        String message = error == null ? null : error.substring(0, Math.min(error.length(), 1000));
+        LedgerRun finished = runRepository.findById(run.getId()).orElse(run);
+        finished.setStatus(status);
+        finished.setFinishedAt(LocalDateTime.now());
+        finished.setError(message);
+        runRepository.save(finished);
+        Timer.builder("ledger.reconciliation").description("Ledger reconciliation runs, start to finish")
+                .tag("kind", kind).tag("status", status)
+                .register(meterRegistry).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        log.info("Ledger reconciliation {} {} in {} ms: {} discrepancies, {} repaired", finished.getId(), status.toLowerCase(),
+                (System.nanoTime() - started) / 1_000_000, finished.getDiscrepancies(), finished.getRepaired());
+    }
+
+    // Picks what a shard compares; for incremental runs, turns the history since the checkpoint into dirty keys
+    private ShardPlan plan(int shard, boolean incremental) {
+        Long checkpoint = jdbcTemplate.query("SELECT history_id FROM ledger_checkpoints WHERE id = 1 FOR UPDATE",
+                rs -> rs.next() ? rs.getLong(1) : null);
+        Long latest = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM stock_history", Long.class);
+        boolean full = !incremental || checkpoint == null;
+        String bounds = FULL_BOUNDS;
+        if (!full) {
+            // Movements keep inventory and history in step, so a movement committing after this with a lower id
+            // is no loss; only direct writes can drift, and those mark their own keys
+            jdbcTemplate.update(LedgerDirtyKeys.MARK + "SELECT DISTINCT product_id, warehouse_id, 0 FROM stock_history "
+                    + "WHERE id > ? AND id <= ? AND product_id IS NOT NULL AND warehouse_id IS NOT NULL"
+                    + LedgerDirtyKeys.ON_CONFLICT, checkpoint, latest);
+            saveCheckpoint(latest);
+            bounds = "SELECT min(product_id), max(product_id) FROM ledger_dirty_keys";
+        }
+        return jdbcTemplate.queryForObject(bounds, (rs, rowNum) -> new ShardPlan(shard, full, latest,
+                rs.getObject(1, Long.class), rs.getObject(2, Long.class)));
+    }
+
+    private void saveCheckpoint(long historyId) {
+        jdbcTemplate.update("INSERT INTO ledger_checkpoints (id, history_id, updated_at) VALUES (1, ?, localtimestamp) "
+                + "ON CONFLICT (id) DO UPDATE SET history_id = greatest(ledger_checkpoints.history_id, excluded.history_id), "
+                + "updated_at = excluded.updated_at", historyId);
+    }
+
+    private Void reconcile(LedgerRun run, KeyRange range) {
+        long found = shardRouter.inShard(range.plan().shard(), () -> range.plan().full()
+                ? jdbcTemplate.queryForObject(ALL_KEYS, Long.class, range.from(), range.to(), run.getId(),
+                        range.from(), range.to(), range.from(), range.to())
+                : jdbcTemplate.queryForObject(DIRTY_KEYS, Long.class, range.from(), range.to(), run.getId()));
+        long repaired = 0;
+        if (found > 0 && run.getMode() == ReconciliationMode.REPAIR) {
+            long afterId = 0;
+            while (true) {
+                long after = afterId;
+                long[] batch = shardRouter.inShard(range.plan().shard(), () -> repairBatch(run.getId(), range, after));
+                if (batch == null) {
+                    break;
+                }
+                repaired += batch[0];
+                afterId = batch[1];
+            }
+        }
+        discrepanciesFound.increment(found);
+        discrepanciesRepaired.increment(repaired);
+        jdbcTemplate.update("UPDATE ledger_runs SET ranges_done = ranges_done + 1, discrepancies = discrepancies + ?, "
+                + "repaired = repaired + ? WHERE id = ?", found, repaired, run.getId());
+        return null;
+    }
+
+    // Repairs the next batch of a range's discrepancies; returns {repaired, last discrepancy id}, or null when done
+    private long[] repairBatch(Long runId, KeyRange range, long afterId) {
+        List<LedgerDiscrepancy> batch = discrepancyRepository.findByRunIdAndProductIdBetweenAndIdGreaterThanOrderById(
+                runId, range.from(), range.to() - 1, afterId, Limit.of(properties.getRepairBatchSize()));
+        if (batch.isEmpty()) {
+            return null;
+        }
+        long lastId = batch.get(batch.size() - 1).getId();
+
+        // Stock movements hold these rows while they write history, so once locked, the sums below include
+        // every movement that committed and no other can start
+        Map<Long, Inventory> locked = inventoryRepository.findAllForUpdate(batch.stream()
+                        .map(LedgerDiscrepancy::getInventoryId).filter(Objects::nonNull).toList())
+                .stream().collect(Collectors.toMap(Inventory::getId, Function.identity()));
+        Map<List<Long>, Long> nets = ledgerNets(batch);
+
+        long repaired = 0;
+        // Outbox key locks in warehouse, then product order, as in OutboxWriter.lockInventoryKeys
+        batch.sort(Comparator.comparing(LedgerDiscrepancy::getWarehouseId).thenComparing(LedgerDiscrepancy::getProductId));
+        for (LedgerDiscrepancy discrepancy : batch) {
+            long net = nets.getOrDefault(List.of(discrepancy.getProductId(), discrepancy.getWarehouseId()), 0L);
+            Inventory inventory = discrepancy.getInventoryId() == null ? null : locked.get(discrepancy.getInventoryId());
+            if (discrepancy.getInventoryId() != null && inventory == null) {
+                // Deleted since; the delete marked the key for the next run
+                continue;
+            }
+            if (inventory == null) {
+                if (net == 0) {
+                    discrepancy.setResolution(DiscrepancyResolution.ALREADY_CONSISTENT);
+                    continue;
+                }
+                // History without an inventory row, e.g. after a direct delete
+                Product product = productRepository.findById(discrepancy.getProductId()).orElse(null);
+                Warehouse warehouse = warehouseRepository.findById(discrepancy.getWarehouseId()).orElse(null);
+                if (product == null || warehouse == null || inventoryRepository.findForUpdate(product, warehouse).isPresent()) {
+                    continue;
+                }
+                inventory = Inventory.builder().product(product).warehouse(warehouse).stockLevel(0).build();
+            }
+            int previous = inventory.getStockLevel() == null ? 0 : inventory.getStockLevel();
+            if (previous == net) {
+                discrepancy.setResolution(DiscrepancyResolution.ALREADY_CONSISTENT);
+                continue;
+            }
+            if (net < 0 || net > Integer.MAX_VALUE) {
+                discrepancy.setResolution(DiscrepancyResolution.LEDGER_OUT_OF_RANGE);
+                continue;
+            }
+            inventory.setStockLevel((int) net);
+            inventory = inventoryRepository.save(inventory);
+            outboxWriter.append(OutboxWriter.inventoryKey(discrepancy.getProductId(), discrepancy.getWarehouseId()),
+                    "STOCK_RECONCILED", reconciledEvent(runId, inventory, previous));
+            lowStockAlertService.checkInventoryAndAlert(inventory);
+            discrepancy.setResolution(DiscrepancyResolution.REPAIRED);
+            repaired++;
+        }
+        discrepancyRepository.saveAll(batch);
+        return new long[]{repaired, lastId};
+    }
+
+    // History net of each discrepancy's key, read after the rows were locked
+    private Map<List<Long>, Long> ledgerNets(List<LedgerDiscrepancy> batch) {
+        Long[] productIds = batch.stream().map(LedgerDiscrepancy::getProductId).toArray(Long[]::new);
+        Long[] warehouseIds = batch.stream().map(LedgerDiscrepancy::getWarehouseId).toArray(Long[]::new);
+        Map<List<Long>, Long> nets = new HashMap<>();
+        jdbcTemplate.query("SELECT k.product_id, k.warehouse_id, coalesce(" + NET + ", 0) "
+                        + "FROM unnest(?::bigint[], ?::bigint[]) AS k(product_id, warehouse_id) "
+                        + "JOIN stock_history s ON s.product_id = k.product_id AND s.warehouse_id = k.warehouse_id "
+                        + "GROUP BY k.product_id, k.warehouse_id",
+                rs -> {
+                    nets.put(List.of(rs.getLong(1), rs.getLong(2)), rs.getLong(3));
+                }, productIds, warehouseIds);
+        return nets;
+    }
+
+    private static Map<String, Object> reconciledEvent(Long runId, Inventory inventory, int previousStockLevel) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("runId", runId);
+        event.put("inventoryId", inventory.getId());
+        event.put("productId", inventory.getProduct().getId());
+        event.put("warehouseId", inventory.getWarehouse().getId());
+        event.put("previousStockLevel", previousStockLevel);
+        event.put("stockLevel", inventory.getStockLevel());
+        event.put("timestamp", LocalDateTime.now());
+        return event;
+    }
+
+    @Override
+    public void destroy() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+}
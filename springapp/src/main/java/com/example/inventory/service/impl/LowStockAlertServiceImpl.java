@@ -1,98 +1,293 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.AlertProperties;
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.dto.AlertHistoryPage;
+import com.example.inventory.entity.AlertDailyCount;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.LowStockAlert;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Warehouse;
-import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.repository.AlertDailyCountRepository;
 import com.example.inventory.repository.LowStockAlertRepository;
 import com.example.inventory.service.LowStockAlertService;
+import com.example.inventory.util.AfterCommit;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
-@Transactional
+@EnableConfigurationProperties(AlertProperties.class)
 public class LowStockAlertServiceImpl implements LowStockAlertService {
 
+	private static final Logger log = LoggerFactory.getLogger(LowStockAlertServiceImpl.class);
+
+	private static final Comparator<LowStockAlert> NEWEST_FIRST = Comparator
+			.comparing(LowStockAlert::getCreatedAt).thenComparing(LowStockAlert::getId).reversed();
+
+	// Deletes one batch of old resolved alerts and adds them to their daily counts in the same statement.
+	// SKIP LOCKED leaves alerts another instance is compacting to it.
+	private static final String COMPACT = "WITH old AS (DELETE FROM low_stock_alerts WHERE id IN ("
+			+ "SELECT id FROM low_stock_alerts WHERE resolved = true AND resolved_at < ? ORDER BY resolved_at LIMIT ? "
+			+ "FOR UPDATE SKIP LOCKED) RETURNING product_id, warehouse_id, created_at, resolved_at), "
+			+ "counted AS (INSERT INTO alert_daily_counts (alert_date, product_id, warehouse_id, alerts, open_seconds) "
+			+ "SELECT created_at::date, product_id, warehouse_id, count(*), "
+			+ "coalesce(sum(extract(epoch FROM resolved_at - created_at)), 0)::bigint FROM old "
+			+ "GROUP BY created_at::date, product_id, warehouse_id "
+			+ "ON CONFLICT (alert_date, product_id, warehouse_id) DO UPDATE SET "
+			+ "alerts = alert_daily_counts.alerts + excluded.alerts, "
+			+ "open_seconds = alert_daily_counts.open_seconds + excluded.open_seconds) "
+			+ "SELECT count(*) FROM old";
+
 	private final LowStockAlertRepository lowStockAlertRepository;
-	private final InventoryRepository inventoryRepository;
+	private final AlertReevaluator alertReevaluator;
+	private final ShardRouter shardRouter;
+	private final OutboxWriter outboxWriter;
+	private final LowStockNotifier lowStockNotifier;
+	private final AlertDailyCountRepository alertDailyCountRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final AlertProperties alertProperties;
+	private final Counter alertsCreated;
+	private final Counter alertsCompacted;
+	private final Counter alertsResolved;
 
 	public LowStockAlertServiceImpl(LowStockAlertRepository lowStockAlertRepository,
-									  InventoryRepository inventoryRepository) {
+									  AlertReevaluator alertReevaluator,
+									  ShardRouter shardRouter,
+									  OutboxWriter outboxWriter,
+									  LowStockNotifier lowStockNotifier,
+									  AlertDailyCountRepository alertDailyCountRepository,
+									  JdbcTemplate jdbcTemplate,
+									  AlertProperties alertProperties,
+									  MeterRegistry meterRegistry) {
 		this.lowStockAlertRepository = lowStockAlertRepository;
-		this.inventoryRepository = inventoryRepository;
+		this.alertReevaluator = alertReevaluator;
+		this.shardRouter = shardRouter;
+		this.outboxWriter = outboxWriter;
+		this.lowStockNotifier = lowStockNotifier;
+		this.alertDailyCountRepository = alertDailyCountRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.alertProperties = alertProperties;
+		this.alertsCompacted = meterRegistry.counter("inventory.alerts.compacted");
+		this.alertsCreated = meterRegistry.counter("inventory.alerts.opened");
+		this.alertsResolved = meterRegistry.counter("inventory.alerts.resolved");
 	}
 
 	@Override
 	public LowStockAlert createAlert(Product product, Warehouse warehouse, int currentStock, Integer minStockLevel, String message) {
-		// Check if an active alert already exists for this product+warehouse
-		List<LowStockAlert> existing = lowStockAlertRepository.findByProductAndWarehouseAndResolved(product, warehouse, false);
-		if (!existing.isEmpty()) {
-			// Update current stock and message on existing alert
-			LowStockAlert alert = existing.get(0);
-			alert.setCurrentStock(currentStock);
-			alert.setMinStockLevel(minStockLevel);
-			alert.setMessage(message);
-			return lowStockAlertRepository.save(alert);
-		}
+		return shardRouter.inWarehouse(warehouse.getId(), () -> {
+			// Check if an active alert already exists for this product+warehouse
+			List<LowStockAlert> existing = lowStockAlertRepository.findByProductAndWarehouseAndResolved(product, warehouse, false);
+			if (!existing.isEmpty()) {
+				// Update current stock and message on existing alert
+				LowStockAlert alert = existing.get(0);
+				alert.setCurrentStock(currentStock);
+				alert.setMinStockLevel(minStockLevel);
+				alert.setMessage(message);
+				return lowStockAlertRepository.save(alert);
+			}
 
-		LowStockAlert alert = LowStockAlert.builder()
-				.product(product)
-				.warehouse(warehouse)
-				.currentStock(currentStock)
-				.minStockLevel(minStockLevel)
-				.resolved(false)
-				.createdAt(LocalDateTime.now())
-				.message(message)
-				.build();
-		return lowStockAlertRepository.save(alert);
+			LowStockAlert alert = LowStockAlert.builder()
+					.product(product)
+					.warehouse(warehouse)
+					.currentStock(currentStock)
+					.minStockLevel(minStockLevel)
+					.resolved(false)
+					.createdAt(LocalDateTime.now())
+					.message(message)
+					.build();
+			alert = lowStockAlertRepository.save(alert);
+			appendEvent("ALERT_OPENED", alert);
+			lowStockNotifier.alertOpened(alert);
+			AfterCommit.run(alertsCreated::increment);
+			return alert;
+		});
 	}
 
 	@Override
 	public void resolveAlert(Long alertId) {
-		LowStockAlert alert = lowStockAlertRepository.findById(alertId)
-				.orElseThrow(() -> new RuntimeException("Alert not found with id: " + alertId));
-		if (!Boolean.TRUE.equals(alert.getResolved())) {
-			alert.setResolved(true);
-			alert.setResolvedAt(LocalDateTime.now());
-			lowStockAlertRepository.save(alert);
-		}
+		shardRouter.inShardOf(alertId, () -> {
+			LowStockAlert alert = lowStockAlertRepository.findById(alertId)
+					.orElseThrow(() -> new RuntimeException("Alert not found with id: " + alertId));
+			if (!Boolean.TRUE.equals(alert.getResolved())) {
+				alert.setResolved(true);
+				alert.setResolvedAt(LocalDateTime.now());
+				lowStockAlertRepository.save(alert);
+				appendEvent("ALERT_RESOLVED", alert);
+				AfterCommit.run(alertsResolved::increment);
+			}
+			return null;
+		});
 	}
 
 	@Override
 	public void resolveAlertsFor(Product product, Warehouse warehouse) {
-		List<LowStockAlert> existing = lowStockAlertRepository.findByProductAndWarehouseAndResolved(product, warehouse, false);
-		for (LowStockAlert alert : existing) {
-			alert.setResolved(true);
-			alert.setResolvedAt(LocalDateTime.now());
+		shardRouter.inWarehouse(warehouse.getId(), () -> {
+			List<LowStockAlert> existing = lowStockAlertRepository.findByProductAndWarehouseAndResolved(product, warehouse, false);
+			for (LowStockAlert alert : existing) {
+				alert.setResolved(true);
+				alert.setResolvedAt(LocalDateTime.now());
+				appendEvent("ALERT_RESOLVED", alert);
+			}
+			lowStockAlertRepository.saveAll(existing);
+			int resolved = existing.size();
+			AfterCommit.run(() -> alertsResolved.increment(resolved));
+			return null;
+		});
+	}
+
+	@Override
+	public Slice<LowStockAlert> getActiveAlerts(Pageable pageable, boolean withCount) {
+		return shardRouter.readPage(pageable, page -> withCount
+				? lowStockAlertRepository.findPageByResolvedFalse(page) : lowStockAlertRepository.findByResolvedFalse(page));
+	}
+
+
+	@Override
+	public Slice<LowStockAlert> getAlerts(Pageable pageable, boolean withCount) {
+		return shardRouter.readPage(pageable,
+				page -> withCount ? lowStockAlertRepository.findAll(page) : lowStockAlertRepository.findAllBy(page));
+	}
+
+	@Override
+	public AlertHistoryPage getAlertHistory(Long productId, Long warehouseId, Boolean resolved, String cursor, int size) {
+		if (size < 1 || size > alertProperties.getMaxHistoryPageSize()) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + alertProperties.getMaxHistoryPageSize());
+		}
+		LocalDateTime beforeCreatedAt = null;
+		Long beforeId = null;
+		if (cursor != null && !cursor.isBlank()) {
+			try {
+				String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+				beforeCreatedAt = LocalDateTime.parse(parts[0]);
+				beforeId = Long.parseLong(parts[1]);
+			} catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+		}
+		// One row past the page tells whether another follows. Each shard returns its own newest rows
+		// before the cursor, so the merged page is the newest of those.
+		LocalDateTime createdBound = beforeCreatedAt;
+		Long idBound = beforeId;
+		Limit limit = Limit.of(size + 1);
+		List<LowStockAlert> rows = warehouseId != null
+				? shardRouter.readInWarehouse(warehouseId, () ->
+						lowStockAlertRepository.findHistory(productId, warehouseId, resolved, createdBound, idBound, limit))
+				: new ArrayList<>(shardRouter.readEverywhere(() ->
+						lowStockAlertRepository.findHistory(productId, null, resolved, createdBound, idBound, limit)));
+		rows.sort(NEWEST_FIRST);
+		if (rows.size() <= size) {
+			return new AlertHistoryPage(rows, null);
 		}
-		lowStockAlertRepository.saveAll(existing);
+		List<LowStockAlert> content = new ArrayList<>(rows.subList(0, size));
+		LowStockAlert last = content.get(size - 1);
+		String next = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((last.getCreatedAt() + "_" + last.getId()).getBytes(StandardCharsets.UTF_8));
+		return new AlertHistoryPage(content, next);
 	}
 
 	@Override
-	public List<LowStockAlert> getActiveAlerts() {
-		return lowStockAlertRepository.findByResolvedFalse();
+	public List<AlertDailyCount> getDailyCounts(LocalDate from, LocalDate to) {
+		List<AlertDailyCount> counts = new ArrayList<>(shardRouter.readEverywhere(
+				() -> alertDailyCountRepository.findByAlertDateBetween(from, to)));
+		counts.sort(Comparator.comparing(AlertDailyCount::getAlertDate)
+				.thenComparing(AlertDailyCount::getProductId).thenComparing(AlertDailyCount::getWarehouseId));
+		return counts;
 	}
 
 	@Override
-	public List<LowStockAlert> getAllAlerts() {
-		return lowStockAlertRepository.findAll();
+	@Timed(value = "inventory.alerts.compaction", histogram = true)
+	public long compactResolvedAlerts() {
+		LocalDateTime cutoff = LocalDateTime.now().minusDays(alertProperties.getRetentionDays());
+		int batchSize = alertProperties.getCompactionBatchSize();
+		long total = 0;
+		for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+			// A transaction per batch keeps locks and undo short however far behind the compaction is
+			long compacted;
+			do {
+				compacted = shardRouter.inShard(shard, () -> jdbcTemplate.queryForObject(COMPACT, Long.class, cutoff, batchSize));
+				total += compacted;
+				alertsCompacted.increment(compacted);
+			} while (compacted == batchSize);
+		}
+		if (total > 0) {
+			log.info("Compacted {} resolved alerts older than {}", total, cutoff);
+		}
+		return total;
 	}
 
 	@Override
+	@Timed(value = "inventory.alerts.scan", histogram = true)
 	public void scanAndGenerateAlerts() {
-		List<Inventory> all = inventoryRepository.findAll();
-		for (Inventory inv : all) {
-			checkInventoryAndAlert(inv);
+		// Inventory ids in keyset order, a batch per transaction: row and outbox key locks are held for one
+		// set-based statement over a few hundred rows, and a failed batch only costs its own alerts
+		int batchSize = alertProperties.getScanBatchSize();
+		for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+			int current = shard;
+			long after = 0;
+			Long[] ids;
+			do {
+				long from = after;
+				ids = shardRouter.inShard(current, () -> jdbcTemplate.queryForList(
+						"SELECT id FROM inventory WHERE id > ? ORDER BY id LIMIT ?", Long.class, from, batchSize)
+						.toArray(Long[]::new));
+				if (ids.length == 0) {
+					break;
+				}
+				Long[] batch = ids;
+				try {
+					shardRouter.inShard(current, () -> {
+						// Rows held by a stock movement are re-evaluated by that movement, so the scan skips them
+						// rather than queue behind it or make it queue behind the batch for their key locks
+						Long[] free = jdbcTemplate.queryForList("SELECT id FROM inventory WHERE id = ANY(?) ORDER BY id "
+								+ "FOR UPDATE SKIP LOCKED", Long.class, (Object) batch).toArray(Long[]::new);
+						return free.length == 0 ? null : alertReevaluator.reevaluate("i.id = ANY(?)", (Object) free);
+					});
+				} catch (RuntimeException e) {
+					log.warn("Alert scan skipped inventory ids {}..{} on shard {}: {}", batch[0], batch[batch.length - 1],
+							current, e.getMessage());
+				}
+				after = ids[ids.length - 1];
+			} while (ids.length == batchSize);
 		}
 	}
 
+	// Outbox event in the alert's transaction; same key as the stock movements of its product and warehouse
+	private void appendEvent(String type, LowStockAlert alert) {
+		Map<String, Object> event = new LinkedHashMap<>();
+		event.put("alertId", alert.getId());
+		event.put("productId", alert.getProduct().getId());
+		event.put("warehouseId", alert.getWarehouse().getId());
+		event.put("currentStock", alert.getCurrentStock());
+		event.put("minStockLevel", alert.getMinStockLevel());
+		event.put("message", alert.getMessage());
+		event.put("createdAt", alert.getCreatedAt());
+		event.put("resolvedAt", alert.getResolvedAt());
+		outboxWriter.append(OutboxWriter.inventoryKey(alert.getProduct().getId(), alert.getWarehouse().getId()), type, event);
+	}
+
 	@Override
 	public void checkInventoryAndAlert(Inventory inventory) {
-		Integer minLevel = inventory.getProduct() != null ? inventory.getProduct().getMinStockLevel() : null;
+		Integer minLevel = inventory.getEffectiveMinStockLevel();
 		int stock = inventory.getStockLevel() == null ? 0 : inventory.getStockLevel();
 		if (minLevel != null && stock < minLevel) {
 			String msg = "Low stock: " + (inventory.getProduct() != null ? inventory.getProduct().getName() : "Product")
@@ -0,0 +1,487 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.NotificationProperties;
+import com.example.inventory.dto.AlertNotification;
+import com.example.inventory.entity.LowStockAlert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Sends newly opened low-stock alerts to webhook subscribers, as digests.
+ *
+ * Alerts are queued per subscriber once their transaction commits. Every digest window each
+ * subscriber gets what has accumulated, up to maxDigestSize, in one POST on a non-blocking HTTP
+ * client, with at most one digest in flight per subscriber; a backlog is sent digest after digest
+ * without waiting for the window. A failed digest is retried with exponential backoff and jitter
+ * and goes to the dead-letter log after maxAttempts.
+ *
+ * Each subscriber keeps up to queueCapacity alerts in memory. Beyond that, alerts are appended to
+ * segment files in the spool directory and read back in order as the queue drains, so a receiver
+ * that is down for hours costs disk rather than heap. Spooled alerts, and on shutdown the queued
+ * ones ahead of them, are sent after the next start. Delivery is at least once; receivers dedupe
+ * on digestId.
+ */
+public class LowStockNotifier implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockNotifier.class);
+    private static final Pattern SUBSCRIBER_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final NotificationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final Path spoolDirectory;
+    private final Path deadLetterFile;
+    private final int segmentLines;
+    private final HttpClient client;
+    private final ScheduledExecutorService dispatcher;
+    private final MeterRegistry meterRegistry;
+    private final Counter enqueued;
+    private final Counter spilled;
+    private final Counter dropped;
+    private final ReentrantLock deadLetterLock = new ReentrantLock();
+
+    public LowStockNotifier(NotificationProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.spoolDirectory = Path.of(properties.getSpoolDirectory());
+        this.deadLetterFile = Path.of(properties.getDeadLetterFile());
+        this.segmentLines = Math.max(1, properties.getQueueCapacity() / 10);
+        this.enqueued = meterRegistry.counter("notifications.enqueued");
+        this.spilled = meterRegistry.counter("notifications.spilled");
+        this.dropped = meterRegistry.counter("notifications.dropped");
+        if (!properties.isEnabled()) {
+            this.client = null;
+            this.dispatcher = null;
+            return;
+        }
+        for (NotificationProperties.Subscriber config : properties.getSubscribers()) {
+            // Unset URLs (e.g. an empty NOTIFY_URL) leave the subscriber out
+            if (config.getUrl() == null || config.getUrl().isBlank()) {
+                continue;
+            }
+            if (config.getName() == null || !SUBSCRIBER_NAME.matcher(config.getName()).matches()) {
+                throw new IllegalStateException("Notification subscriber name must be letters, digits, '-' or '_': " + config.getName());
+            }
+            subscribers.add(new Subscriber(config));
+        }
+        if (subscribers.isEmpty()) {
+            throw new IllegalStateException("notifications.enabled is set but no notifications.subscribers have a url");
+        }
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(properties.getRequestTimeoutMs())).build();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("low-stock-notifier").daemon(true).factory());
+        long window = properties.getDigestWindowMs();
+        dispatcher.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::dispatch), window, window, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void alertOpened(LowStockAlert alert) {
+        if (!isEnabled()) {
+            return;
+        }
+        alertsOpened(List.of(new AlertNotification(alert.getId(), alert.getProduct().getId(), alert.getProduct().getSku(),
+                alert.getProduct().getName(), alert.getWarehouse().getId(), alert.getWarehouse().getName(),
+                alert.getCurrentStock(), alert.getMinStockLevel(), alert.getMessage(), alert.getCreatedAt())));
+    }
+
+    // Queued once the surrounding transaction commits, so rolled-back alerts are never announced
+    public void alertsOpened(List<AlertNotification> notifications) {
+        if (!isEnabled() || notifications.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(notifications);
+                }
+            });
+        } else {
+            enqueue(notifications);
+        }
+    }
+
+    private void enqueue(List<AlertNotification> notifications) {
+        for (Subscriber subscriber : subscribers) {
+            for (AlertNotification notification : notifications) {
+                if (subscriber.warehouseIds.isEmpty() || subscriber.warehouseIds.contains(notification.getWarehouseId())) {
+                    subscriber.offer(notification);
+                }
+            }
+        }
+    }
+
+    private void deadLetter(Subscriber subscriber, Digest digest, String error) {
+        log.error("Notification digest {} for {} dead-lettered after {} attempts ({} alerts): {}",
+                digest.id, subscriber.name, digest.attempts, digest.alerts.size(), error);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("deadLetteredAt", LocalDateTime.now());
+        entry.put("subscriber", subscriber.name);
+        entry.put("digestId", digest.id);
+        entry.put("attempts", digest.attempts);
+        entry.put("lastError", error);
+        entry.put("alerts", digest.alerts);
+        deadLetterLock.lock();
+        try {
+            if (deadLetterFile.getParent() != null) {
+                Files.createDirectories(deadLetterFile.getParent());
+            }
+            Files.write(deadLetterFile, (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Could not write dead letter for digest {}: {}", digest.id, e.getMessage());
+        } finally {
+            deadLetterLock.unlock();
+        }
+    }
+
+    // Queued alerts, and the digest in flight, go to the spool for the next start
+    @Override
+    public void destroy() {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.spoolForRestart();
+        }
+    }
+
+    private static final class Digest {
+        final String id = UUID.randomUUID().toString();
+        final List<AlertNotification> alerts;
+        int attempts;
+
+        Digest(List<AlertNotification> alerts) {
+            this.alerts = alerts;
+        }
+    }
+
+    // All state is guarded by the subscriber's lock; requests are sent outside it. Spooling does disk I/O under
+    // the lock, so it is a ReentrantLock rather than the monitor: a virtual thread offering an alert from a
+    // request's commit waits without pinning its carrier thread.
+    private final class Subscriber {
+        final String name;
+        final URI uri;
+        final Set<Long> warehouseIds;
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<AlertNotification> queue = new ArrayDeque<>();
+        // Spool segments, oldest first; new alerts go to the last one while any exist, to keep the order
+        final ArrayDeque<Path> segments = new ArrayDeque<>();
+        long nextSegment;
+        int tailLines;
+        long spooled;
+        Digest pending;
+        boolean sending;
+        long retryAt;
+        final Counter sent;
+        final Counter failed;
+        final Counter deadLettered;
+
+        Subscriber(NotificationProperties.Subscriber config) {
+            this.name = config.getName();
+            this.uri = URI.create(config.getUrl());
+            this.warehouseIds = Set.copyOf(config.getWarehouseIds());
+            this.sent = digests("sent");
+            this.failed = digests("failed");
+            this.deadLettered = digests("dead-lettered");
+            Gauge.builder("notifications.queued", this, s -> s.queue.size()).tag("subscriber", name).register(meterRegistry);
+            Gauge.builder("notifications.spooled", this, s -> s.spooled).tag("subscriber", name).register(meterRegistry);
+            recoverSpool();
+        }
+
+        private Counter digests(String outcome) {
+            return Counter.builder("notifications.digests").tag("subscriber", name).tag("outcome", outcome).register(meterRegistry);
+        }
+
+        void offer(AlertNotification notification) {
+            enqueued.increment();
+            lock.lock();
+            try {
+                if (segments.isEmpty() && queue.size() < properties.getQueueCapacity()) {
+                    queue.add(notification);
+                    return;
+                }
+                spill(List.of(notification));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void dispatch() {
+            Digest digest;
+            lock.lock();
+            try {
+                refill();
+                if (sending) {
+                    return;
+                }
+                if (pending == null) {
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    List<AlertNotification> alerts = new ArrayList<>();
+                    while (alerts.size() < properties.getMaxDigestSize() && !queue.isEmpty()) {
+                        alerts.add(queue.poll());
+                    }
+                    pending = new Digest(alerts);
+                } else if (retryAt - System.nanoTime() > 0) {
+                    return;
+                }
+                sending = true;
+                digest = pending;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                send(digest);
+            } catch (RuntimeException | IOException e) {
+                completed(digest, null, e);
+            }
+        }
+
+        private void send(Digest digest) throws IOException {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("digestId", digest.id);
+            body.put("subscriber", name);
+            body.put("attempt", digest.attempts + 1);
+            body.put("alerts", digest.alerts);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                    .header("Content-Type", "application/json")
+                    .header("X-Digest-Id", digest.id)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> completed(digest, response, error));
+        }
+
+        private void completed(Digest digest, HttpResponse<?> response, Throwable error) {
+            String failure = error != null ? error.toString()
+                    : response.statusCode() / 100 == 2 ? null : "answered " + response.statusCode();
+            boolean more;
+            boolean exhausted = false;
+            lock.lock();
+            try {
+                sending = false;
+                digest.attempts++;
+                if (failure == null) {
+                    sent.increment();
+                    pending = null;
+                } else if (digest.attempts >= properties.getMaxAttempts()) {
+                    deadLettered.increment();
+                    pending = null;
+                    exhausted = true;
+                } else {
+                    failed.increment();
+                    long backoff = backoffMs(digest.attempts);
+                    retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+                    log.warn("Notification digest {} for {} failed (attempt {}), retrying in {} ms: {}",
+                            digest.id, name, digest.attempts, backoff, failure);
+                    schedule(this::dispatch, backoff);
+                    return;
+                }
+                // A full digest, or anything spooled, is sent right away instead of at the next window
+                more = queue.size() >= properties.getMaxDigestSize() || !segments.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+            // The digest is no longer the subscriber's, so its dead letter is written outside the lock
+            if (exhausted) {
+                deadLetter(this, digest, failure);
+            }
+            if (more) {
+                schedule(this::dispatch, 0);
+            }
+        }
+
+        private long backoffMs(int attempts) {
+            long backoff = Math.min(properties.getMaxBackoffMs(),
+                    properties.getInitialBackoffMs() << Math.min(attempts - 1, 30));
+            // Jitter keeps subscribers that failed together from retrying together
+            return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        }
+
+        private void schedule(Runnable task, long delayMs) {
+            try {
+                dispatcher.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // Shutting down; whatever is left is spooled by destroy
+            }
+        }
+
+        // Called with the lock held
+        private void spill(List<AlertNotification> notifications) {
+            try {
+                Files.createDirectories(spoolDirectory);
+                StringBuilder lines = new StringBuilder();
+                for (AlertNotification notification : notifications) {
+                    if (segments.isEmpty() || tailLines >= segmentLines) {
+                        flush(lines);
+                        segments.addLast(segmentPath(nextSegment++));
+                        tailLines = 0;
+                    }
+                    lines.append(objectMapper.writeValueAsString(notification)).append('\n');
+                    tailLines++;
+                }
+                flush(lines);
+                spooled += notifications.size();
+                spilled.increment(notifications.size());
+            } catch (IOException e) {
+                dropped.increment(notifications.size());
+                log.error("Could not spool {} alert notifications for {}: {}", notifications.size(), name, e.getMessage());
+            }
+        }
+
+        // Called with the lock held, at shutdown. The queue is older than everything already spooled,
+        // so the spooled segments move up by as many numbers as the queue needs and it takes the gap.
+        private void spillAhead(List<AlertNotification> notifications) {
+            if (segments.isEmpty()) {
+                spill(notifications);
+                return;
+            }
+            int needed = (notifications.size() + segmentLines - 1) / segmentLines;
+            List<Path> spooledSegments = new ArrayList<>(segments);
+            try {
+                // Newest first, so no segment is moved onto one that has not moved yet
+                for (int i = spooledSegments.size() - 1; i >= 0; i--) {
+                    Path moved = segmentPath(segmentNumber(spooledSegments.get(i)) + needed);
+                    Files.move(spooledSegments.get(i), moved);
+                    spooledSegments.set(i, moved);
+                }
+            } catch (IOException e) {
+                // The spooled segments keep their order; only the queue lands behind them
+                log.error("Could not renumber the notification spool for {}, queued alerts replay last: {}", name, e.getMessage());
+                segments.clear();
+                segments.addAll(spooledSegments);
+                spill(notifications);
+                return;
+            }
+            long resumeAt = nextSegment + needed;
+            segments.clear();
+            nextSegment = segmentNumber(spooledSegments.get(0)) - needed;
+            spill(notifications);
+            segments.addAll(spooledSegments);
+            nextSegment = resumeAt;
+            tailLines = segmentLines;
+        }
+
+        private Path segmentPath(long number) {
+            return spoolDirectory.resolve(String.format("%s-%019d.jsonl", name, number));
+        }
+
+        private long segmentNumber(Path segment) {
+            return Long.parseLong(segment.getFileName().toString().substring(name.length() + 1, name.length() + 20));
+        }
+
+        private void flush(StringBuilder lines) throws IOException {
+            if (!lines.isEmpty()) {
+                Files.writeString(segments.getLast(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                lines.setLength(0);
+            }
+        }
+
+        // Called with the lock held; moves whole segments back into memory while they fit
+        private void refill() {
+            while (!segments.isEmpty() && queue.size() + segmentLines <= properties.getQueueCapacity()) {
+                Path oldest = segments.pollFirst();
+                try {
+                    List<String> lines = Files.readAllLines(oldest, StandardCharsets.UTF_8);
+                    for (String line : lines) {
+                        queue.add(objectMapper.readValue(line, AlertNotification.class));
+                    }
+                    spooled -= lines.size();
+                    Files.delete(oldest);
+                } catch (IOException e) {
+                    log.error("Unreadable notification spool segment {} set aside: {}", oldest, e.getMessage());
+                    try {
+                        Files.move(oldest, oldest.resolveSibling(oldest.getFileName() + ".unreadable"));
+                    } catch (IOException ignored) {
+                        // Stays in place and is retried at the next start
+                    }
+                }
+            }
+            if (segments.isEmpty()) {
+                tailLines = 0;
+            }
+        }
+
+        private void recoverSpool() {
+            if (!Files.isDirectory(spoolDirectory)) {
+                return;
+            }
+            Pattern segment = Pattern.compile(Pattern.quote(name) + "-(\\d{19})\\.jsonl");
+            try (Stream<Path> files = Files.list(spoolDirectory)) {
+                for (Path file : files.filter(f -> segment.matcher(f.getFileName().toString()).matches()).sorted().toList()) {
+                    segments.addLast(file);
+                    try (Stream<String> lines = Files.lines(file)) {
+                        spooled += lines.count();
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read notification spool " + spoolDirectory + ": " + e.getMessage(), e);
+            }
+            if (!segments.isEmpty()) {
+                nextSegment = segmentNumber(segments.getLast()) + 1;
+                // New alerts start a segment of their own behind the recovered ones
+                tailLines = segmentLines;
+                log.info("Notification spool for {} holds {} alerts from before the restart", name, spooled);
+            }
+        }
+
+        void spoolForRestart() {
+            lock.lock();
+            try {
+                List<AlertNotification> left = new ArrayList<>();
+                if (pending != null) {
+                    left.addAll(pending.alerts);
+                }
+                left.addAll(queue);
+                queue.clear();
+                if (!left.isEmpty()) {
+                    spillAhead(left);
+                    log.info("Spooled {} unsent alert notifications for {}", left.size(), name);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
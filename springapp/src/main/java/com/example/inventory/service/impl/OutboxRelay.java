@@ -0,0 +1,160 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.OutboxProperties;
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.entity.OutboxEvent;
+import com.example.inventory.service.OutboxSink;
+import com.example.inventory.util.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers outbox events to the sinks and deletes them once every sink has them.
+ *
+ * Each round claims up to batchSize due events per shard with FOR UPDATE SKIP LOCKED, so relay
+ * threads and application instances never claim the same row. Of the claimed rows, only those with
+ * no older pending event of the same key are delivered; the rest wait for a later round. Delivery
+ * and delete share the claim's transaction, so a crash or a failed sink leaves the rows in place
+ * for the next round. Delivery is at least once: a batch that failed on one sink is sent again to
+ * all of them. Rounds run against the report partition's connection pool, so a backlog never takes
+ * connections from request reads.
+ */
+public class OutboxRelay implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String CLAIM = "WITH claimed AS ("
+            + "SELECT id, event_key FROM outbox_events WHERE next_attempt_at <= localtimestamp "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "SELECT o.id, o.event_key, o.event_type, o.payload, o.created_at FROM outbox_events o JOIN claimed c ON c.id = o.id "
+            // An older event of the key outside this batch is in backoff or held by another relay
+            + "WHERE NOT EXISTS (SELECT 1 FROM outbox_events e WHERE e.event_key = c.event_key AND e.id < c.id "
+            + "AND e.id NOT IN (SELECT id FROM claimed)) ORDER BY o.id";
+
+    private static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> OutboxEvent.builder()
+            .id(rs.getLong("id"))
+            .key(rs.getString("event_key"))
+            .type(rs.getString("event_type"))
+            .payload(rs.getString("payload"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .build();
+
+    private final OutboxProperties properties;
+    private final List<OutboxSink> sinks;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final ExecutorService relayThreads;
+    private final Counter delivered;
+    private final Counter failedBatches;
+    private final Timer deliveryLag;
+    private volatile boolean running = true;
+
+    public OutboxRelay(OutboxProperties properties, List<OutboxSink> sinks, ShardRouter shardRouter,
+                       JdbcTemplate jdbcTemplate, BulkheadExecutor bulkheadExecutor, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sinks = List.copyOf(sinks);
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.relayThreads = Executors.newFixedThreadPool(properties.getRelayThreads(),
+                Thread.ofPlatform().name("outbox-relay-", 1).factory());
+        this.delivered = meterRegistry.counter("outbox.delivered");
+        this.failedBatches = meterRegistry.counter("outbox.delivery.failures");
+        this.deliveryLag = Timer.builder("outbox.delivery.lag").description("From commit of the change to delivery of its event")
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    // Starts once the shards have their tables and the server takes requests
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Outbox relay delivering to {} on {} thread(s)",
+                sinks.stream().map(OutboxSink::name).toList(), properties.getRelayThreads());
+        for (int i = 0; i < properties.getRelayThreads(); i++) {
+            relayThreads.submit(this::relay);
+        }
+    }
+
+    private void relay() {
+        while (running) {
+            int count = 0;
+            try {
+                count = bulkheadExecutor.callIn(Bulkhead.REPORT, this::deliverRound);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox relay round failed: {}", e.getMessage());
+            }
+            // Keep draining while there is work; idle or failing rounds wait for the next poll
+            if (count == 0) {
+                try {
+                    Thread.sleep(properties.getPollIntervalMs());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // One batch per shard, each in its own transaction
+    int deliverRound() {
+        AtomicInteger count = new AtomicInteger();
+        shardRouter.inEveryShard(() -> count.addAndGet(deliverBatch()));
+        return count.get();
+    }
+
+    private int deliverBatch() {
+        List<OutboxEvent> events = jdbcTemplate.query(CLAIM, EVENT, properties.getBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = events.stream().map(OutboxEvent::getId).toArray(Long[]::new);
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.deliver(events);
+            } catch (Exception e) {
+                failedBatches.increment();
+                log.warn("Outbox sink {} failed on {} events (ids {}..{}): {}", sink.name(), events.size(),
+                        ids[0], ids[ids.length - 1], e.toString());
+                jdbcTemplate.update("UPDATE outbox_events SET attempts = attempts + 1, last_error = left(?, 1000), "
+                                + "next_attempt_at = localtimestamp + least(? * power(2, least(attempts, 30)), ?) * interval '1 millisecond' "
+                                + "WHERE id = ANY(?)", sink.name() + ": " + e, properties.getRetryBackoffMs(),
+                        properties.getMaxRetryBackoffMs(), ids);
+                return 0;
+            }
+        }
+        // Lag on the database clock that stamped created_at, not the JVM's, read as the rows go
+        List<Long> lagMillis = jdbcTemplate.queryForList("DELETE FROM outbox_events WHERE id = ANY(?) "
+                + "RETURNING (extract(epoch FROM clock_timestamp()::timestamp - created_at) * 1000)::bigint",
+                Long.class, (Object) ids);
+        for (Long lag : lagMillis) {
+            deliveryLag.record(Math.max(0, lag), TimeUnit.MILLISECONDS);
+        }
+        delivered.increment(events.size());
+        return events.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        relayThreads.shutdownNow();
+        relayThreads.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.OutboxProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Appends stock and alert events to the outbox table, in the transaction of the change they
+ * describe, so an event exists exactly when its change committed.
+ *
+ * Each append takes a transaction-scoped advisory lock on the event key first. Writers of one key
+ * therefore insert and commit in the same order, and ids within a key follow commit order, which
+ * is what lets OutboxRelay deliver a key's events in id order without gaps.
+ */
+@Component
+public class OutboxWriter {
+
+    // First half of the two-part advisory lock key, so event keys cannot collide with other advisory locks
+    private static final int KEY_LOCK_SPACE = 0x0B0C;
+    private static final String INSERT = "INSERT INTO outbox_events (event_key, event_type, payload, created_at, attempts, next_attempt_at) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OutboxProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Stock movements and alerts of one product in one warehouse share a key, so they arrive in the order they happened
+    public static String inventoryKey(Long productId, Long warehouseId) {
+        return "inventory:" + productId + ":" + warehouseId;
+    }
+
+    public void append(String key, String type, Map<String, Object> payload) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be written in the transaction of their change");
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + type + " event: " + e.getMessage(), e);
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))", rs -> { }, KEY_LOCK_SPACE, key);
+        jdbcTemplate.update(INSERT + "VALUES (?, ?, ?, localtimestamp, 0, localtimestamp)", key, type, json);
+    }
+
+    // Set-based counterpart of the lock in append, for statements that change many products of one warehouse.
+    // Locks are taken in product order so two such statements cannot deadlock each other.
+    public void lockInventoryKeys(String productIdsQuery, Long warehouseId, Object... args) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(" + KEY_LOCK_SPACE + ", hashtext('inventory:' || k.product_id || ':' || "
+                + warehouseId + ")) FROM (" + productIdsQuery + ") k ORDER BY k.product_id", rs -> { }, args);
+    }
+
+    // As above for keys across warehouses: the query returns product_id and warehouse_id. Locks are taken in
+    // warehouse, then product order, the order of the alert scan.
+    public void lockInventoryKeyPairs(String keysQuery, Object... args) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(" + KEY_LOCK_SPACE + ", hashtext('inventory:' || k.product_id || ':' || "
+                + "k.warehouse_id)) FROM (" + keysQuery + ") k ORDER BY k.warehouse_id, k.product_id", rs -> { }, args);
+    }
+
+    /**
+     * Extends a data-modifying statement so that it also appends one event per modified row, or returns it
+     * unchanged when the outbox is off. The key and payload are SQL expressions over the returned columns;
+     * the update count is still the number of modified rows.
+     */
+    public String withInventoryEvents(String statement, String returning, String type, String payload) {
+        if (!enabled) {
+            return statement;
+        }
+        return "WITH changed AS (" + statement + " RETURNING " + returning + ") " + eventsFrom("changed", type, payload);
+    }
+
+    /**
+     * Insert appending one event per row of the named CTE, which has product_id and warehouse_id columns,
+     * for statements that write several kinds of change at once; null when the outbox is off.
+     */
+    public String eventsFrom(String changed, String type, String payload) {
+        if (!enabled) {
+            return null;
+        }
+        return INSERT + "SELECT 'inventory:' || product_id || ':' || warehouse_id, '" + type + "', (" + payload + ")::text, "
+                + "localtimestamp, 0, localtimestamp FROM " + changed;
+    }
+}
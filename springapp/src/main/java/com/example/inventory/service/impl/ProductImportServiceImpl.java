@@ -0,0 +1,267 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ImportResult;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.SupplierRepository;
+import com.example.inventory.service.ProductImportService;
+import com.example.inventory.util.CsvReader;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(sku, name, category, unit, price, description, supplier_id, min_stock_level) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (sku) DO NOTHING";
+
+    private final ProductRepository productRepository;
+    private final SupplierRepository supplierRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductSearchIndex productSearchIndex;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    SupplierRepository supplierRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ProductSearchIndex productSearchIndex) {
+        this.productRepository = productRepository;
+        this.supplierRepository = supplierRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    @Override
+    public ImportResult importProducts(InputStream csv) {
+        ImportResult result = new ImportResult();
+        // Supplier id -> exists; grows with the number of distinct suppliers, not with the file
+        Map<Long, Boolean> knownSuppliers = new HashMap<>();
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = readHeader(reader.next());
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while (true) {
+                try {
+                    record = reader.next();
+                } catch (IOException e) {
+                    // Earlier chunks are already committed: finish the rows read so far and
+                    // report where the upload broke off rather than discarding the report
+                    flush(chunk, knownSuppliers, result);
+                    result.stop(reader.getRecordNumber() + 1, e.getMessage());
+                    return result;
+                }
+                if (record == null) {
+                    break;
+                }
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                result.setTotalRows(result.getTotalRows() + 1);
+                Row row = parseRow(reader.getRecordNumber(), record, columns, result);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk, knownSuppliers, result);
+                    chunk.clear();
+                }
+            }
+            flush(chunk, knownSuppliers, result);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read CSV upload: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    private Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new RuntimeException("CSV upload is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Strip a UTF-8 byte order mark left by spreadsheet exports
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase();
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("sku") || !columns.containsKey("name")) {
+            throw new RuntimeException("CSV header must contain sku and name columns");
+        }
+        return columns;
+    }
+
+    private Row parseRow(long rowNumber, List<String> record, Map<String, Integer> columns, ImportResult result) {
+        String sku = column(record, columns, "sku");
+        try {
+            String name = column(record, columns, "name");
+            if (sku == null || name == null) {
+                throw new IllegalArgumentException("sku and name are required");
+            }
+            String description = column(record, columns, "description");
+            String category = column(record, columns, "category");
+            String unit = column(record, columns, "unit");
+            for (String text : new String[]{sku, name, category, unit}) {
+                if (text != null && text.length() > MAX_TEXT_LENGTH) {
+                    throw new IllegalArgumentException("Value longer than " + MAX_TEXT_LENGTH + " characters");
+                }
+            }
+            String price = column(record, columns, "price");
+            String supplierId = column(record, columns, "supplierid");
+            String minStockLevel = column(record, columns, "minstocklevel");
+            return new Row(rowNumber, sku, name, category, unit,
+                    price == null ? null : Double.valueOf(price),
+                    description,
+                    supplierId == null ? null : Long.valueOf(supplierId),
+                    minStockLevel == null ? null : Integer.valueOf(minStockLevel));
+        } catch (NumberFormatException e) {
+            result.addError(rowNumber, sku, "Invalid numeric value: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            result.addError(rowNumber, sku, e.getMessage());
+        }
+        return null;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void flush(List<Row> chunk, Map<Long, Boolean> knownSuppliers, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // First occurrence of a SKU wins; later chunks are deduped by the database lookup below
+        Map<String, Row> bySku = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            if (bySku.putIfAbsent(row.sku, row) != null) {
+                result.addError(row.rowNumber, row.sku, "Duplicate SKU in upload");
+            }
+        }
+
+        Set<String> existingSkus = productRepository.findExistingSkus(bySku.keySet());
+        resolveSuppliers(bySku.values(), knownSuppliers);
+
+        List<Row> toInsert = new ArrayList<>(bySku.size());
+        for (Row row : bySku.values()) {
+            if (existingSkus.contains(row.sku)) {
+                result.addError(row.rowNumber, row.sku, "SKU already exists");
+            } else if (row.supplierId != null && !knownSuppliers.get(row.supplierId)) {
+                result.addError(row.rowNumber, row.sku, "Supplier not found with id: " + row.supplierId);
+            } else {
+                toInsert.add(row);
+            }
+        }
+
+        List<String> inserted = insert(toInsert, result);
+        result.setImported(result.getImported() + inserted.size());
+        if (!inserted.isEmpty()) {
+            productSearchIndex.putAll(productRepository.findBySkuInWithSupplier(inserted));
+        }
+    }
+
+    // Looks up each supplier id once per import
+    private void resolveSuppliers(Iterable<Row> rows, Map<Long, Boolean> knownSuppliers) {
+        Set<Long> unknown = new HashSet<>();
+        for (Row row : rows) {
+            if (row.supplierId != null && !knownSuppliers.containsKey(row.supplierId)) {
+                unknown.add(row.supplierId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Set<Long> found = new HashSet<>(supplierRepository.findExistingIds(unknown));
+        for (Long id : unknown) {
+            knownSuppliers.put(id, found.contains(id));
+        }
+    }
+
+    // One JDBC batch per chunk, committed on its own. If the batch fails, rows are retried
+    // one by one so a single bad row does not sink the rest of the chunk.
+    private List<String> insert(List<Row> rows, ImportResult result) {
+        List<String> inserted = new ArrayList<>(rows.size());
+        if (rows.isEmpty()) {
+            return inserted;
+        }
+        try {
+            int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, rows.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }));
+            for (int i = 0; i < rows.size(); i++) {
+                recordOutcome(rows.get(i), counts[i], inserted, result);
+            }
+        } catch (DataAccessException batchFailure) {
+            for (Row row : rows) {
+                try {
+                    Integer count = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row)));
+                    recordOutcome(row, count, inserted, result);
+                } catch (DataAccessException e) {
+                    result.addError(row.rowNumber, row.sku, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static void recordOutcome(Row row, int count, List<String> inserted, ImportResult result) {
+        if (count == 0) {
+            // Lost a race with a concurrent insert of the same SKU
+            result.addError(row.rowNumber, row.sku, "SKU already exists");
+        } else if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+            inserted.add(row.sku);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Row row) throws SQLException {
+        ps.setString(1, row.sku);
+        ps.setString(2, row.name);
+        ps.setString(3, row.category);
+        ps.setString(4, row.unit);
+        ps.setObject(5, row.price, Types.DOUBLE);
+        ps.setString(6, row.description);
+        ps.setObject(7, row.supplierId, Types.BIGINT);
+        ps.setObject(8, row.minStockLevel, Types.INTEGER);
+    }
+
+    private record Row(long rowNumber, String sku, String name, String category, String unit,
+                       Double price, String description, Long supplierId, Integer minStockLevel) {
+    }
+}
@@ -0,0 +1,639 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.dto.ProductSearchHit;
+import com.example.inventory.entity.Product;
+import com.example.inventory.util.Bulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over product SKU, name, category and supplier name.
+ *
+ * Documents live in append-only slots. Each slot is registered in a trigram posting list
+ * (for substring matches) and in two sorted maps keyed by SKU and name (for prefix matches,
+ * including queries shorter than three characters). Updates tombstone the old slot and append
+ * a new one; the structures are compacted once tombstones outnumber live documents.
+ *
+ * The index is filled from the database in the background after startup. The product and supplier
+ * services update it on every write of this instance; writes of other instances, and bulk SQL,
+ * reach it through the product_search_changes log (see ProductSearchSchema), which refresh() polls.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    // Per-query work bounds, so very unselective queries stay cheap
+    static final int MAX_CANDIDATES = 2048;
+    static final int MAX_POSTINGS_SCANNED = 32_768;
+    // Best score a match can get outside the SKU and name prefix tiers
+    private static final int MAX_SUBSTRING_SCORE = 60;
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+    // Changes older than this are pruned from the log; an instance that could not poll for as long reloads
+    private static final Duration CHANGE_RETENTION = Duration.ofHours(1);
+    // Oldest transaction possibly still running: every change below it is in the snapshot that follows
+    private static final String SNAPSHOT_XMIN = "SELECT txid_snapshot_xmin(txid_current_snapshot())";
+    private static final String SELECT_ENTRIES = "SELECT p.id, p.sku, p.name, p.category, p.supplier_id, "
+            + "s.name AS supplier_name FROM products p LEFT JOIN suppliers s ON s.id = p.supplier_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate readWriteTx;
+    private final BulkheadExecutor bulkheadExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Doc[] docs = new Doc[1024];
+    private int slotCount;
+    private int liveCount;
+    private final Map<Long, Integer> slotByProductId = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final NavigableMap<String, IntList> skuIndex = new TreeMap<>();
+    private final NavigableMap<String, IntList> nameIndex = new TreeMap<>();
+
+    // Products written while the initial load is running; the loader must not overwrite them
+    private Set<Long> touchedDuringLoad;
+    private volatile boolean ready;
+    // Changes of transactions from this id on are read at the next refresh; only the loader and refresh() touch them
+    private volatile long changesFromTxid;
+    private volatile long lastRefreshNanos;
+
+    public ProductSearchIndex(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              BulkheadExecutor bulkheadExecutor) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // On the primary, where the change log is written and pruned
+        this.readWriteTx = new TransactionTemplate(transactionManager);
+        this.bulkheadExecutor = bulkheadExecutor;
+    }
+
+    // Runs on the application task executor so startup is not held up by the product table, and on the
+    // report partition's connections, as does refresh(), so neither competes with request reads
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        bulkheadExecutor.callIn(Bulkhead.REPORT, () -> {
+            load();
+            return null;
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rebuilds the index from the products table, streaming rows through a server-side cursor
+    public void load() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            touchedDuringLoad = new HashSet<>();
+            docs = new Doc[1024];
+            slotCount = 0;
+            liveCount = 0;
+            slotByProductId.clear();
+            postings.clear();
+            skuIndex.clear();
+            nameIndex.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Entry> batch = new ArrayList<>(1000);
+            long fromTxid = readOnlyTx.execute(status -> {
+                // Before the scan: a change committing meanwhile is either in it or read again by refresh()
+                Long xmin = jdbcTemplate.queryForObject(SNAPSHOT_XMIN, Long.class);
+                jdbcTemplate.query(SELECT_ENTRIES, rs -> {
+                    batch.add(entry(rs));
+                    if (batch.size() == 1000) {
+                        putLoaded(batch);
+                        batch.clear();
+                    }
+                });
+                return xmin;
+            });
+            putLoaded(batch);
+            changesFromTxid = fromTxid;
+            lastRefreshNanos = System.nanoTime();
+            log.info("Product search index loaded {} products in {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Product search index load failed; search falls back to the database", e);
+            return;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+    }
+
+    /**
+     * Applies the products changed since the last refresh by any writer, re-reading each from the catalog:
+     * present ones are re-indexed, deleted ones removed. Changes of transactions that were still running at the
+     * previous refresh are read again, so one committing late is not missed; re-applying is harmless.
+     */
+    @Scheduled(fixedDelayString = "${search.refresh-delay-ms:5000}", initialDelayString = "${search.refresh-delay-ms:5000}")
+    public void refresh() {
+        if (ready) {
+            bulkheadExecutor.callIn(Bulkhead.REPORT, () -> {
+                applyLoggedChanges();
+                return null;
+            });
+        }
+    }
+
+    private void applyLoggedChanges() {
+        if (System.nanoTime() - lastRefreshNanos > CHANGE_RETENTION.toNanos()) {
+            log.warn("Product search index missed changes for over {}; reloading", CHANGE_RETENTION);
+            load();
+            return;
+        }
+        try {
+            Map<Long, Entry> changed = new HashMap<>();
+            long nextFromTxid = readWriteTx.execute(status -> {
+                Long xmin = jdbcTemplate.queryForObject(SNAPSHOT_XMIN, Long.class);
+                Long[] productIds = jdbcTemplate.queryForList("SELECT DISTINCT product_id FROM product_search_changes "
+                        + "WHERE txid >= ?", Long.class, changesFromTxid).toArray(Long[]::new);
+                for (Long productId : productIds) {
+                    changed.put(productId, null);
+                }
+                if (productIds.length > 0) {
+                    jdbcTemplate.query(SELECT_ENTRIES + " WHERE p.id = ANY(?)", rs -> {
+                        Entry entry = entry(rs);
+                        changed.put(entry.productId, entry);
+                    }, (Object) productIds);
+                }
+                jdbcTemplate.update("DELETE FROM product_search_changes WHERE changed_at < now() - make_interval(secs => ?)",
+                        CHANGE_RETENTION.toSeconds());
+                return xmin;
+            });
+            applyChanges(changed);
+            changesFromTxid = nextFromTxid;
+            lastRefreshNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            log.warn("Product search index refresh failed; retrying at the next one", e);
+        }
+    }
+
+    // Entries to re-index by product id; a null entry is a deleted product
+    private void applyChanges(Map<Long, Entry> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changed.forEach((productId, entry) -> {
+                if (entry != null) {
+                    upsert(entry);
+                } else {
+                    Integer slot = slotByProductId.remove(productId);
+                    if (slot != null) {
+                        tombstone(slot);
+                    }
+                }
+            });
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        long supplierId = rs.getLong("supplier_id");
+        Long nullableSupplierId = rs.wasNull() ? null : supplierId;
+        return new Entry(rs.getLong("id"), rs.getString("sku"), rs.getString("name"),
+                rs.getString("category"), nullableSupplierId, rs.getString("supplier_name"));
+    }
+
+    private void putLoaded(List<Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries) {
+                if (!touchedDuringLoad.contains(entry.productId)) {
+                    upsert(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Product product) {
+        putAll(List.of(product));
+    }
+
+    public void putAll(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product.getId() == null) {
+                    continue;
+                }
+                markTouched(product.getId());
+                upsert(new Entry(product.getId(), product.getSku(), product.getName(), product.getCategory(),
+                        product.getSupplier() != null ? product.getSupplier().getId() : null,
+                        product.getSupplier() != null ? product.getSupplier().getName() : null));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            markTouched(productId);
+            Integer slot = slotByProductId.remove(productId);
+            if (slot != null) {
+                tombstone(slot);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Re-indexes every product of a supplier after the supplier was renamed
+    public void renameSupplier(Long supplierId, String supplierName) {
+        lock.writeLock().lock();
+        try {
+            List<Entry> affected = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                Doc doc = docs[slot];
+                if (doc.live && supplierId.equals(doc.entry.supplierId)) {
+                    affected.add(new Entry(doc.entry.productId, doc.entry.sku, doc.entry.name,
+                            doc.entry.category, supplierId, supplierName));
+                }
+            }
+            for (Entry entry : affected) {
+                markTouched(entry.productId);
+                upsert(entry);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search. Scores, highest first: exact SKU, SKU prefix, name prefix, name word prefix,
+     * name substring, SKU substring, category, supplier name. Ties go to the shorter name.
+     */
+    public List<ProductSearchHit> search(String query, String category, int limit) {
+        String q = normalize(query);
+        if (q == null || limit <= 0) {
+            return List.of();
+        }
+        String categoryFilter = normalize(category);
+        TopHits top = new TopHits(limit);
+
+        lock.readLock().lock();
+        try {
+            // Prefix tiers come from the sorted maps, so they are exact even when the trigram scan is capped
+            Set<Integer> prefixMatches = new HashSet<>();
+            collectPrefix(skuIndex, q, categoryFilter, limit, prefixMatches, top);
+            collectPrefix(nameIndex, q, categoryFilter, limit, prefixMatches, top);
+            boolean prefixTiersFilled = top.isFull() && top.lowestScore() >= MAX_SUBSTRING_SCORE;
+            if (q.length() >= 3 && !prefixTiersFilled) {
+                collectTrigramMatches(q, categoryFilter, top);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.toSortedList();
+    }
+
+    private void collectPrefix(NavigableMap<String, IntList> index, String q, String categoryFilter,
+                               int limit, Set<Integer> matches, TopHits top) {
+        int matched = 0;
+        int scanned = 0;
+        for (IntList slots : index.subMap(q, true, q + Character.MAX_VALUE, true).values()) {
+            for (int i = 0; i < slots.size; i++) {
+                if (matched >= limit || ++scanned > MAX_CANDIDATES) {
+                    return;
+                }
+                Doc doc = docs[slots.values[i]];
+                if (matchesCategory(doc, categoryFilter) && matches.add(slots.values[i])) {
+                    top.offer(doc, score(doc, q));
+                    matched++;
+                }
+            }
+        }
+    }
+
+    private void collectTrigramMatches(String q, String categoryFilter, TopHits top) {
+        long[] grams = trigrams(q).stream().mapToLong(Long::longValue).toArray();
+        IntList[] lists = new IntList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        IntList driver = lists[0];
+        int[] cursors = new int[lists.length];
+        int verified = 0;
+        int scanLimit = Math.min(driver.size, MAX_POSTINGS_SCANNED);
+        outer:
+        for (int i = 0; i < scanLimit && verified < MAX_CANDIDATES; i++) {
+            int slot = driver.values[i];
+            for (int l = 1; l < lists.length; l++) {
+                int pos = lists[l].gallop(cursors[l], slot);
+                if (pos < 0) {
+                    cursors[l] = -pos - 1;
+                    continue outer;
+                }
+                cursors[l] = pos;
+            }
+            Doc doc = docs[slot];
+            if (!doc.live || !matchesCategory(doc, categoryFilter)) {
+                continue;
+            }
+            verified++;
+            int score = score(doc, q);
+            // Prefix-tier matches were already offered from the sorted maps
+            if (score > 0 && score <= MAX_SUBSTRING_SCORE) {
+                top.offer(doc, score);
+            }
+        }
+    }
+
+    static int score(Doc doc, String q) {
+        if (doc.skuLc.equals(q)) {
+            return 100;
+        }
+        if (doc.skuLc.startsWith(q)) {
+            return 90;
+        }
+        int namePos = doc.nameLc.indexOf(q);
+        if (namePos == 0) {
+            return 70;
+        }
+        if (namePos > 0) {
+            return Character.isLetterOrDigit(doc.nameLc.charAt(namePos - 1)) ? 50 : 60;
+        }
+        if (doc.skuLc.contains(q)) {
+            return 40;
+        }
+        if (doc.categoryLc != null && doc.categoryLc.contains(q)) {
+            return 30;
+        }
+        if (doc.supplierLc != null && doc.supplierLc.contains(q)) {
+            return 20;
+        }
+        return 0;
+    }
+
+    private static boolean matchesCategory(Doc doc, String categoryFilter) {
+        return categoryFilter == null || categoryFilter.equals(doc.categoryLc);
+    }
+
+    // ===== Index maintenance (caller holds the write lock) =====
+
+    private void markTouched(Long productId) {
+        if (touchedDuringLoad != null) {
+            touchedDuringLoad.add(productId);
+        }
+    }
+
+    private void upsert(Entry entry) {
+        Integer previous = slotByProductId.get(entry.productId);
+        if (previous != null) {
+            tombstone(previous);
+        }
+        int slot = append(entry);
+        slotByProductId.put(entry.productId, slot);
+    }
+
+    private int append(Entry entry) {
+        if (slotCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int slot = slotCount++;
+        Doc doc = new Doc(entry);
+        docs[slot] = doc;
+        liveCount++;
+
+        Set<Long> grams = new HashSet<>();
+        addTrigrams(doc.skuLc, grams);
+        addTrigrams(doc.nameLc, grams);
+        addTrigrams(doc.categoryLc, grams);
+        addTrigrams(doc.supplierLc, grams);
+        for (Long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(slot);
+        }
+        skuIndex.computeIfAbsent(doc.skuLc, k -> new IntList()).add(slot);
+        nameIndex.computeIfAbsent(doc.nameLc, k -> new IntList()).add(slot);
+        return slot;
+    }
+
+    private void tombstone(int slot) {
+        Doc doc = docs[slot];
+        if (!doc.live) {
+            return;
+        }
+        doc.live = false;
+        liveCount--;
+        removeFromSortedIndex(skuIndex, doc.skuLc, slot);
+        removeFromSortedIndex(nameIndex, doc.nameLc, slot);
+    }
+
+    private static void removeFromSortedIndex(NavigableMap<String, IntList> index, String key, int slot) {
+        IntList slots = index.get(key);
+        if (slots != null && slots.remove(slot) && slots.size == 0) {
+            index.remove(key);
+        }
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = slotCount - liveCount;
+        if (tombstones < MIN_COMPACT_TOMBSTONES || tombstones < liveCount) {
+            return;
+        }
+        Doc[] old = docs;
+        int oldCount = slotCount;
+        docs = new Doc[Math.max(1024, liveCount * 2)];
+        slotCount = 0;
+        liveCount = 0;
+        slotByProductId.clear();
+        postings.clear();
+        skuIndex.clear();
+        nameIndex.clear();
+        for (int slot = 0; slot < oldCount; slot++) {
+            if (old[slot].live) {
+                upsert(old[slot].entry);
+            }
+        }
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        addTrigrams(text, grams);
+        return grams;
+    }
+
+    private static void addTrigrams(String text, Set<Long> grams) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim().toLowerCase();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // ===== Internal structures =====
+
+    record Entry(Long productId, String sku, String name, String category, Long supplierId, String supplierName) {
+    }
+
+    static final class Doc {
+        final Entry entry;
+        final String skuLc;
+        final String nameLc;
+        final String categoryLc;
+        final String supplierLc;
+        boolean live = true;
+
+        Doc(Entry entry) {
+            this.entry = entry;
+            this.skuLc = entry.sku == null ? "" : entry.sku.toLowerCase();
+            this.nameLc = entry.name == null ? "" : entry.name.toLowerCase();
+            this.categoryLc = normalize(entry.category);
+            this.supplierLc = normalize(entry.supplierName);
+        }
+    }
+
+    // Growable int array; slots are appended in increasing order, so every list stays sorted
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+
+        // Exponential search for value starting at from; same return convention as Arrays.binarySearch
+        int gallop(int from, int value) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && values[high] < value) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(values, low, Math.min(high + 1, size), value);
+        }
+
+        boolean remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private static final class TopHits {
+        private static final Comparator<Hit> RANK = Comparator.comparingInt((Hit h) -> h.score)
+                .thenComparing(Comparator.comparingInt((Hit h) -> h.doc.nameLc.length()).reversed())
+                .thenComparing(Comparator.comparingLong((Hit h) -> h.doc.entry.productId).reversed());
+
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, RANK);
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        int lowestScore() {
+            return heap.isEmpty() ? 0 : heap.peek().score;
+        }
+
+        void offer(Doc doc, int score) {
+            Hit hit = new Hit(doc, score);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RANK.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<ProductSearchHit> toSortedList() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(RANK.reversed());
+            List<ProductSearchHit> result = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                Entry e = hit.doc.entry;
+                result.add(new ProductSearchHit(e.productId, e.sku, e.name, e.category, e.supplierName, hit.score));
+            }
+            return result;
+        }
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+}
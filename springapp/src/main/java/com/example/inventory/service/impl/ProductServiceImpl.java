@@ -1,26 +1,58 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.dto.ProductSearchHit;
+import com.example.inventory.dto.ThresholdUpdateResult;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.Supplier;
+import com.example.inventory.repository.InventoryRepository;
 import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.StockHistoryRepository;
 import com.example.inventory.repository.SupplierRepository;
 import com.example.inventory.service.ProductService;
+import com.example.inventory.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+
     private final ProductRepository productRepository;
     private final SupplierRepository supplierRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryRepository inventoryRepository;
+    private final StockHistoryRepository stockHistoryRepository;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final AlertReevaluator alertReevaluator;
     
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, SupplierRepository supplierRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, SupplierRepository supplierRepository,
+                              ProductSearchIndex productSearchIndex, InventoryRepository inventoryRepository,
+                              StockHistoryRepository stockHistoryRepository, ShardRouter shardRouter,
+                              JdbcTemplate jdbcTemplate, AlertReevaluator alertReevaluator) {
         this.productRepository = productRepository;
         this.supplierRepository = supplierRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.inventoryRepository = inventoryRepository;
+        this.stockHistoryRepository = stockHistoryRepository;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.alertReevaluator = alertReevaluator;
     }
 
     @Override
@@ -34,31 +66,69 @@ public class ProductServiceImpl implements ProductService {
         } else {
             product.setSupplier(null);
         }
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productSearchIndex.put(saved);
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Product> getProductBySku(String sku) {
         return productRepository.findBySku(sku);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
     @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    public Slice<Product> getProducts(Pageable pageable, boolean withCount) {
+        return withCount ? productRepository.findAll(pageable) : productRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public List<ProductSearchHit> searchProducts(String query, String category, int limit) {
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(query, category, limit);
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String categoryFilter = category == null || category.isBlank() ? null : category.trim().toLowerCase();
+        return productRepository.searchBySkuPrefixOrName(escapeLike(query.trim().toLowerCase()), categoryFilter, PageRequest.of(0, limit))
+                .stream()
+                .map(p -> new ProductSearchHit(p.getId(), p.getSku(), p.getName(), p.getCategory(),
+                        p.getSupplier() != null ? p.getSupplier().getName() : null, 0))
+                .collect(Collectors.toList());
+    }
+
+    // A '%' or '_' typed into the search box is meant literally, not as a pattern
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     @Override
     public void deleteProductById(Long id) {
+        // Foreign keys cannot reach from the shards to the catalog, so check what they would have
+        if (shardRouter.isSharded() && shardRouter.readEverywhere(() -> List.of(
+                inventoryRepository.existsByProductId(id) || stockHistoryRepository.existsByProductId(id))).contains(true)) {
+            throw new RuntimeException("Product " + id + " still has inventory or stock history");
+        }
         productRepository.deleteById(id);
+        productSearchIndex.remove(id);
     }
     @Override
 public Product updateProduct(Long id, Product updatedProduct) {
+    // Without sharding the product and the alerts its threshold drives share a database, so they commit together
+    return shardRouter.isSharded() ? applyUpdate(id, updatedProduct) : shardRouter.inShard(0, () -> applyUpdate(id, updatedProduct));
+}
+
+private Product applyUpdate(Long id, Product updatedProduct) {
     return productRepository.findById(id).map(existingProduct -> {
+        Integer previousMinStockLevel = existingProduct.getMinStockLevel();
         existingProduct.setName(updatedProduct.getName());
         existingProduct.setSku(updatedProduct.getSku());
         existingProduct.setDescription(updatedProduct.getDescription());
@@ -75,8 +145,84 @@ public Product updateProduct(Long id, Product updatedProduct) {
             existingProduct.setSupplier(null);
         }
 
-        return productRepository.save(existingProduct);
+        // Flushed so the re-evaluation's SQL sees the new threshold
+        Product saved = productRepository.saveAndFlush(existingProduct);
+        AfterCommit.run(() -> productSearchIndex.put(saved));
+        if (!Objects.equals(previousMinStockLevel, saved.getMinStockLevel())) {
+            reevaluateProducts(new Long[] {saved.getId()}, new ThresholdUpdateResult());
+        }
+        return saved;
     }).orElseThrow(() -> new RuntimeException("Product not found with id " + id));
 }
 
+    @Override
+    public ThresholdUpdateResult updateThresholds(String category, Long supplierId, List<Long> productIds,
+                                                  Long warehouseId, Integer minStockLevel) {
+        boolean byIds = productIds != null && !productIds.isEmpty();
+        if ((category != null ? 1 : 0) + (supplierId != null ? 1 : 0) + (byIds ? 1 : 0) != 1) {
+            throw new RuntimeException("Select products by exactly one of category, supplierId or productIds");
+        }
+        if (minStockLevel != null && minStockLevel < 0) {
+            throw new RuntimeException("minStockLevel must not be negative");
+        }
+        // Null only clears a warehouse override; on the products it would switch their alerts off everywhere
+        if (minStockLevel == null && warehouseId == null) {
+            throw new RuntimeException("minStockLevel is required unless a warehouseId is given");
+        }
+        String selection = category != null ? "p.category = ?" : supplierId != null ? "p.supplier_id = ?" : "p.id = ANY(?)";
+        Object selector = category != null ? category : supplierId != null ? supplierId : productIds.toArray(Long[]::new);
+        ThresholdUpdateResult result = new ThresholdUpdateResult();
+
+        if (warehouseId != null) {
+            // An override changes only that warehouse's rows, so the threshold update and its alerts commit together
+            return shardRouter.inWarehouse(warehouseId, () -> {
+                Long[] changed = jdbcTemplate.queryForList("SELECT i.id FROM inventory i JOIN products p ON p.id = i.product_id "
+                        + "WHERE i.warehouse_id = ? AND " + selection + " AND i.min_stock_level IS DISTINCT FROM ?::integer "
+                        + "ORDER BY i.id FOR UPDATE OF i", Long.class, warehouseId, selector, minStockLevel).toArray(Long[]::new);
+                if (changed.length > 0) {
+                    jdbcTemplate.update("UPDATE inventory SET min_stock_level = ?::integer WHERE id = ANY(?)", minStockLevel, changed);
+                    result.setOverridesUpdated(changed.length);
+                    result.add(alertReevaluator.reevaluate("i.id = ANY(?)", (Object) changed));
+                }
+                return result;
+            });
+        }
+
+        // Products live in the catalog. Without sharding the update and the alerts commit in one transaction;
+        // with it the shards see the new thresholds once this statement commits, and re-evaluate after
+        if (shardRouter.isSharded()) {
+            return updateProductThresholds(selection, selector, minStockLevel, result);
+        }
+        return shardRouter.inShard(0, () -> updateProductThresholds(selection, selector, minStockLevel, result));
+    }
+
+    private ThresholdUpdateResult updateProductThresholds(String selection, Object selector, Integer minStockLevel,
+                                                          ThresholdUpdateResult result) {
+        Long[] changed = jdbcTemplate.queryForList("UPDATE products p SET min_stock_level = ?::integer WHERE " + selection
+                + " AND p.min_stock_level IS DISTINCT FROM ?::integer RETURNING p.id", Long.class,
+                minStockLevel, selector, minStockLevel).toArray(Long[]::new);
+        result.setProductsUpdated(changed.length);
+        if (changed.length > 0) {
+            reevaluateProducts(changed, result);
+        }
+        return result;
+    }
+
+    // Alerts of the products' rows in every warehouse without an override, one statement per shard. A shard that
+    // fails is logged and listed in the result rather than failing the others; the alert scan reconciles it later
+    private void reevaluateProducts(Long[] productIds, ThresholdUpdateResult result) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try {
+                result.add(shardRouter.inShard(shard, () -> alertReevaluator.reevaluate(
+                        "i.product_id = ANY(?) AND i.min_stock_level IS NULL", (Object) productIds)));
+            } catch (RuntimeException e) {
+                if (!shardRouter.isSharded()) {
+                    throw e;
+                }
+                log.error("Threshold change of products {} committed, but re-evaluating their alerts on shard {} failed",
+                        List.of(productIds), shard, e);
+                result.getFailedShards().add(shard);
+            }
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.QueryLogProperties;
+import com.example.inventory.dto.QueryStatsEntry;
+import com.example.inventory.util.SqlFingerprint;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-fingerprint statement statistics plus the structured slow-query log.
+ *
+ * Fed by QueryTrackingDataSource for every executed statement. Recording is a map lookup and a few
+ * LongAdder updates; the stack walk for the calling service method only happens for slow statements.
+ */
+@Component
+public class QueryStatsCollector {
+
+    // Dedicated logger name so the slow-query stream can be routed or silenced on its own
+    private static final Logger slowLog = LoggerFactory.getLogger("inventory.slow-query");
+    private static final String OTHER = "other";
+    private static final int MAX_CACHED_SQL = 10_000;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+    private final int maxFingerprints;
+
+    public QueryStatsCollector(QueryLogProperties properties) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowThresholdMs());
+        this.maxFingerprints = properties.getMaxFingerprints();
+    }
+
+    // Prepared statements reuse a handful of SQL strings, so their fingerprints are cached
+    public String fingerprint(String sql) {
+        String cached = fingerprintCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        if (fingerprintCache.size() < MAX_CACHED_SQL) {
+            fingerprintCache.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    public void record(String fingerprint, String sql, long nanos, long rows) {
+        Aggregate aggregate = aggregates.get(fingerprint);
+        if (aggregate == null) {
+            String key = aggregates.size() < maxFingerprints ? fingerprint : OTHER;
+            aggregate = aggregates.computeIfAbsent(key, k -> new Aggregate());
+        }
+        aggregate.count.increment();
+        aggregate.totalNanos.add(nanos);
+        aggregate.rows.add(Math.max(rows, 0));
+        aggregate.maxNanos.accumulateAndGet(nanos, Math::max);
+
+        if (nanos >= slowThresholdNanos) {
+            String caller = callingServiceMethod();
+            aggregate.slowCount.increment();
+            if (nanos >= aggregate.maxNanos.get()) {
+                aggregate.slowestCaller = caller;
+            }
+            logSlow(fingerprint, sql, nanos, rows, caller);
+        }
+    }
+
+    public List<QueryStatsEntry> getStats(String sortBy, int limit) {
+        Comparator<QueryStatsEntry> order = switch (sortBy) {
+            case "count" -> Comparator.comparingLong(QueryStatsEntry::getCount);
+            case "mean" -> Comparator.comparingDouble(QueryStatsEntry::getMeanMs);
+            case "max" -> Comparator.comparingDouble(QueryStatsEntry::getMaxMs);
+            case "slow" -> Comparator.comparingLong(QueryStatsEntry::getSlowCount);
+            default -> Comparator.comparingDouble(QueryStatsEntry::getTotalMs);
+        };
+        return aggregates.entrySet().stream()
+                .map(e -> e.getValue().toEntry(e.getKey()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        aggregates.clear();
+    }
+
+    private void logSlow(String fingerprint, String sql, long nanos, long rows, String caller) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("event", "slow_query");
+        event.put("timestamp", Instant.now().toString());
+        event.put("durationMs", nanos / 1_000_000.0);
+        event.put("rows", rows);
+        event.put("caller", caller);
+        event.put("thread", Thread.currentThread().getName());
+        event.put("fingerprint", fingerprint);
+        event.put("sql", sql);
+        try {
+            slowLog.warn(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            slowLog.warn("slow query ({} ms): {}", nanos / 1_000_000, fingerprint);
+        }
+    }
+
+    // Innermost service method on the stack, falling back to the controller for repository calls made there
+    private static String callingServiceMethod() {
+        return STACK_WALKER.walk(frames -> {
+            String controller = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (className.contains("$$")) {
+                    continue;
+                }
+                if (className.startsWith("com.example.inventory.service.")
+                        && !className.equals(QueryStatsCollector.class.getName())) {
+                    return simpleName(className) + "." + frame.getMethodName();
+                }
+                if (controller == null && className.startsWith("com.example.inventory.controller.")) {
+                    controller = simpleName(className) + "." + frame.getMethodName();
+                }
+            }
+            return controller == null ? "unknown" : controller;
+        });
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static final class Aggregate {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String slowestCaller;
+
+        QueryStatsEntry toEntry(String fingerprint) {
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new QueryStatsEntry(fingerprint, n, totalMs, n == 0 ? 0 : totalMs / n,
+                    maxNanos.get() / 1_000_000.0, rows.sum(), slowCount.sum(), slowestCaller);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.CoalescingProperties;
+import com.example.inventory.config.ReplicaRoutingDataSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for hot list reads: identical requests arriving while one of them is being answered
+ * share its query and its serialized body instead of running their own.
+ *
+ * The first request for a key runs the read and serializes a successful body to JSON once; requests
+ * for the same key that arrive before it finishes attach to its future without holding a thread, and
+ * give up with 503 after the endpoint's timeout. A flight that outlives a timeout is dropped from the
+ * table, so later requests start a fresh read rather than join a stuck one. Nothing is kept once a
+ * flight completes, so a shared answer is at most one read's duration older than the request it serves.
+ *
+ * Sessions that replica routing holds on the primary after a write read on their own: a flight may be
+ * reading from a replica, or may have started before their write committed.
+ */
+@Component
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class ReadCoalescer {
+
+    private final ObjectMapper objectMapper;
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ReplicaRoutingDataSource replicaRouting;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(ObjectMapper objectMapper, CoalescingProperties properties, MeterRegistry meterRegistry,
+                         ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.replicaRouting = replicaRouting.getIfAvailable();
+    }
+
+    /**
+     * Answers the request from the flight already running for endpoint and key, or runs read as a new
+     * one. The key must cover every parameter the response depends on.
+     */
+    public CompletableFuture<ResponseEntity<?>> coalesce(String endpoint, String key,
+                                                         Supplier<CompletableFuture<ResponseEntity<?>>> read) {
+        if (!properties.isEnabled()) {
+            return read.get();
+        }
+        EndpointMeters endpointMeters = meters.computeIfAbsent(endpoint, EndpointMeters::new);
+        if (replicaRouting != null && replicaRouting.isSessionPinned()) {
+            endpointMeters.pinned.increment();
+            return read.get();
+        }
+        String flightKey = endpoint + '\n' + key;
+        Flight flight = new Flight();
+        Flight running = flights.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            running.joined.incrementAndGet();
+            endpointMeters.followers.increment();
+            return join(endpoint, flightKey, running, endpointMeters);
+        }
+
+        endpointMeters.leaders.increment();
+        CompletableFuture<ResponseEntity<?>> response;
+        try {
+            response = read.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.thenApply(this::serialized).whenComplete((result, error) -> {
+            flights.remove(flightKey, flight);
+            endpointMeters.fanIn.record(flight.joined.get());
+            if (error != null) {
+                flight.result.completeExceptionally(error);
+            } else {
+                flight.result.complete(result);
+            }
+        });
+        // A copy, so a request cancelled by its client does not cancel the read for the others
+        return flight.result.copy();
+    }
+
+    // Key of a paged list read: page, size, sort and whether it counts the total
+    public static String pageKey(Pageable pageable, boolean count) {
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort() + ":" + count;
+    }
+
+    private CompletableFuture<ResponseEntity<?>> join(String endpoint, String flightKey, Flight flight,
+                                                      EndpointMeters endpointMeters) {
+        long timeoutMs = properties.timeoutFor(endpoint);
+        return flight.result.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof TimeoutException)) {
+                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+            }
+            endpointMeters.timeouts.increment();
+            flights.remove(flightKey, flight);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "The shared " + endpoint + " read timed out after " + timeoutMs + " ms"));
+        });
+    }
+
+    // Successful bodies become JSON bytes here, once for every request of the flight; others pass as they are
+    private ResponseEntity<?> serialized(ResponseEntity<?> response) {
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            return response;
+        }
+        try {
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsBytes(response.getBody()));
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static final class Flight {
+        final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+        // Requests answered by this flight, the first one included
+        final AtomicInteger joined = new AtomicInteger(1);
+    }
+
+    private final class EndpointMeters {
+        final Counter leaders;
+        final Counter followers;
+        final Counter pinned;
+        final Counter timeouts;
+        final DistributionSummary fanIn;
+
+        EndpointMeters(String endpoint) {
+            leaders = Counter.builder("coalescing.requests")
+                    .description("Coalesced reads: leaders ran the read, followers shared a running one, pinned sessions read alone")
+                    .tags("endpoint", endpoint, "role", "leader")
+                    .register(meterRegistry);
+            followers = Counter.builder("coalescing.requests")
+                    .description("Coalesced reads: leaders ran the read, followers shared a running one, pinned sessions read alone")
+                    .tags("endpoint", endpoint, "role", "follower")
+                    .register(meterRegistry);
+            pinned = Counter.builder("coalescing.requests")
+                    .description("Coalesced reads: leaders ran the read, followers shared a running one, pinned sessions read alone")
+                    .tags("endpoint", endpoint, "role", "pinned")
+                    .register(meterRegistry);
+            timeouts = Counter.builder("coalescing.timeouts")
+                    .description("Requests that gave up waiting for a shared read")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            fanIn = DistributionSummary.builder("coalescing.fan_in")
+                    .description("Requests answered by one read")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.dto.StockTransferResult;
 import com.example.inventory.entity.Inventory;
 import com.example.inventory.entity.Product;
 import com.example.inventory.entity.StockHistory;
@@ -11,16 +13,23 @@ import com.example.inventory.repository.WarehouseRepository;
 import com.example.inventory.service.StockHistoryService;
 import com.example.inventory.service.LowStockAlertService;
 import com.example.inventory.util.StockAdjustmentType;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
-@Transactional
 public class StockHistoryServiceImpl implements StockHistoryService {
 
     private final InventoryRepository inventoryRepository;
@@ -28,197 +37,356 @@ public class StockHistoryServiceImpl implements StockHistoryService {
     private final WarehouseRepository warehouseRepository;
     private final StockHistoryRepository stockHistoryRepository;
     private final LowStockAlertService lowStockAlertService;
+    private final ShardRouter shardRouter;
+    private final OutboxWriter outboxWriter;
+    private final LedgerDirtyKeys ledgerDirtyKeys;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter insufficientStockRejections;
 
     @Autowired
     public StockHistoryServiceImpl(InventoryRepository inventoryRepository,
                                   ProductRepository productRepository,
                                   WarehouseRepository warehouseRepository,
                                   StockHistoryRepository stockHistoryRepository,
-                                  LowStockAlertService lowStockAlertService) {
+                                  LowStockAlertService lowStockAlertService,
+                                  ShardRouter shardRouter,
+                                  OutboxWriter outboxWriter,
+                                  LedgerDirtyKeys ledgerDirtyKeys,
+                                  JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry) {
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
         this.warehouseRepository = warehouseRepository;
         this.stockHistoryRepository = stockHistoryRepository;
         this.lowStockAlertService = lowStockAlertService;
+        this.shardRouter = shardRouter;
+        this.outboxWriter = outboxWriter;
+        this.ledgerDirtyKeys = ledgerDirtyKeys;
+        this.jdbcTemplate = jdbcTemplate;
+        this.insufficientStockRejections = Counter.builder("inventory.stock.out.insufficient")
+                .description("Stock-out requests rejected for insufficient stock")
+                .register(meterRegistry);
     }
 
     // ========== CRUD Operations ==========
 
+    // Direct history writes leave inventory as it is, so they mark their keys for ledger reconciliation
+
     @Override
     public StockHistory createStockHistory(StockHistory stockHistory) {
         if (stockHistory.getTimestamp() == null) {
             stockHistory.setTimestamp(LocalDateTime.now());
         }
-        return stockHistoryRepository.save(stockHistory);
+        Long warehouseId = stockHistory.getWarehouse() == null ? null : stockHistory.getWarehouse().getId();
+        return shardRouter.inWarehouse(warehouseId, () -> {
+            StockHistory saved = stockHistoryRepository.save(stockHistory);
+            markDirty(saved);
+            return saved;
+        });
     }
 
     @Override
-    public List<StockHistory> getAllStockHistory() {
-        return stockHistoryRepository.findAll();
+    public Slice<StockHistory> getStockHistory(Pageable pageable, boolean withCount) {
+        return shardRouter.readPage(pageable,
+                page -> withCount ? stockHistoryRepository.findAll(page) : stockHistoryRepository.findAllBy(page));
     }
 
     @Override
     public Optional<StockHistory> getStockHistoryById(Long id) {
-        return stockHistoryRepository.findById(id);
+        return shardRouter.readInShardOf(id, () -> stockHistoryRepository.findById(id));
     }
 
     @Override
     public StockHistory updateStockHistory(Long id, StockHistory stockHistoryDetails) {
-        StockHistory existingHistory = stockHistoryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Stock history not found with id: " + id));
-
-        // Update fields
-        if (stockHistoryDetails.getProduct() != null) {
-            existingHistory.setProduct(stockHistoryDetails.getProduct());
-        }
-        if (stockHistoryDetails.getWarehouse() != null) {
-            existingHistory.setWarehouse(stockHistoryDetails.getWarehouse());
-        }
-        if (stockHistoryDetails.getAdjustmentType() != null) {
-            existingHistory.setAdjustmentType(stockHistoryDetails.getAdjustmentType());
-        }
-        if (stockHistoryDetails.getAdjustmentQuantity() != null) {
-            existingHistory.setAdjustmentQuantity(stockHistoryDetails.getAdjustmentQuantity());
-        }
-        if (stockHistoryDetails.getPerformedByEmail() != null) {
-            existingHistory.setPerformedByEmail(stockHistoryDetails.getPerformedByEmail());
-        }
-        if (stockHistoryDetails.getTimestamp() != null) {
-            existingHistory.setTimestamp(stockHistoryDetails.getTimestamp());
-        }
-
-        return stockHistoryRepository.save(existingHistory);
+        return shardRouter.inShardOf(id, () -> {
+            StockHistory existingHistory = stockHistoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Stock history not found with id: " + id));
+
+            // Rows stay on the shard they were written to
+            if (stockHistoryDetails.getWarehouse() != null && existingHistory.getWarehouse() != null && shardRouter.isSharded()
+                    && shardRouter.shardOf(stockHistoryDetails.getWarehouse().getId()) != shardRouter.shardOf(existingHistory.getWarehouse().getId())) {
+                throw new RuntimeException("Stock history cannot move to a warehouse on another shard");
+            }
+            markDirty(existingHistory);
+
+            // Update fields
+            if (stockHistoryDetails.getProduct() != null) {
+                existingHistory.setProduct(stockHistoryDetails.getProduct());
+            }
+            if (stockHistoryDetails.getWarehouse() != null) {
+                existingHistory.setWarehouse(stockHistoryDetails.getWarehouse());
+            }
+            if (stockHistoryDetails.getAdjustmentType() != null) {
+                existingHistory.setAdjustmentType(stockHistoryDetails.getAdjustmentType());
+            }
+            if (stockHistoryDetails.getAdjustmentQuantity() != null) {
+                existingHistory.setAdjustmentQuantity(stockHistoryDetails.getAdjustmentQuantity());
+            }
+            if (stockHistoryDetails.getPerformedByEmail() != null) {
+                existingHistory.setPerformedByEmail(stockHistoryDetails.getPerformedByEmail());
+            }
+            if (stockHistoryDetails.getTimestamp() != null) {
+                existingHistory.setTimestamp(stockHistoryDetails.getTimestamp());
+            }
+
+            StockHistory saved = stockHistoryRepository.save(existingHistory);
+            markDirty(saved);
+            return saved;
+        });
     }
 
     @Override
     public void deleteStockHistory(Long id) {
-        if (!stockHistoryRepository.existsById(id)) {
-            throw new RuntimeException("Stock history not found with id: " + id);
-        }
-        stockHistoryRepository.deleteById(id);
+        shardRouter.inShardOf(id, () -> {
+            StockHistory existingHistory = stockHistoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Stock history not found with id: " + id));
+            markDirty(existingHistory);
+            stockHistoryRepository.delete(existingHistory);
+            return null;
+        });
+    }
+
+    private void markDirty(StockHistory history) {
+        ledgerDirtyKeys.mark(history.getProduct() == null ? null : history.getProduct().getId(),
+                history.getWarehouse() == null ? null : history.getWarehouse().getId());
     }
 
     // ========== Business Logic Operations ==========
 
     @Override
+    @Timed(value = "inventory.stock.in", histogram = true)
     public Inventory recordStockIn(Long productId, Long warehouseId, Integer quantity, String performedByEmail) {
         // Validate inputs
         if (productId == null || warehouseId == null || quantity == null || quantity <= 0) {
             throw new RuntimeException("Invalid input parameters");
         }
 
-        // Get product and warehouse
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
-
-        // Find existing inventory or create new one
-        Inventory inventory = inventoryRepository.findByProductAndWarehouse(product, warehouse)
-                .orElse(new Inventory());
-
-        if (inventory.getId() == null) {
-            // New inventory record
-            inventory.setProduct(product);
-            inventory.setWarehouse(warehouse);
-            inventory.setStockLevel(quantity);
-        } else {
-            // Update existing inventory
-            inventory.setStockLevel(inventory.getStockLevel() + quantity);
-        }
-
-        // Save inventory
-        inventory = inventoryRepository.save(inventory);
-
-        // Create stock history record
-        StockHistory stockHistory = new StockHistory();
-        stockHistory.setProduct(product);
-        stockHistory.setWarehouse(warehouse);
-        stockHistory.setAdjustmentType(StockAdjustmentType.ADD);
-        stockHistory.setAdjustmentQuantity(quantity);
-        stockHistory.setPerformedByEmail(performedByEmail);
-        stockHistory.setTimestamp(LocalDateTime.now());
+        return shardRouter.inWarehouse(warehouseId, () -> {
+            // Get product and warehouse
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            Warehouse warehouse = warehouseRepository.findById(warehouseId)
+                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
+
+            // Find existing inventory (locked until commit) or create new one
+            Inventory inventory = inventoryRepository.findForUpdate(product, warehouse)
+                    .orElse(new Inventory());
+
+            if (inventory.getId() == null) {
+                // New inventory record
+                inventory.setProduct(product);
+                inventory.setWarehouse(warehouse);
+                inventory.setStockLevel(quantity);
+            } else {
+                // Update existing inventory
+                inventory.setStockLevel(inventory.getStockLevel() + quantity);
+            }
+
+            // Save inventory
+            inventory = inventoryRepository.save(inventory);
+
+            // Create stock history record
+            StockHistory stockHistory = new StockHistory();
+            stockHistory.setProduct(product);
+            stockHistory.setWarehouse(warehouse);
+            stockHistory.setAdjustmentType(StockAdjustmentType.ADD);
+            stockHistory.setAdjustmentQuantity(quantity);
+            stockHistory.setPerformedByEmail(performedByEmail);
+            stockHistory.setTimestamp(LocalDateTime.now());
 
-        stockHistoryRepository.save(stockHistory);
+            stockHistory = stockHistoryRepository.save(stockHistory);
+            outboxWriter.append(OutboxWriter.inventoryKey(productId, warehouseId), "STOCK_IN", stockEvent(stockHistory, inventory));
 
-        // Check alerts after stock change
-        lowStockAlertService.checkInventoryAndAlert(inventory);
+            // Check alerts after stock change
+            lowStockAlertService.checkInventoryAndAlert(inventory);
 
-        return inventory;
+            return inventory;
+        });
     }
 
     @Override
+    @Timed(value = "inventory.stock.out", histogram = true)
     public Inventory recordStockOut(Long productId, Long warehouseId, Integer quantity, String performedByEmail) {
         // Validate inputs
         if (productId == null || warehouseId == null || quantity == null || quantity <= 0) {
             throw new RuntimeException("Invalid input parameters");
         }
 
-        // Get product and warehouse
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
-
-        // Find existing inventory
-        Inventory inventory = inventoryRepository.findByProductAndWarehouse(product, warehouse)
-                .orElseThrow(() -> new RuntimeException("No inventory found for this product and warehouse"));
+        return shardRouter.inWarehouse(warehouseId, () -> {
+            // Get product and warehouse
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            Warehouse warehouse = warehouseRepository.findById(warehouseId)
+                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + warehouseId));
+
+            // Find existing inventory, locked until commit so the check below cannot race another stock-out
+            Inventory inventory = inventoryRepository.findForUpdate(product, warehouse)
+                    .orElseThrow(() -> new RuntimeException("No inventory found for this product and warehouse"));
+
+            // Check if sufficient stock is available; reserved stock is not
+            if (inventory.getAvailable() < quantity) {
+                insufficientStockRejections.increment();
+                throw new RuntimeException("Insufficient stock. Available: " + Math.max(0, inventory.getAvailable()) + ", Requested: " + quantity);
+            }
+
+            // Update inventory
+            inventory.setStockLevel(inventory.getStockLevel() - quantity);
+            inventory = inventoryRepository.save(inventory);
+
+            // Create stock history record
+            StockHistory stockHistory = new StockHistory();
+            stockHistory.setProduct(product);
+            stockHistory.setWarehouse(warehouse);
+            stockHistory.setAdjustmentType(StockAdjustmentType.REMOVE);
+            stockHistory.setAdjustmentQuantity(quantity);
+            stockHistory.setPerformedByEmail(performedByEmail);
+            stockHistory.setTimestamp(LocalDateTime.now());
 
-        // Check if sufficient stock is available
-        if (inventory.getStockLevel() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + inventory.getStockLevel() + ", Requested: " + quantity);
-        }
+            stockHistory = stockHistoryRepository.save(stockHistory);
+            outboxWriter.append(OutboxWriter.inventoryKey(productId, warehouseId), "STOCK_OUT", stockEvent(stockHistory, inventory));
 
-        // Update inventory
-        inventory.setStockLevel(inventory.getStockLevel() - quantity);
-        inventory = inventoryRepository.save(inventory);
+            // Check alerts after stock change
+            lowStockAlertService.checkInventoryAndAlert(inventory);
 
-        // Create stock history record
-        StockHistory stockHistory = new StockHistory();
-        stockHistory.setProduct(product);
-        stockHistory.setWarehouse(warehouse);
-        stockHistory.setAdjustmentType(StockAdjustmentType.REMOVE);
-        stockHistory.setAdjustmentQuantity(quantity);
-        stockHistory.setPerformedByEmail(performedByEmail);
-        stockHistory.setTimestamp(LocalDateTime.now());
+            return inventory;
+        });
+    }
 
-        stockHistoryRepository.save(stockHistory);
+    @Override
+    @Timed(value = "inventory.stock.transfer", histogram = true)
+    public StockTransferResult recordTransfer(Long productId, Long fromWarehouseId, Long toWarehouseId,
+                                              Integer quantity, String performedByEmail) {
+        // Validate inputs
+        if (productId == null || fromWarehouseId == null || toWarehouseId == null || quantity == null || quantity <= 0) {
+            throw new RuntimeException("Invalid input parameters");
+        }
+        if (fromWarehouseId.equals(toWarehouseId)) {
+            throw new RuntimeException("Source and destination warehouse must differ");
+        }
+        // Both rows are written in one local transaction, which needs them on the same shard
+        if (shardRouter.isSharded() && shardRouter.shardOf(fromWarehouseId) != shardRouter.shardOf(toWarehouseId)) {
+            throw new RuntimeException("Transfers between warehouses on different shards are not supported");
+        }
 
-        // Check alerts after stock change
-        lowStockAlertService.checkInventoryAndAlert(inventory);
+        return shardRouter.inWarehouse(fromWarehouseId, () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            Warehouse from = warehouseRepository.findById(fromWarehouseId)
+                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + fromWarehouseId));
+            Warehouse to = warehouseRepository.findById(toWarehouseId)
+                    .orElseThrow(() -> new RuntimeException("Warehouse not found with id: " + toWarehouseId));
+
+            // The destination may have no row yet. Creating it empty first, idempotently against a concurrent
+            // stock-in, lets both rows be locked by the same statement below.
+            List<Long> ids = inventoryRepository.findIdsByProductIdAndWarehouseIds(productId, List.of(fromWarehouseId, toWarehouseId));
+            if (ids.size() < 2) {
+                jdbcTemplate.update("INSERT INTO inventory (product_id, warehouse_id, stock_level) VALUES (?, ?, 0) "
+                        + "ON CONFLICT (product_id, warehouse_id) DO NOTHING", productId, toWarehouseId);
+                ids = inventoryRepository.findIdsByProductIdAndWarehouseIds(productId, List.of(fromWarehouseId, toWarehouseId));
+            }
+
+            // Locked in id order whichever way the stock moves, so two opposite transfers of the same product
+            // queue on the first row instead of each holding one row and waiting for the other
+            Inventory source = null;
+            Inventory destination = null;
+            for (Inventory inventory : inventoryRepository.findAllForUpdate(ids)) {
+                if (inventory.getWarehouse().getId().equals(fromWarehouseId)) {
+                    source = inventory;
+                } else {
+                    destination = inventory;
+                }
+            }
+            if (source == null) {
+                throw new RuntimeException("No inventory found for this product and warehouse");
+            }
+
+            if (source.getAvailable() < quantity) {
+                insufficientStockRejections.increment();
+                throw new RuntimeException("Insufficient stock. Available: " + Math.max(0, source.getAvailable()) + ", Requested: " + quantity);
+            }
+
+            source.setStockLevel(source.getStockLevel() - quantity);
+            destination.setStockLevel(destination.getStockLevel() + quantity);
+            source = inventoryRepository.save(source);
+            destination = inventoryRepository.save(destination);
+
+            // One history row per side, linked by the transfer id
+            String transferId = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            StockHistory out = stockHistoryRepository.save(StockHistory.builder()
+                    .product(product).warehouse(from)
+                    .adjustmentType(StockAdjustmentType.REMOVE).adjustmentQuantity(quantity)
+                    .performedByEmail(performedByEmail).timestamp(now).transferId(transferId)
+                    .build());
+            StockHistory in = stockHistoryRepository.save(StockHistory.builder()
+                    .product(product).warehouse(to)
+                    .adjustmentType(StockAdjustmentType.ADD).adjustmentQuantity(quantity)
+                    .performedByEmail(performedByEmail).timestamp(now).transferId(transferId)
+                    .build());
+            outboxWriter.append(OutboxWriter.inventoryKey(productId, fromWarehouseId), "STOCK_OUT", stockEvent(out, source));
+            outboxWriter.append(OutboxWriter.inventoryKey(productId, toWarehouseId), "STOCK_IN", stockEvent(in, destination));
+
+            // Check alerts after stock change
+            lowStockAlertService.checkInventoryAndAlert(source);
+            lowStockAlertService.checkInventoryAndAlert(destination);
+
+            return new StockTransferResult(transferId, source, destination);
+        });
+    }
 
-        return inventory;
+    // Outbox payload of a stock movement
+    private static Map<String, Object> stockEvent(StockHistory history, Inventory inventory) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("historyId", history.getId());
+        event.put("inventoryId", inventory.getId());
+        event.put("productId", inventory.getProduct().getId());
+        event.put("warehouseId", inventory.getWarehouse().getId());
+        event.put("quantity", history.getAdjustmentQuantity());
+        event.put("stockLevel", inventory.getStockLevel());
+        event.put("performedBy", history.getPerformedByEmail());
+        event.put("timestamp", history.getTimestamp());
+        if (history.getTransferId() != null) {
+            event.put("transferId", history.getTransferId());
+        }
+        return event;
     }
 
     // ========== Query Operations ==========
 
     @Override
-    public List<StockHistory> getStockHistoryByProduct(Product product) {
-        return stockHistoryRepository.findByProduct(product);
+    public Slice<StockHistory> getStockHistoryByProduct(Product product, Pageable pageable) {
+        return shardRouter.readPage(pageable, page -> stockHistoryRepository.findByProduct(product, page));
+    }
+
+    @Override
+    public Slice<StockHistory> getStockHistoryByWarehouse(Warehouse warehouse, Pageable pageable) {
+        return shardRouter.readInWarehouse(warehouse.getId(), () -> stockHistoryRepository.findByWarehouse(warehouse, pageable));
     }
 
     @Override
-    public List<StockHistory> getStockHistoryByWarehouse(Warehouse warehouse) {
-        return stockHistoryRepository.findByWarehouse(warehouse);
+    public Slice<StockHistory> getStockHistoryByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        return shardRouter.readPage(pageable, page -> stockHistoryRepository.findByTimestampBetween(startDate, endDate, page));
     }
 
     @Override
-    public List<StockHistory> getStockHistoryByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return stockHistoryRepository.findByTimestampBetween(startDate, endDate);
+    public Slice<StockHistory> getStockHistoryByAdjustmentType(StockAdjustmentType adjustmentType, Pageable pageable) {
+        return shardRouter.readPage(pageable, page -> stockHistoryRepository.findByAdjustmentType(adjustmentType, page));
     }
 
     @Override
-    public List<StockHistory> getStockHistoryByAdjustmentType(StockAdjustmentType adjustmentType) {
-        return stockHistoryRepository.findByAdjustmentType(adjustmentType);
+    public Slice<StockHistory> getStockHistoryByPerformedByEmail(String email, Pageable pageable) {
+        return shardRouter.readPage(pageable, page -> stockHistoryRepository.findByPerformedByEmail(email, page));
     }
 
     @Override
-    public List<StockHistory> getStockHistoryByPerformedByEmail(String email) {
-        return stockHistoryRepository.findByPerformedByEmail(email);
+    public Slice<StockHistory> getStockHistoryByProductAndWarehouse(Long productId, Long warehouseId, Pageable pageable) {
+        return shardRouter.readInWarehouse(warehouseId,
+                () -> stockHistoryRepository.findByProductIdAndWarehouseId(productId, warehouseId, pageable));
     }
 
     @Override
-    public List<StockHistory> getStockHistoryByProductAndWarehouse(Long productId, Long warehouseId) {
-        return stockHistoryRepository.findByProductIdAndWarehouseId(productId, warehouseId);
+    public List<StockHistory> getStockHistoryByTransferId(String transferId) {
+        // Both rows live on one shard, but the id does not say which
+        return shardRouter.readEverywhere(() -> stockHistoryRepository.findByTransferIdOrderById(transferId));
     }
 }
@@ -0,0 +1,267 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.BulkheadExecutor;
+import com.example.inventory.config.ReservationProperties;
+import com.example.inventory.config.ShardRouter;
+import com.example.inventory.entity.StockReservation;
+import com.example.inventory.repository.StockReservationRepository;
+import com.example.inventory.service.StockHistoryService;
+import com.example.inventory.service.StockReservationService;
+import com.example.inventory.util.Bulkhead;
+import com.example.inventory.util.ReservationStatus;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock reservations: holds that lower available stock (stock level minus reserved quantity) without
+ * touching the stock level, until they are confirmed into a stock-out, released, or expire.
+ *
+ * Reserving is one conditional UPDATE that adds the hold to the inventory row only if enough is available,
+ * plus the insert of the reservation. That is the same work however many holds the row has, and concurrent
+ * reservations wait only for others on the same row. Reservations are persisted; their deadlines are kept
+ * in an in-memory TimingWheel, refilled from the ACTIVE rows at startup, and a sweep expires holds that no
+ * instance's wheel covers. Confirm, release and expiry each end a hold by a status change guarded by
+ * ACTIVE, so a hold ends exactly once however they race.
+ */
+@Service
+@EnableConfigurationProperties(ReservationProperties.class)
+public class StockReservationServiceImpl implements StockReservationService, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+    private static final String HOLD = "UPDATE inventory SET reserved_quantity = reserved_quantity + ? "
+            + "WHERE product_id = ? AND warehouse_id = ? AND stock_level - reserved_quantity >= ?";
+    private static final String UNHOLD = "UPDATE inventory SET reserved_quantity = reserved_quantity - ? "
+            + "WHERE product_id = ? AND warehouse_id = ?";
+    // Reservation before inventory row, the order confirm and release lock them in
+    private static final String EXPIRE = "WITH ended AS (UPDATE stock_reservations SET status = 'EXPIRED', ended_at = ? "
+            + "WHERE id = ? AND status = 'ACTIVE' AND expires_at <= ? RETURNING product_id, warehouse_id, quantity) "
+            + "UPDATE inventory i SET reserved_quantity = i.reserved_quantity - e.quantity FROM ended e "
+            + "WHERE i.product_id = e.product_id AND i.warehouse_id = e.warehouse_id";
+
+    private final ReservationProperties properties;
+    private final StockReservationRepository reservationRepository;
+    private final StockHistoryService stockHistoryService;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkheadExecutor bulkheadExecutor;
+    private final TimingWheel<Long> wheel;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService expiryThreads;
+    private final Counter created;
+    private final Counter confirmed;
+    private final Counter released;
+    private final Counter expired;
+    private final Counter insufficientStockRejections;
+
+    public StockReservationServiceImpl(ReservationProperties properties,
+                                       StockReservationRepository reservationRepository,
+                                       StockHistoryService stockHistoryService,
+                                       ShardRouter shardRouter,
+                                       JdbcTemplate jdbcTemplate,
+                                       BulkheadExecutor bulkheadExecutor,
+                                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.reservationRepository = reservationRepository;
+        this.stockHistoryService = stockHistoryService;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.wheel = new TimingWheel<>(properties.getWheelTickMs(), properties.getWheelSize(), properties.getWheelLevels(),
+                System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("reservation-wheel").daemon(true).factory());
+        this.expiryThreads = Executors.newFixedThreadPool(properties.getExpiryThreads(),
+                Thread.ofPlatform().name("reservation-expiry-", 1).daemon(true).factory());
+        this.created = reservationCounter(meterRegistry, "created");
+        this.confirmed = reservationCounter(meterRegistry, "confirmed");
+        this.released = reservationCounter(meterRegistry, "released");
+        this.expired = reservationCounter(meterRegistry, "expired");
+        this.insufficientStockRejections = Counter.builder("inventory.reservations.insufficient")
+                .description("Reservations rejected for insufficient available stock")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservations.scheduled", wheel, TimingWheel::size)
+                .description("Active reservations waiting in this instance's expiry wheel")
+                .register(meterRegistry);
+    }
+
+    private static Counter reservationCounter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("inventory.reservations").tag("event", event).register(meterRegistry);
+    }
+
+    // Refills the wheel from the persisted holds before it starts turning, once the shards have their tables
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<StockReservation> active = shardRouter.readEverywhere(() -> jdbcTemplate.query(
+                "SELECT id, expires_at FROM stock_reservations WHERE status = 'ACTIVE'",
+                (rs, rowNum) -> StockReservation.builder()
+                        .id(rs.getLong("id"))
+                        .expiresAt(rs.getObject("expires_at", LocalDateTime.class))
+                        .build()));
+        active.forEach(reservation -> scheduleExpiry(reservation.getId(), reservation.getExpiresAt()));
+        log.info("Reservation expiry wheel started with {} active hold(s)", active.size());
+        long tick = properties.getWheelTickMs();
+        ticker.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        // An exception would cancel the schedule, so every failure stays inside one tick
+        try {
+            for (Long id : wheel.advanceTo(System.currentTimeMillis())) {
+                expiryThreads.submit(() -> expire(id));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reservation wheel tick failed: {}", e.getMessage());
+        }
+    }
+
+    // Holds whose deadline passed while nobody's wheel had them: reserved on an instance that has since stopped,
+    // or left by a failed expiry
+    @Scheduled(fixedDelay = 60000L, initialDelay = 60000L)
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(properties.getSweepGraceSeconds());
+        List<Long> overdue = bulkheadExecutor.callIn(Bulkhead.REPORT, () -> shardRouter.readEverywhere(() -> jdbcTemplate.queryForList(
+                "SELECT id FROM stock_reservations WHERE status = 'ACTIVE' AND expires_at <= ? ORDER BY expires_at LIMIT 1000",
+                Long.class, cutoff)));
+        if (!overdue.isEmpty()) {
+            log.info("Expiring {} overdue reservation(s)", overdue.size());
+            overdue.forEach(this::expire);
+        }
+    }
+
+    @Override
+    @Timed(value = "inventory.reservations.reserve", histogram = true)
+    public StockReservation reserve(Long productId, Long warehouseId, Integer quantity, Long ttlSeconds, String reservedByEmail) {
+        if (productId == null || warehouseId == null || quantity == null || quantity <= 0) {
+            throw new RuntimeException("Invalid input parameters");
+        }
+        long ttl = ttlSeconds == null ? properties.getDefaultTtlSeconds() : ttlSeconds;
+        if (ttl <= 0 || ttl > properties.getMaxTtlSeconds()) {
+            throw new RuntimeException("ttlSeconds must be between 1 and " + properties.getMaxTtlSeconds());
+        }
+
+        StockReservation reservation = shardRouter.inWarehouse(warehouseId, () -> {
+            if (jdbcTemplate.update(HOLD, quantity, productId, warehouseId, quantity) == 0) {
+                List<Integer> available = jdbcTemplate.queryForList(
+                        "SELECT stock_level - reserved_quantity FROM inventory WHERE product_id = ? AND warehouse_id = ?",
+                        Integer.class, productId, warehouseId);
+                if (available.isEmpty()) {
+                    throw new RuntimeException("No inventory found for this product and warehouse");
+                }
+                insufficientStockRejections.increment();
+                throw new RuntimeException("Insufficient stock. Available: " + Math.max(0, available.get(0)) + ", Requested: " + quantity);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            return reservationRepository.save(StockReservation.builder()
+                    .productId(productId)
+                    .warehouseId(warehouseId)
+                    .quantity(quantity)
+                    .status(ReservationStatus.ACTIVE)
+                    .reservedByEmail(reservedByEmail)
+                    .createdAt(now)
+                    .expiresAt(now.plusSeconds(ttl))
+                    .build());
+        });
+        created.increment();
+        // Committed by now; a crash before this line leaves the hold to the startup refill
+        scheduleExpiry(reservation.getId(), reservation.getExpiresAt());
+        return reservation;
+    }
+
+    @Override
+    @Timed(value = "inventory.reservations.confirm", histogram = true)
+    public StockReservation confirm(Long reservationId, String performedByEmail) {
+        StockReservation reservation = shardRouter.inShardOf(reservationId, () -> {
+            StockReservation active = lockActive(reservationId);
+            if (!active.getExpiresAt().isAfter(LocalDateTime.now())) {
+                throw new IllegalStateException("Reservation " + reservationId + " has expired");
+            }
+            // Hand the hold back and take the stock out in the same transaction, so nobody else can claim it in between
+            jdbcTemplate.update(UNHOLD, active.getQuantity(), active.getProductId(), active.getWarehouseId());
+            stockHistoryService.recordStockOut(active.getProductId(), active.getWarehouseId(), active.getQuantity(), performedByEmail);
+            return end(active, ReservationStatus.CONFIRMED);
+        });
+        wheel.cancel(reservationId);
+        confirmed.increment();
+        return reservation;
+    }
+
+    @Override
+    public StockReservation release(Long reservationId) {
+        StockReservation reservation = shardRouter.inShardOf(reservationId, () -> {
+            StockReservation active = lockActive(reservationId);
+            jdbcTemplate.update(UNHOLD, active.getQuantity(), active.getProductId(), active.getWarehouseId());
+            return end(active, ReservationStatus.RELEASED);
+        });
+        wheel.cancel(reservationId);
+        released.increment();
+        return reservation;
+    }
+
+    @Override
+    public Optional<StockReservation> getReservation(Long reservationId) {
+        return shardRouter.readInShardOf(reservationId, () -> reservationRepository.findById(reservationId));
+    }
+
+    private StockReservation lockActive(Long reservationId) {
+        StockReservation reservation = reservationRepository.findForUpdate(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found with id: " + reservationId));
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new IllegalStateException("Reservation " + reservationId + " is already " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    private StockReservation end(StockReservation reservation, ReservationStatus status) {
+        reservation.setStatus(status);
+        reservation.setEndedAt(LocalDateTime.now());
+        return reservationRepository.save(reservation);
+    }
+
+    private void scheduleExpiry(Long reservationId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(reservationId, deadline)) {
+            expiryThreads.submit(() -> expire(reservationId));
+        }
+    }
+
+    // A no-op for holds that ended some other way in the meantime. Background work, so on the report partition's
+    // connections rather than the read pool's
+    private void expire(Long reservationId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (bulkheadExecutor.callIn(Bulkhead.REPORT, () -> shardRouter.inShardOf(reservationId,
+                    () -> jdbcTemplate.update(EXPIRE, now, reservationId, now))) > 0) {
+                expired.increment();
+            }
+        } catch (RuntimeException e) {
+            // Still ACTIVE, so the sweep retries it
+            log.warn("Could not expire reservation {}: {}", reservationId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+        expiryThreads.shutdown();
+    }
+}
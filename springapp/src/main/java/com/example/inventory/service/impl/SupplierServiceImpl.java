@@ -4,7 +4,10 @@ import com.example.inventory.entity.Supplier;
 import com.example.inventory.repository.SupplierRepository;
 import com.example.inventory.service.SupplierService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,10 +16,12 @@ import java.util.Optional;
 public class SupplierServiceImpl implements SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final ProductSearchIndex productSearchIndex;
     @Autowired
 
-    public SupplierServiceImpl(SupplierRepository supplierRepository) {
+    public SupplierServiceImpl(SupplierRepository supplierRepository, ProductSearchIndex productSearchIndex) {
         this.supplierRepository = supplierRepository;
+        this.productSearchIndex = productSearchIndex;
     }
 
     @Override
@@ -25,20 +30,29 @@ public class SupplierServiceImpl implements SupplierService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Supplier> getSupplierByName(String name) {
         return supplierRepository.findByName(name);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Supplier> getSupplierById(Long id) {
         return supplierRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Supplier> getAllSuppliers() {
         return supplierRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Supplier> getSuppliers(Pageable pageable, boolean withCount) {
+        return withCount ? supplierRepository.findAll(pageable) : supplierRepository.findAllBy(pageable);
+    }
+
     @Override
     public void deleteSupplierById(Long id) {
         supplierRepository.deleteById(id);
@@ -53,7 +67,9 @@ public class SupplierServiceImpl implements SupplierService {
             existingSupplier.setPhone(updatedSupplier.getPhone());
             existingSupplier.setAddress(updatedSupplier.getAddress());
             existingSupplier.setPaymentTerms(updatedSupplier.getPaymentTerms());
-            return supplierRepository.save(existingSupplier);
+            Supplier saved = supplierRepository.save(existingSupplier);
+            productSearchIndex.renameSupplier(saved.getId(), saved.getName());
+            return saved;
         })
         .orElseThrow(() -> new RuntimeException("Supplier not found with id: " + id));
 }
@@ -0,0 +1,157 @@
+package com.example.inventory.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical timing wheel for keys with a deadline.
+ *
+ * Level 0 has wheelSize buckets of one tick each; a bucket on every higher level spans a full turn of
+ * the level below, so a deadline hours away waits in a coarse bucket and is moved down as it comes into
+ * range. Scheduling and cancelling are O(1) and lock only the one bucket they touch. Advancing the clock
+ * takes the write side of a read-write lock, so no key is filed into a bucket the clock has just passed;
+ * schedulers share the read side and do not serialize on each other. Deadlines are rounded up to whole
+ * ticks, so a key never comes due early. Times are epoch milliseconds.
+ */
+class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // Ticks covered by one bucket of each level: 1, wheelSize, wheelSize^2, ...
+    private final long[] bucketTicks;
+    private final Bucket<K>[][] buckets;
+    private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+    private final ReadWriteLock clock = new ReentrantReadWriteLock();
+    // Last tick advanced to; written under the write lock only
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick, at least 2 buckets and 1 level");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.bucketTicks = new long[levels];
+        this.buckets = new Bucket[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            bucketTicks[level] = level == 0 ? 1 : Math.multiplyExact(bucketTicks[level - 1], wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[level][i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // Files the key, replacing an earlier deadline of it. Returns false when the deadline is already due;
+    // the key is then not kept and the caller acts on it right away.
+    boolean schedule(K key, long deadlineMillis) {
+        Entry<K> entry = new Entry<>(key, Math.ceilDiv(deadlineMillis, tickMillis));
+        clock.readLock().lock();
+        try {
+            Entry<K> previous = entries.put(key, entry);
+            if (previous != null) {
+                previous.cancelled = true;
+            }
+            if (!file(entry)) {
+                entries.remove(key, entry);
+                return false;
+            }
+            return true;
+        } finally {
+            clock.readLock().unlock();
+        }
+    }
+
+    // The bucket keeps the entry until it is drained; it is skipped then
+    void cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    // Moves the clock forward to now, one tick at a time, and returns the keys that came due
+    List<K> advanceTo(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<K> due = new ArrayList<>();
+        if (target <= currentTick) {
+            return due;
+        }
+        clock.writeLock().lock();
+        try {
+            while (currentTick < target) {
+                long tick = ++currentTick;
+                // Higher levels whose bucket starts at this tick hand their entries down first,
+                // so the ones due now land in the level-0 bucket drained below
+                for (int level = bucketTicks.length - 1; level >= 0; level--) {
+                    if (tick % bucketTicks[level] == 0) {
+                        for (Entry<K> entry : buckets[level][(int) ((tick / bucketTicks[level]) % wheelSize)].drain()) {
+                            if (entry.cancelled) {
+                                continue;
+                            }
+                            if (!file(entry) && entries.remove(entry.key, entry)) {
+                                due.add(entry.key);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            clock.writeLock().unlock();
+        }
+        return due;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Puts the entry into the lowest level whose turn reaches its deadline; false when it is due.
+    // Deadlines beyond the top level wait in its farthest bucket and are filed again from there.
+    private boolean file(Entry<K> entry) {
+        long delay = entry.deadlineTick - currentTick;
+        if (delay <= 0) {
+            return false;
+        }
+        int top = bucketTicks.length - 1;
+        int level = 0;
+        while (level < top && delay >= bucketTicks[level] * wheelSize) {
+            level++;
+        }
+        long slot = delay >= bucketTicks[top] * wheelSize
+                ? currentTick / bucketTicks[top] + wheelSize
+                : entry.deadlineTick / bucketTicks[level];
+        buckets[level][(int) (slot % wheelSize)].add(entry);
+        return true;
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadlineTick;
+        volatile boolean cancelled;
+
+        Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private static final class Bucket<K> {
+        private List<Entry<K>> entries = new ArrayList<>();
+
+        synchronized void add(Entry<K> entry) {
+            entries.add(entry);
+        }
+
+        synchronized List<Entry<K>> drain() {
+            List<Entry<K>> drained = entries;
+            entries = new ArrayList<>();
+            return drained;
+        }
+    }
+}
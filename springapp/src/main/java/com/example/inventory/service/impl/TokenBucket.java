@@ -0,0 +1,42 @@
+package com.example.inventory.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Implemented as the equivalent generic cell rate algorithm: the whole bucket state is one
+ * "theoretical arrival time", so taking a token is a single compare-and-set with no separate
+ * refill step. Times are System.nanoTime() values.
+ */
+class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+    }
+
+    // Returns 0 if a token was taken, otherwise the nanos until one will be available
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            long wait = next - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket carries no state worth keeping
+    boolean isFull(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+}
@@ -4,6 +4,8 @@ import com.example.inventory.entity.User;
 import com.example.inventory.repository.UserRepository;
 import com.example.inventory.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -34,6 +36,11 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    public Slice<User> getUsers(Pageable pageable, boolean withCount) {
+        return withCount ? userRepository.findAll(pageable) : userRepository.findAllBy(pageable);
+    }
+
     @Override
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
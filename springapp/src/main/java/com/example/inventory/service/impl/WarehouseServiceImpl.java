@@ -1,12 +1,17 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.ShardRouter;
 import com.example.inventory.entity.Warehouse;
+import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.repository.StockHistoryRepository;
 import com.example.inventory.repository.WarehouseRepository;
 import com.example.inventory.service.WarehouseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -14,9 +19,16 @@ public class WarehouseServiceImpl implements WarehouseService {
 
     @Autowired
     private final WarehouseRepository warehouseRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockHistoryRepository stockHistoryRepository;
+    private final ShardRouter shardRouter;
 
-    public WarehouseServiceImpl(WarehouseRepository warehouseRepository) {
+    public WarehouseServiceImpl(WarehouseRepository warehouseRepository, InventoryRepository inventoryRepository,
+                                StockHistoryRepository stockHistoryRepository, ShardRouter shardRouter) {
         this.warehouseRepository = warehouseRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockHistoryRepository = stockHistoryRepository;
+        this.shardRouter = shardRouter;
     }
 
     @Override
@@ -25,17 +37,24 @@ public class WarehouseServiceImpl implements WarehouseService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Warehouse> getWarehouseById(Long id) {
         return warehouseRepository.findById(id);
     }
 
     @Override
-    public List<Warehouse> getAllWarehouses() {
-        return warehouseRepository.findAll();
+    @Transactional(readOnly = true)
+    public Slice<Warehouse> getWarehouses(Pageable pageable, boolean withCount) {
+        return withCount ? warehouseRepository.findAll(pageable) : warehouseRepository.findAllBy(pageable);
     }
 
     @Override
     public void deleteWarehouseById(Long id) {
+        // Foreign keys cannot reach from the shards to the catalog, so check what they would have
+        if (shardRouter.isSharded() && shardRouter.readInWarehouse(id,
+                () -> inventoryRepository.existsByWarehouseId(id) || stockHistoryRepository.existsByWarehouseId(id))) {
+            throw new RuntimeException("Warehouse " + id + " still has inventory or stock history");
+        }
         warehouseRepository.deleteById(id);
     }
 
@@ -0,0 +1,50 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.OutboxProperties;
+import com.example.inventory.entity.OutboxEvent;
+import com.example.inventory.service.OutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as a JSON array; any answer other than 2xx fails the batch
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final URI uri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+
+    public WebhookOutboxSink(OutboxProperties.Webhook properties, ObjectMapper objectMapper) {
+        this.uri = URI.create(properties.getUrl());
+        this.timeout = Duration.ofMillis(properties.getTimeoutMs());
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            String body = response.body() == null ? "" : response.body();
+            throw new IOException("Webhook answered " + response.statusCode() + ": "
+                    + (body.length() > 200 ? body.substring(0, 200) : body));
+        }
+    }
+}
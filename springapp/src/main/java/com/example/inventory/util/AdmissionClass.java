@@ -0,0 +1,9 @@
+package com.example.inventory.util;
+
+// Endpoint classes with their own admission limits (see admission.classes.* properties)
+public enum AdmissionClass {
+    READ,
+    MUTATION,
+    REPORT,
+    BULK
+}
@@ -0,0 +1,8 @@
+package com.example.inventory.util;
+
+// Isolated executor + connection pool partitions (see bulkhead.* properties)
+public enum Bulkhead {
+    MUTATION,
+    READ,
+    REPORT
+}
@@ -0,0 +1,9 @@
+package com.example.inventory.util;
+
+// What a REPAIR run did about a discrepancy; unset when it was only reported, or changed while being repaired
+public enum DiscrepancyResolution {
+    REPAIRED,
+    ALREADY_CONSISTENT,
+    // A negative net, or one beyond an int, cannot be a stock level
+    LEDGER_OUT_OF_RANGE
+}
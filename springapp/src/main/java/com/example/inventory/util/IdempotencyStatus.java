@@ -0,0 +1,7 @@
+package com.example.inventory.util;
+
+// A key is IN_FLIGHT while its first request runs and COMPLETED once that request's response is stored
+public enum IdempotencyStatus {
+    IN_FLIGHT,
+    COMPLETED
+}
@@ -0,0 +1,62 @@
+package com.example.inventory.util;
+
+import com.example.inventory.dto.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+// Issues and verifies HS256 access tokens. The key and parser are built once and shared.
+@Component
+public class JwtUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expirationMillis;
+
+    public JwtUtil(@Value("${jwt.secret:}") String secret,
+                   @Value("${jwt.expiration-minutes:60}") long expirationMinutes) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("jwt.secret is not set; using a random key, so tokens will not survive a restart");
+            this.key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        } else {
+            this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.expirationMillis = expirationMinutes * 60_000L;
+    }
+
+    public String generateToken(Long userId, String email, Role role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("uid", userId)
+                .claim("role", role.name())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+    public AuthenticatedUser parseToken(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new AuthenticatedUser(claims.get("uid", Long.class), claims.getSubject(),
+                Role.valueOf(claims.get("role", String.class)));
+    }
+
+    public long getExpirationSeconds() {
+        return expirationMillis / 1000;
+    }
+}
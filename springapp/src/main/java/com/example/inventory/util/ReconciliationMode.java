@@ -0,0 +1,7 @@
+package com.example.inventory.util;
+
+// REPORT records ledger discrepancies; REPAIR also sets the stock level to the ledger net
+public enum ReconciliationMode {
+    REPORT,
+    REPAIR
+}
@@ -0,0 +1,10 @@
+package com.example.inventory.util;
+
+// Only ACTIVE holds count against available stock; the others are final
+public enum ReservationStatus {
+    ACTIVE,
+    // Turned into a stock-out
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
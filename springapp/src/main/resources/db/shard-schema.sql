@@ -0,0 +1,120 @@
+-- Tables owned by each shard. Mirrors the entity mappings of Inventory, StockHistory, LowStockAlert, AlertDailyCount,
+-- OutboxEvent, StockReservation and the per-shard ledger reconciliation state (LedgerDiscrepancy, LedgerDirtyKey, LedgerCheckpoint)
+-- without the foreign keys: products and warehouses are foreign tables on the catalog node here.
+-- Applied at startup when shard.enabled=true; keep it in step with entity changes.
+
+CREATE TABLE IF NOT EXISTS inventory (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    stock_level integer NOT NULL,
+    reserved_quantity integer NOT NULL DEFAULT 0,
+    min_stock_level integer,
+    UNIQUE (product_id, warehouse_id)
+);
+
+CREATE TABLE IF NOT EXISTS stock_history (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint,
+    warehouse_id bigint,
+    adjustment_quantity integer,
+    adjustment_type varchar(255) CHECK (adjustment_type IN ('ADD', 'REMOVE')),
+    timestamp timestamp(6),
+    performed_by_email varchar(255),
+    transfer_id varchar(36)
+);
+
+CREATE TABLE IF NOT EXISTS low_stock_alerts (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    current_stock integer NOT NULL,
+    min_stock_level integer,
+    resolved boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    resolved_at timestamp(6),
+    message varchar(255)
+);
+-- One active alert per product and warehouse is enforced by the partial index of AlertSchema
+CREATE INDEX IF NOT EXISTS low_stock_alerts_history_idx ON low_stock_alerts (created_at, id);
+
+-- Resolved alerts rolled up by the compaction (AlertDailyCount)
+CREATE TABLE IF NOT EXISTS alert_daily_counts (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    alert_date date NOT NULL,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    alerts bigint NOT NULL,
+    open_seconds bigint NOT NULL,
+    UNIQUE (alert_date, product_id, warehouse_id)
+);
+
+-- Events of the changes above, written in their transactions and relayed from here
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_key varchar(255) NOT NULL,
+    event_type varchar(64) NOT NULL,
+    payload text NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    attempts integer NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    last_error varchar(1000)
+);
+CREATE INDEX IF NOT EXISTS outbox_events_key_idx ON outbox_events (event_key, id);
+
+-- Ledger reconciliation: what runs found, keys written outside stock movements, and how far history was checked
+CREATE TABLE IF NOT EXISTS ledger_discrepancies (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    run_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    inventory_id bigint,
+    stock_level integer,
+    ledger_net bigint NOT NULL,
+    resolution varchar(255) CHECK (resolution IN ('REPAIRED', 'ALREADY_CONSISTENT', 'LEDGER_OUT_OF_RANGE')),
+    detected_at timestamp(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS ledger_discrepancies_run_idx ON ledger_discrepancies (run_id, product_id, id);
+
+CREATE TABLE IF NOT EXISTS ledger_dirty_keys (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    version bigint NOT NULL,
+    UNIQUE (product_id, warehouse_id)
+);
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint NOT NULL,
+    warehouse_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('ACTIVE', 'CONFIRMED', 'RELEASED', 'EXPIRED')),
+    reserved_by_email varchar(255),
+    created_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    ended_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoints (
+    id integer PRIMARY KEY,
+    history_id bigint NOT NULL,
+    updated_at timestamp(6) NOT NULL
+);
+
+-- Cross-shard lookups by product run on every shard; inventory is covered by its unique index. The ledger index
+-- also covers the per-key sums of the reconciliation, so it replaces the earlier product_id-only index.
+CREATE INDEX IF NOT EXISTS stock_history_ledger_idx
+    ON stock_history (product_id, warehouse_id, adjustment_type, adjustment_quantity);
+DROP INDEX IF EXISTS stock_history_product_idx;
+
+-- Transfers link their two history rows by id (added after the table, so existing shards get the column too)
+ALTER TABLE stock_history ADD COLUMN IF NOT EXISTS transfer_id varchar(36);
+CREATE INDEX IF NOT EXISTS stock_history_transfer_idx ON stock_history (transfer_id);
+
+-- Stock held by active reservations
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS reserved_quantity integer NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS stock_reservations_status_idx ON stock_reservations (status, expires_at);
+
+-- Per-warehouse low-stock threshold, overriding the product's when set
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS min_stock_level integer;